@@ -0,0 +1,145 @@
+package com.SAFE_Rescue.API_Perfiles.benchmark;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import com.SAFE_Rescue.API_Perfiles.modelo.Compania;
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoEquipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.util.DigitoVerificador;
+import net.datafaker.Faker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Datos de prueba para los benchmarks, generados con una semilla fija para que cada ejecución
+ * mida exactamente los mismos grafos de entidades.
+ */
+final class DatosBenchmark {
+
+    private static final long SEMILLA = 42;
+
+    private final Faker faker = new Faker(new Locale("es"), new Random(SEMILLA));
+    private final List<Estado> estados = new ArrayList<>();
+    private final List<TipoUsuario> tiposUsuario = new ArrayList<>();
+    private final List<TipoEquipo> tiposEquipo = new ArrayList<>();
+    private final List<Compania> companias = new ArrayList<>();
+    private int siguienteId = 1;
+
+    DatosBenchmark() {
+        String[] nombresEstado = {"Activo", "Inactivo", "Suspendido", "De licencia"};
+        for (int i = 0; i < nombresEstado.length; i++) {
+            estados.add(new Estado(i + 1, nombresEstado[i], faker.lorem().sentence(6)));
+        }
+        String[] nombresTipoUsuario = {"Bombero en Terreno", "Operador de Sala", "Administrador", "Ciudadano"};
+        for (int i = 0; i < nombresTipoUsuario.length; i++) {
+            TipoUsuario tipo = new TipoUsuario();
+            tipo.setIdTipoUsuario(i + 1);
+            tipo.setNombre(nombresTipoUsuario[i]);
+            tiposUsuario.add(tipo);
+        }
+        String[] nombresTipoEquipo = {"Rescate", "Incendios Forestales", "Materiales Peligrosos"};
+        for (int i = 0; i < nombresTipoEquipo.length; i++) {
+            TipoEquipo tipo = new TipoEquipo();
+            tipo.setIdTipoEquipo(i + 1);
+            tipo.setNombre(nombresTipoEquipo[i]);
+            tiposEquipo.add(tipo);
+        }
+        for (int i = 0; i < 20; i++) {
+            Compania compania = new Compania();
+            compania.setIdCompania(i + 1);
+            compania.setNombre((i + 1) + "ª Compañía " + faker.address().cityName());
+            companias.add(compania);
+        }
+    }
+
+    /**
+     * Usuario completo, con estado, tipo y foto.
+     */
+    Usuario usuario() {
+        return completar(new Usuario());
+    }
+
+    List<Usuario> usuarios(int cantidad) {
+        List<Usuario> usuarios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            usuarios.add(usuario());
+        }
+        return usuarios;
+    }
+
+    /**
+     * Equipo con compañía, tipo, estado y líder.
+     */
+    Equipo equipo() {
+        Equipo equipo = new Equipo();
+        equipo.setIdEquipo(siguienteId++);
+        equipo.setNombre(faker.team().name());
+        equipo.setCompania(elegir(companias));
+        equipo.setTipoEquipo(elegir(tiposEquipo));
+        equipo.setEstado(elegir(estados));
+        equipo.setLider(usuario());
+        return equipo;
+    }
+
+    List<Equipo> equipos(int cantidad) {
+        List<Equipo> equipos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            equipos.add(equipo());
+        }
+        return equipos;
+    }
+
+    /**
+     * Bomberos repartidos en equipos de hasta 10 integrantes, como en una compañía real.
+     */
+    List<Bombero> bomberos(int cantidad) {
+        List<Equipo> equipos = equipos(Math.max(1, cantidad / 10));
+        List<Bombero> bomberos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Bombero bombero = completar(new Bombero());
+            bombero.setEquipo(equipos.get(i % equipos.size()));
+            bomberos.add(bombero);
+        }
+        return bomberos;
+    }
+
+    /**
+     * RUNs de 7 y 8 dígitos.
+     */
+    String[] runs(int cantidad) {
+        String[] runs = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            runs[i] = String.valueOf(faker.number().numberBetween(1_000_000, 30_000_000));
+        }
+        return runs;
+    }
+
+    private <T extends Usuario> T completar(T usuario) {
+        usuario.setIdUsuario(siguienteId++);
+        usuario.setRun(String.valueOf(faker.number().numberBetween(1_000_000, 30_000_000)));
+        usuario.setDv(DigitoVerificador.calcular(usuario.getRun()));
+        usuario.setNombre(faker.name().firstName());
+        usuario.setAPaterno(faker.name().lastName());
+        usuario.setAMaterno(faker.name().lastName());
+        usuario.setFechaRegistro(LocalDate.of(2020, 1, 1).plusDays(faker.number().numberBetween(0, 2000)));
+        usuario.setTelefono("9" + faker.number().digits(8));
+        usuario.setCorreo(faker.internet().emailAddress());
+        usuario.setContrasenia("$2a$10$" + faker.regexify("[A-Za-z0-9./]{53}"));
+        usuario.setEstado(elegir(estados));
+        usuario.setTipoUsuario(elegir(tiposUsuario));
+        usuario.setFoto(new Foto(usuario.getIdUsuario(), "https://fotos.safe-rescue.cl/perfiles/" + usuario.getIdUsuario() + ".jpg",
+                faker.regexify("[0-9a-f]{64}")));
+        return usuario;
+    }
+
+    private <T> T elegir(List<T> valores) {
+        return valores.get(faker.random().nextInt(valores.size()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.SAFE_Rescue.API_Perfiles.benchmark;
+
+import com.SAFE_Rescue.API_Perfiles.util.DigitoVerificador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo del dígito verificador sobre RUNs distintos en cada invocación,
+ * para que el resultado no se pueda predecir ni plegar como constante.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DigitoVerificadorBenchmark {
+
+    private String[] runs;
+    private int indice;
+
+    @Setup
+    public void preparar() {
+        runs = new DatosBenchmark().runs(1024);
+    }
+
+    @Benchmark
+    public String calcular() {
+        indice = (indice + 1) & (runs.length - 1);
+        return DigitoVerificador.calcular(runs[indice]);
+    }
+}
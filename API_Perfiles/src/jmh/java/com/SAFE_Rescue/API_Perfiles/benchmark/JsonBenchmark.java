@@ -0,0 +1,94 @@
+package com.SAFE_Rescue.API_Perfiles.benchmark;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización y deserialización JSON de los grafos que entregan y reciben los controladores:
+ * una entidad (GET por ID), una página (100) y un listado o lote completo (1000).
+ * Usa un ObjectMapper construido como el de Spring Boot (Jackson2ObjectMapperBuilder).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final TypeReference<List<Usuario>> USUARIOS = new TypeReference<>() { };
+    private static final TypeReference<List<Bombero>> BOMBEROS = new TypeReference<>() { };
+    private static final TypeReference<List<Equipo>> EQUIPOS = new TypeReference<>() { };
+
+    @Param({"1", "100", "1000"})
+    private int cantidad;
+
+    private ObjectMapper objectMapper;
+    private List<Usuario> usuarios;
+    private List<Bombero> bomberos;
+    private List<Equipo> equipos;
+    private byte[] usuariosJson;
+    private byte[] bomberosJson;
+    private byte[] equiposJson;
+
+    @Setup
+    public void preparar() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        DatosBenchmark datos = new DatosBenchmark();
+        usuarios = datos.usuarios(cantidad);
+        bomberos = datos.bomberos(cantidad);
+        equipos = datos.equipos(cantidad);
+        usuariosJson = objectMapper.writeValueAsBytes(usuarios);
+        bomberosJson = objectMapper.writeValueAsBytes(bomberos);
+        equiposJson = objectMapper.writeValueAsBytes(equipos);
+    }
+
+    @Benchmark
+    public byte[] serializarUsuarios() throws IOException {
+        return objectMapper.writeValueAsBytes(usuarios);
+    }
+
+    @Benchmark
+    public List<Usuario> deserializarUsuarios() throws IOException {
+        return objectMapper.readValue(usuariosJson, USUARIOS);
+    }
+
+    @Benchmark
+    public byte[] serializarBomberos() throws IOException {
+        return objectMapper.writeValueAsBytes(bomberos);
+    }
+
+    @Benchmark
+    public List<Bombero> deserializarBomberos() throws IOException {
+        return objectMapper.readValue(bomberosJson, BOMBEROS);
+    }
+
+    @Benchmark
+    public byte[] serializarEquipos() throws IOException {
+        return objectMapper.writeValueAsBytes(equipos);
+    }
+
+    @Benchmark
+    public List<Equipo> deserializarEquipos() throws IOException {
+        return objectMapper.readValue(equiposJson, EQUIPOS);
+    }
+}
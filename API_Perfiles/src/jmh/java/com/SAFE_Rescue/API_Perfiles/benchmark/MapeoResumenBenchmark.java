@@ -0,0 +1,64 @@
+package com.SAFE_Rescue.API_Perfiles.benchmark;
+
+import com.SAFE_Rescue.API_Perfiles.dto.BomberoResumen;
+import com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen;
+import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo de entidades ya cargadas a los resúmenes que entregan los listados paginados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoResumenBenchmark {
+
+    @Param({"100", "1000"})
+    private int cantidad;
+
+    private List<Usuario> usuarios;
+    private List<Bombero> bomberos;
+    private List<Equipo> equipos;
+
+    @Setup
+    public void preparar() {
+        DatosBenchmark datos = new DatosBenchmark();
+        usuarios = datos.usuarios(cantidad);
+        bomberos = datos.bomberos(cantidad);
+        equipos = datos.equipos(cantidad);
+    }
+
+    @Benchmark
+    public List<UsuarioResumen> usuarios() {
+        return usuarios.stream().map(UsuarioResumen::desde).toList();
+    }
+
+    @Benchmark
+    public List<BomberoResumen> bomberos() {
+        return bomberos.stream().map(BomberoResumen::desde).toList();
+    }
+
+    @Benchmark
+    public List<EquipoResumen> equipos() {
+        return equipos.stream().map(EquipoResumen::desde).toList();
+    }
+}
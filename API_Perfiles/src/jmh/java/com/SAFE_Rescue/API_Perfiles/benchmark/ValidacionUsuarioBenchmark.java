@@ -0,0 +1,60 @@
+package com.SAFE_Rescue.API_Perfiles.benchmark;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de atributos obligatorios de un usuario ({@link UsuarioService#validarAtributosUsuario}),
+ * que se ejecuta por cada usuario de una creación o actualización, incluidas las masivas.
+ * El caso inválido falla en el último campo revisado y mide además el costo de la excepción.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacionUsuarioBenchmark {
+
+    private UsuarioService usuarioService;
+    private Usuario valido;
+    private Usuario invalido;
+
+    @Setup
+    public void preparar() {
+        // La validación de atributos no usa dependencias inyectadas
+        usuarioService = new UsuarioService();
+        DatosBenchmark datos = new DatosBenchmark();
+        valido = datos.usuario();
+        invalido = datos.usuario();
+        invalido.setContrasenia(" ");
+    }
+
+    @Benchmark
+    public Usuario usuarioValido() {
+        usuarioService.validarAtributosUsuario(valido);
+        return valido;
+    }
+
+    @Benchmark
+    public Object usuarioInvalido() {
+        try {
+            usuarioService.validarAtributosUsuario(invalido);
+            return invalido;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.SAFE_Rescue.API_Perfiles;
 
 import com.SAFE_Rescue.API_Perfiles.modelo.*;
 import com.SAFE_Rescue.API_Perfiles.repositoy.*;
+import com.SAFE_Rescue.API_Perfiles.util.DigitoVerificador;
 import net.datafaker.Faker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -125,7 +126,7 @@ public class DataLoader implements CommandLineRunner {
 
                 // Asignar los atributos base a la instancia recién creada (Usuario o Bombero)
                 usuario.setRun(crearRunUnico());
-                usuario.setDv(calcularDv(usuario.getRun()));
+                usuario.setDv(DigitoVerificador.calcular(usuario.getRun()));
                 usuario.setNombre(faker.name().firstName());
                 usuario.setAPaterno(faker.name().lastName());
                 usuario.setAMaterno(faker.name().lastName());
@@ -185,22 +186,4 @@ public class DataLoader implements CommandLineRunner {
             return Collections.emptyList();
         }
     }
-
-    // Método de utilidad para calcular el DV del RUN
-    private String calcularDv(String runStr) {
-        int run = Integer.parseInt(runStr);
-        int suma = 0;
-        int multiplicador = 2;
-
-        while (run > 0) {
-            suma += (run % 10) * multiplicador;
-            run /= 10;
-            multiplicador = (multiplicador == 7) ? 2 : multiplicador + 1;
-        }
-
-        int dv = 11 - (suma % 11);
-        if (dv == 11) return "0";
-        if (dv == 10) return "K";
-        return String.valueOf(dv);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Alinea la secuencia usuario_seq con los IDs ya existentes al iniciar la aplicación.
+ * Los usuarios creados con la estrategia IDENTITY anterior no avanzaron la secuencia, por lo que
+ * sin este ajuste los primeros IDs generados podrían coincidir con IDs ya usados.
+ * Se ejecuta antes que cualquier otro runner (por ejemplo, la carga de datos de prueba).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AlineadorSecuenciaUsuario implements ApplicationRunner {
+
+    private static final String SECUENCIA = "usuario_seq";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Con el optimizador pooled el valor leído es el límite superior del bloque:
+        // dejar la secuencia un bloque por encima del máximo garantiza IDs nuevos
+        long minimo = usuarioRepository.findMaxIdUsuario() + Usuario.IDS_POR_BLOQUE + 1L;
+
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            Long siguiente = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(SECUENCIA), Long.class);
+            if (siguiente != null && siguiente < minimo) {
+                jdbcTemplate.execute("alter sequence " + SECUENCIA + " restart with " + minimo);
+            }
+        } else {
+            // Secuencia emulada con una tabla (MySQL); sólo se avanza, nunca se retrocede
+            jdbcTemplate.update("update " + SECUENCIA + " set next_val = ? where next_val < ?", minimo, minimo);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ConcurrenciaConfig {
+
+    /**
+     * Scheduler acotado donde los flujos reactivos ejecutan las operaciones JPA (bloqueantes).
+     * Por defecto tiene tantos hilos como conexiones el pool de Hikari, de modo que ningún hilo
+     * quede esperando una conexión; las tareas que exceden la cola se rechazan.
+     * Con {@code spring.threads.virtual.enabled=true} los hilos son virtuales (el límite se mantiene).
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler(@Value("${jpa.scheduler.hilos:${spring.datasource.hikari.maximum-pool-size:10}}") int hilos,
+                                  @Value("${jpa.scheduler.cola:10000}") int cola,
+                                  Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Schedulers.newBoundedElastic(hilos, cola, Thread.ofVirtual().name("jpa-", 0).factory(), 60);
+        }
+        return Schedulers.newBoundedElastic(hilos, cola, "jpa");
+    }
+}
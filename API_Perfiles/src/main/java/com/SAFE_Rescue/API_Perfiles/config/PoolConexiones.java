@@ -0,0 +1,48 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuración del pool de conexiones HTTP hacia una API externa.
+ * Se enlaza por API con el prefijo {@code <api>.service.pool} (por ejemplo, {@code estado.service.pool.max-conexiones}).
+ */
+@Data
+public class PoolConexiones {
+
+    /**
+     * Máximo de conexiones abiertas simultáneamente hacia la API.
+     */
+    private int maxConexiones = 50;
+
+    /**
+     * Máximo de peticiones esperando una conexión libre; las que exceden este número fallan de inmediato.
+     */
+    private int maxPendientes = 200;
+
+    /**
+     * Tiempo máximo de espera por una conexión libre.
+     */
+    private Duration timeoutAdquisicion = Duration.ofSeconds(2);
+
+    /**
+     * Tiempo que una conexión puede permanecer inactiva en el pool antes de cerrarse.
+     */
+    private Duration maxInactividad = Duration.ofSeconds(30);
+
+    /**
+     * Vida máxima de una conexión, para repartir la carga cuando la API cambia de instancias.
+     */
+    private Duration maxVida = Duration.ofMinutes(5);
+
+    /**
+     * Intervalo con que se cierran en segundo plano las conexiones inactivas o vencidas.
+     */
+    private Duration intervaloDesalojo = Duration.ofSeconds(30);
+
+    /**
+     * Reutilizar las conexiones entre peticiones (HTTP keep-alive).
+     */
+    private boolean keepAlive = true;
+}
@@ -0,0 +1,226 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Protección de las llamadas a las APIs externas (estados, compañías y fotos).
+ * Cada API tiene su propio circuit breaker y bulkhead (configurados en {@code resilience4j.*}),
+ * de modo que una API lenta o caída sólo consume su propia cuota de llamadas concurrentes y,
+ * una vez abierto el circuito, falla de inmediato sin esperar a la red.
+ * Cada API tiene además su propio pool de conexiones ({@link PoolConexiones}), compartido por todos los
+ * clientes de esa API, con límites de conexiones y de peticiones en espera.
+ * El estado de cada circuito y bulkhead se publica como métricas {@code resilience4j.*}, y el de cada pool como
+ * {@code reactor.netty.connection.provider.*} (conexiones activas, inactivas, pendientes y tiempo de adquisición).
+ * El tiempo de cada llamada se publica en {@code downstream.llamadas}, etiquetado por API ({@code downstream}),
+ * resultado ({@code outcome}), código HTTP ({@code status}) y excepción.
+ */
+@Component
+public class ResilienciaDownstream {
+
+    public static final String ESTADO = "estado";
+    public static final String COMPANIA = "compania";
+    public static final String FOTO = "foto";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ConnectionProvider> proveedores = new ConcurrentHashMap<>();
+
+    public ResilienciaDownstream(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                                 MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Configura un WebClient para una API externa: pool de conexiones, timeouts de conexión y de respuesta,
+     * más el bulkhead y el circuit breaker con el nombre indicado, y la medición de cada llamada.
+     *
+     * @param builder           Builder del WebClient.
+     * @param nombre            Nombre de la API externa ({@link #ESTADO}, {@link #COMPANIA} o {@link #FOTO}).
+     * @param pool              Configuración del pool de conexiones de la API; sólo se usa al crear el pool,
+     *                          los siguientes clientes de la misma API lo comparten.
+     * @param timeoutConexion   Tiempo máximo para establecer la conexión.
+     * @param timeoutRespuesta  Tiempo máximo de espera de la respuesta.
+     * @return El mismo builder, configurado.
+     */
+    public WebClient.Builder configurar(WebClient.Builder builder, String nombre, PoolConexiones pool,
+                                        Duration timeoutConexion, Duration timeoutRespuesta) {
+        HttpClient httpClient = HttpClient.create(proveedor(nombre, pool))
+                .keepAlive(pool.isKeepAlive())
+                .option(ChannelOption.SO_KEEPALIVE, pool.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(timeoutConexion.toMillis()))
+                .responseTimeout(timeoutRespuesta);
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(medicion(meterRegistry, nombre))
+                .filter(filtro(circuitBreakerRegistry.circuitBreaker(nombre), bulkheadRegistry.bulkhead(nombre)));
+    }
+
+    /**
+     * Obtiene el pool de conexiones de una API, creándolo en el primer uso.
+     */
+    ConnectionProvider proveedor(String nombre, PoolConexiones pool) {
+        return proveedores.computeIfAbsent(nombre, clave -> ConnectionProvider.builder(clave)
+                .maxConnections(pool.getMaxConexiones())
+                .pendingAcquireMaxCount(pool.getMaxPendientes())
+                .pendingAcquireTimeout(pool.getTimeoutAdquisicion())
+                .maxIdleTime(pool.getMaxInactividad())
+                .maxLifeTime(pool.getMaxVida())
+                .evictInBackground(pool.getIntervaloDesalojo())
+                .metrics(true)
+                .build());
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        proveedores.values().forEach(ConnectionProvider::dispose);
+    }
+
+    /**
+     * Filtro que aplica el bulkhead y el circuit breaker a cada petición.
+     * Las respuestas 5xx cuentan como fallo; las 4xx (por ejemplo, 404) son respuestas válidas de la API.
+     * Un bulkhead lleno rechaza la petición con {@code BulkheadFullException} y un circuito abierto
+     * con {@code CallNotPermittedException}, ambas sin llegar a la red.
+     * <p>
+     * La llamada dura hasta que se termina de leer el cuerpo de la respuesta, no sólo hasta recibir los encabezados:
+     * el permiso del bulkhead se mantiene mientras se lee (por ejemplo, una página grande del catálogo) y un error
+     * durante la lectura cuenta como fallo en el circuit breaker.
+     */
+    static ExchangeFilterFunction filtro(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        // La petición se difiere hasta la suscripción, para que una llamada rechazada no llegue a la red
+        return (peticion, siguiente) -> Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+            Llamada llamada = new Llamada(circuitBreaker, bulkhead);
+            return siguiente.exchange(peticion)
+                    .flatMap(respuesta -> {
+                        if (respuesta.statusCode().is5xxServerError()) {
+                            return respuesta.createError();
+                        }
+                        // Desde aquí la llamada termina con el cuerpo de la respuesta
+                        llamada.respuestaEntregada = true;
+                        return Mono.just(respuesta.mutate()
+                                .body(cuerpo -> cuerpo
+                                        .doOnComplete(() -> llamada.terminar(null))
+                                        .doOnError(llamada::terminar)
+                                        .doOnCancel(llamada::cancelar))
+                                .build());
+                    })
+                    .doOnError(llamada::terminar)
+                    .doOnCancel(() -> {
+                        if (!llamada.respuestaEntregada) {
+                            llamada.cancelar();
+                        }
+                    });
+        });
+    }
+
+    // Una llamada con permiso del circuit breaker y del bulkhead; los libera una sola vez al terminar
+    private static final class Llamada {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final long inicio;
+        private final AtomicBoolean terminada = new AtomicBoolean();
+        private volatile boolean respuestaEntregada;
+
+        Llamada(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.inicio = circuitBreaker.getCurrentTimestamp();
+        }
+
+        // Registra el resultado en el circuit breaker (error nulo = éxito)
+        void terminar(Throwable error) {
+            if (terminada.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+                long duracion = circuitBreaker.getCurrentTimestamp() - inicio;
+                if (error == null) {
+                    circuitBreaker.onSuccess(duracion, circuitBreaker.getTimestampUnit());
+                } else {
+                    circuitBreaker.onError(duracion, circuitBreaker.getTimestampUnit(), error);
+                }
+            }
+        }
+
+        // Cancelada por quien la hizo: se liberan los permisos sin contarla como éxito ni como fallo
+        void cancelar() {
+            if (terminada.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+                circuitBreaker.releasePermission();
+            }
+        }
+    }
+
+    /**
+     * Filtro que mide cada llamada a una API externa, desde la suscripción hasta recibir la respuesta.
+     * Debe registrarse antes de {@link #filtro} para medir también las llamadas rechazadas por el circuit breaker
+     * o el bulkhead ({@code outcome=RECHAZADA}) y ver las respuestas 5xx con su código.
+     */
+    static ExchangeFilterFunction medicion(MeterRegistry meterRegistry, String nombre) {
+        return (peticion, siguiente) -> Mono.defer(() -> {
+            Timer.Sample muestra = Timer.start(meterRegistry);
+            return siguiente.exchange(peticion)
+                    .doOnSuccess(respuesta -> registrar(meterRegistry, muestra, nombre,
+                            respuesta != null ? respuesta.statusCode() : null, null))
+                    .doOnError(error -> registrar(meterRegistry, muestra, nombre,
+                            error instanceof WebClientResponseException e ? e.getStatusCode() : null, error))
+                    .doOnCancel(() -> muestra.stop(temporizador(meterRegistry, nombre, "CANCELADA", "NONE", "none")));
+        });
+    }
+
+    private static void registrar(MeterRegistry meterRegistry, Timer.Sample muestra, String nombre,
+                                  HttpStatusCode status, Throwable error) {
+        String outcome;
+        if (status != null) {
+            outcome = status.is5xxServerError() ? "SERVER_ERROR"
+                    : status.is4xxClientError() ? "CLIENT_ERROR"
+                    : status.is3xxRedirection() ? "REDIRECTION" : "SUCCESS";
+        } else if (error instanceof CallNotPermittedException || error instanceof BulkheadFullException) {
+            outcome = "RECHAZADA";
+        } else {
+            outcome = "ERROR";
+        }
+        muestra.stop(temporizador(meterRegistry, nombre, outcome,
+                status != null ? String.valueOf(status.value()) : "NONE",
+                error != null ? error.getClass().getSimpleName() : "none"));
+    }
+
+    private static Timer temporizador(MeterRegistry meterRegistry, String nombre, String outcome, String status,
+                                      String excepcion) {
+        return Timer.builder("downstream.llamadas")
+                .description("Tiempo de las llamadas a las APIs externas")
+                .tags("downstream", nombre, "outcome", outcome, "status", status, "exception", excepcion)
+                .register(meterRegistry);
+    }
+}
@@ -1,23 +1,56 @@
 package com.SAFE_Rescue.API_Perfiles.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient companiaWebClient() {
-        return WebClient.builder()
-                .baseUrl("http://localhost:8081/api/companias")
+    @ConfigurationProperties("compania.service.pool")
+    public PoolConexiones poolCompania() {
+        return new PoolConexiones();
+    }
+
+    @Bean
+    @ConfigurationProperties("estado.service.pool")
+    public PoolConexiones poolEstado() {
+        return new PoolConexiones();
+    }
+
+    @Bean
+    @ConfigurationProperties("foto.service.pool")
+    public PoolConexiones poolFoto() {
+        return new PoolConexiones();
+    }
+
+    @Bean
+    public WebClient companiaWebClient(@Value("${compania.service.url}") String companiaServiceUrl,
+                                       @Value("${compania.service.timeout-conexion:2s}") Duration timeoutConexion,
+                                       @Value("${compania.service.timeout-respuesta:3s}") Duration timeoutRespuesta,
+                                       WebClient.Builder webClientBuilder,
+                                       ResilienciaDownstream resiliencia) {
+        return resiliencia.configurar(webClientBuilder, ResilienciaDownstream.COMPANIA, poolCompania(),
+                        timeoutConexion, timeoutRespuesta)
+                .baseUrl(companiaServiceUrl)
                 .build();
     }
 
     @Bean
-    public WebClient estadoWebClient() {
-        return WebClient.builder()
-                .baseUrl("http://localhost:8082/api/estados")
+    public WebClient estadoWebClient(@Value("${estado.service.url}") String estadoServiceUrl,
+                                     @Value("${estado.service.timeout-conexion:2s}") Duration timeoutConexion,
+                                     @Value("${estado.service.timeout-respuesta:3s}") Duration timeoutRespuesta,
+                                     WebClient.Builder webClientBuilder,
+                                     ResilienciaDownstream resiliencia) {
+        // Misma URL que WebClienteConfig, para que ambas consultas de estado compartan la caché
+        return resiliencia.configurar(webClientBuilder, ResilienciaDownstream.ESTADO, poolEstado(),
+                        timeoutConexion, timeoutRespuesta)
+                .baseUrl(estadoServiceUrl)
                 .build();
     }
 }
\ No newline at end of file
@@ -1,44 +1,65 @@
 package com.SAFE_Rescue.API_Perfiles.config;
 
+import com.SAFE_Rescue.API_Perfiles.service.EstadoCacheService;
+import com.SAFE_Rescue.API_Perfiles.service.NormalizadorImagenes;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
-import org.springframework.http.client.reactive.ClientHttpRequest;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 
 @Configuration
 public class WebClienteConfig {
 
+    // Tamaño de los bloques en que se envía una foto; acota la memoria usada por cada subida
+    private static final int TAMANO_BLOQUE = 16 * 1024;
+
     private final WebClient webClient;
-    private final String companiaServiceUrl;
-    private final String estadoServiceUrl;
+    private final WebClient companiaWebClient;
     private final String fotoServiceUrl;
+    private final EstadoCacheService estadoCacheService;
+    private final NormalizadorImagenes normalizadorImagenes;
 
-    public WebClienteConfig(@Value("${compania.service.url}") String companiaServiceUrl,
-                            @Value("${estado.service.url}") String estadoServiceUrl,
-                            @Value("${foto.service.url}") String fotoServiceUrl,
-                            WebClient.Builder webClientBuilder) { // Inyectamos el builder de Spring
-        // Construimos una sola instancia de WebClient para todas las llamadas
+    public WebClienteConfig(@Value("${foto.service.url}") String fotoServiceUrl,
+                            @Value("${foto.service.timeout-conexion:2s}") Duration timeoutConexion,
+                            @Value("${foto.service.timeout-respuesta:30s}") Duration timeoutRespuesta,
+                            WebClient.Builder webClientBuilder, // Inyectamos el builder de Spring
+                            WebClient companiaWebClient,
+                            PoolConexiones poolFoto,
+                            ResilienciaDownstream resiliencia,
+                            EstadoCacheService estadoCacheService,
+                            NormalizadorImagenes normalizadorImagenes) {
+        // Cliente de la API de fotos, con su propio circuit breaker, bulkhead y timeouts
         // Esto permite usar la configuración por defecto de Spring
-        this.webClient = webClientBuilder.build();
-        this.companiaServiceUrl = companiaServiceUrl;
-        this.estadoServiceUrl = estadoServiceUrl;
+        this.webClient = resiliencia.configurar(webClientBuilder, ResilienciaDownstream.FOTO, poolFoto,
+                        timeoutConexion, timeoutRespuesta)
+                .build();
+        // Las compañías se consultan con el cliente protegido de la API de compañías
+        this.companiaWebClient = companiaWebClient;
         this.fotoServiceUrl = fotoServiceUrl;
+        this.estadoCacheService = estadoCacheService;
+        this.normalizadorImagenes = normalizadorImagenes;
     }
 
     // Método para obtener una compañía
     public Map<String, Object> getCompaniaById(Long id) {
-        return this.webClient.get()
-                .uri(this.companiaServiceUrl + "/{id}", id)
+        return this.companiaWebClient.get()
+                .uri("/{id}", id)
                 .retrieve()
                 .onStatus(status -> status.is4xxClientError(),
                         response -> response.bodyToMono(String.class)
@@ -47,16 +68,10 @@ public class WebClienteConfig {
                 .block();
     }
 
-    // Método para obtener un estado
+    // Método para obtener un estado (pasa por la caché de estados compartida con UsuarioService)
     public Map<String, Object> getEstadoById(Long id) {
-        return this.webClient.get()
-                .uri(this.estadoServiceUrl + "/{id}", id)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError(),
-                        response -> response.bodyToMono(String.class)
-                                .map(body -> new RuntimeException("Estado no encontrado (ID: " + id + ")")))
-                .bodyToMono(Map.class)
-                .block();
+        return this.estadoCacheService.buscarEstado(Math.toIntExact(id))
+                .orElseThrow(() -> new RuntimeException("Estado no encontrado (ID: " + id + ")"));
     }
 
     // Método para obtener la URL de una foto (revisado para ser más robusto)
@@ -84,38 +99,51 @@ public class WebClienteConfig {
         }
     }
 
-    // Método para subir una foto (corregido)
+    // Método para subir una foto
+    // El archivo se envía en bloques de TAMANO_BLOQUE bytes leídos a medida que la API de fotos los acepta
+    // (backpressure), sin cargarlo completo en memoria
     public String uploadFoto(MultipartFile archivo) {
         if (archivo.isEmpty()) {
             throw new IllegalArgumentException("El archivo no puede estar vacío.");
         }
+        return uploadFoto(archivo, archivo.getOriginalFilename(), archivo.getContentType());
+    }
 
+    // Método para subir una foto desde cualquier origen (por ejemplo, un archivo ya guardado en disco)
+    // Antes de enviarla, la foto se reduce y recodifica sin metadatos (ver NormalizadorImagenes)
+    public String uploadFoto(InputStreamSource archivo, String nombreArchivo, String tipoContenido) {
         try {
-            // Convierte el MultipartFile a ByteArrayResource para WebClient
-            ByteArrayResource resource = new ByteArrayResource(archivo.getBytes()) {
-                @Override
-                public String getFilename() {
-                    return archivo.getOriginalFilename();
-                }
-            };
+            NormalizadorImagenes.Imagen imagen = normalizadorImagenes.normalizar(archivo, nombreArchivo, tipoContenido);
+
+            // La lectura del archivo (temporal en disco) es bloqueante: se hace fuera de los hilos de red
+            Flux<DataBuffer> contenido = DataBufferUtils.readInputStream(imagen.contenido()::getInputStream,
+                            DefaultDataBufferFactory.sharedInstance, TAMANO_BLOQUE)
+                    .subscribeOn(Schedulers.boundedElastic());
 
             // Construye el cuerpo de la solicitud multipart
             MultipartBodyBuilder builder = new MultipartBodyBuilder();
-            builder.part("file", resource, MediaType.MULTIPART_FORM_DATA);
+            builder.asyncPart("file", contenido, DataBuffer.class)
+                    .filename(imagen.nombreArchivo())
+                    .contentType(imagen.tipoContenido() != null
+                            ? MediaType.parseMediaType(imagen.tipoContenido())
+                            : MediaType.APPLICATION_OCTET_STREAM);
 
             // Realiza la llamada HTTP POST a la API de fotos
             return webClient.post() // Usa la instancia de WebClient del constructor
                     .uri(this.fotoServiceUrl + "/upload") // URL completa
                     .contentType(MediaType.MULTIPART_FORM_DATA)
-                    .body((BodyInserter<?, ? super ClientHttpRequest>) builder.build()) // No se necesita castear
+                    .body(BodyInserters.fromMultipartData(builder.build()))
                     .retrieve()
                     .bodyToMono(String.class)
                     .block();
 
         } catch (WebClientResponseException e) {
             throw new RuntimeException("Error al comunicarse con la API de fotos: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("Error al leer el archivo de la foto: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof IOException causa) {
+                throw new RuntimeException("Error al leer el archivo de la foto: " + causa.getMessage(), causa);
+            }
+            throw e;
         }
     }
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.SAFE_Rescue.API_Perfiles.controller;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.BomberoResumen;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
 import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
 import com.SAFE_Rescue.API_Perfiles.service.BomberoService;
+import com.SAFE_Rescue.API_Perfiles.util.ErrorTransitorio;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,10 +17,14 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -38,9 +49,10 @@ public class BomberoController {
     @GetMapping
     @Operation(summary = "Obtener todos los bomberos", description = "Obtiene una lista con todos los bomberos")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de bomberos obtenida exitosamente.",
+            @ApiResponse(responseCode = "200", description = "Lista de bomberos obtenida exitosamente " +
+                    "(o una página por cursor si se indica limit).",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Bombero.class))),
+                            schema = @Schema(oneOf = {ListaBomberos.class, PaginaBomberos.class}))),
             @ApiResponse(responseCode = "204", description = "No hay bomberos registrados.")
     })
     public ResponseEntity<List<Bombero>> listar() {
@@ -51,6 +63,57 @@ public class BomberoController {
         return ResponseEntity.ok(bomberos);
     }
 
+    /**
+     * Obtiene una página de bomberos usando paginación por cursor sobre el ID.
+     * @param after ID del último bombero recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de bomberos a devolver
+     * @return ResponseEntity con la página de bomberos y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping(params = "limit")
+    @Operation(summary = "Obtener bomberos paginados", description = "Obtiene una página de bomberos ordenada por ID usando un cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de bomberos obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaBomberos.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarPagina(@Parameter(description = "ID del último bombero recibido")
+                                          @RequestParam(required = false) Integer after,
+                                          @Parameter(description = "Cantidad máxima de bomberos a devolver", required = true)
+                                          @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(bomberoService.findPagina(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de resúmenes de bomberos, pensada para listados.
+     * Sólo incluye las columnas necesarias y los nombres de sus relaciones.
+     * @param after ID del último bombero recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de resúmenes a devolver
+     * @return ResponseEntity con la página de resúmenes y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping("/resumen")
+    @Operation(summary = "Obtener resumen de bomberos", description = "Obtiene una página de bomberos con sólo los datos necesarios para listados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resúmenes obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaBomberoResumen.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarResumen(@Parameter(description = "ID del último bombero recibido")
+                                           @RequestParam(required = false) Integer after,
+                                           @Parameter(description = "Cantidad máxima de resúmenes a devolver")
+                                           @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(bomberoService.findResumenes(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     /**
      * Busca un bombero por su ID.
      * @param id ID del bombero a buscar
@@ -59,7 +122,7 @@ public class BomberoController {
     @GetMapping("/{id}")
     @Operation(summary = "Obtiene un bombero por su ID", description = "Obtiene un bombero al buscarlo por su ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Bombero encontrado.",
+            @ApiResponse(responseCode = "200", description = "Bombero encontrado. El ETag identifica su versión actual.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Bombero.class))),
             @ApiResponse(responseCode = "404", description = "Bombero no encontrado.")
@@ -72,7 +135,7 @@ public class BomberoController {
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Bombero no encontrado", HttpStatus.NOT_FOUND);
         }
-        return ResponseEntity.ok(bombero);
+        return ResponseEntity.ok().eTag(EtiquetaVersion.etag(bombero.getVersion())).body(bombero);
     }
 
     /**
@@ -99,6 +162,31 @@ public class BomberoController {
         }
     }
 
+    /**
+     * Crea bomberos en bloque.
+     * @param bomberos Arreglo de bomberos a crear
+     * @return ResponseEntity con el resultado de cada bombero (en el mismo orden), o mensaje de error
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Crear bomberos en bloque", description = "Crea varios bomberos en una sola solicitud e informa el resultado de cada uno")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Solicitud procesada; cada elemento indica si fue creado o rechazado.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoLote.class))),
+            @ApiResponse(responseCode = "400", description = "Lista vacía o demasiado grande."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> agregarBomberosLote(@RequestBody @Parameter(description = "Bomberos a crear", required = true)
+                                                 List<Bombero> bomberos) {
+        try {
+            return ResponseEntity.ok(bomberoService.saveLote(bomberos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
     /**
      * Actualiza un bombero existente.
      * @param id ID del bombero a actualizar
@@ -111,17 +199,54 @@ public class BomberoController {
             @ApiResponse(responseCode = "200", description = "Bombero actualizado con éxito."),
             @ApiResponse(responseCode = "404", description = "Bombero no encontrado."),
             @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El bombero fue modificado desde la versión indicada en If-Match."),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
     })
     public ResponseEntity<String> actualizarBombero(@Parameter(description = "ID del bombero a actualizar", required = true)
                                                     @PathVariable Integer id,
                                                     @RequestBody @Parameter(description = "Datos actualizados del bombero", required = true)
-                                                    Bombero bombero) {
+                                                    Bombero bombero,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                    @Parameter(description = "ETag obtenido al consultar el bombero; si cambió, se responde 412")
+                                                    String ifMatch) {
+        try {
+            Bombero actualizado = bomberoService.update(bombero, id, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bombero no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("bombero"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente un bombero",
+            description = "Modifica sólo los campos enviados; las relaciones se validan sólo si cambian")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bombero actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Bombero no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El bombero fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<String> actualizarBomberoParcial(@Parameter(description = "ID del bombero a actualizar", required = true)
+                                                           @PathVariable Integer id,
+                                                           @RequestBody @Parameter(description = "Campos del bombero a modificar", required = true)
+                                                           JsonNode cambios,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                           @Parameter(description = "ETag obtenido al consultar el bombero; si cambió, se responde 412")
+                                                           String ifMatch) {
         try {
-            bomberoService.update(bombero, id);
-            return ResponseEntity.ok("Actualizado con éxito");
+            Bombero actualizado = bomberoService.patch(id, cambios, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
         } catch (NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bombero no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("bombero"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
@@ -129,6 +254,63 @@ public class BomberoController {
         }
     }
 
+    /**
+     * Crea un nuevo bombero sin bloquear el hilo de la petición.
+     * La respuesta se completa cuando terminan las validaciones y la escritura en la base de datos.
+     * @param bombero Datos del bombero a crear
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PostMapping("/reactivo")
+    @Operation(summary = "Crear un nuevo bombero (no bloqueante)", description = "Crea un nuevo bombero validando sus relaciones sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Bombero creado con éxito."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> agregarBomberoReactivo(@RequestBody @Parameter(description = "Datos del bombero a crear", required = true)
+                                                          Bombero bombero) {
+        return bomberoService.saveReactivo(bombero)
+                .map(guardado -> ResponseEntity.status(HttpStatus.CREATED).body("Bombero creado con éxito."))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
+    /**
+     * Actualiza un bombero existente sin bloquear el hilo de la petición.
+     * @param id ID del bombero a actualizar
+     * @param bombero Datos actualizados del bombero
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PutMapping("/reactivo/{id}")
+    @Operation(summary = "Actualizar un bombero existente (no bloqueante)", description = "Actualiza los datos de un bombero por su ID sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bombero actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Bombero no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El bombero fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> actualizarBomberoReactivo(@Parameter(description = "ID del bombero a actualizar", required = true)
+                                                             @PathVariable Integer id,
+                                                             @RequestBody @Parameter(description = "Datos actualizados del bombero", required = true)
+                                                             Bombero bombero,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                             @Parameter(description = "ETag obtenido al consultar el bombero; si cambió, se responde 412")
+                                                             String ifMatch) {
+        return Mono.defer(() -> bomberoService.updateReactivo(bombero, id, EtiquetaVersion.versionEsperada(ifMatch)))
+                .map(actualizado -> ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito"))
+                .onErrorResume(NoSuchElementException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bombero no encontrado")))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("bombero"))))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
     /**
      * Elimina un bombero del sistema.
      * @param id ID del bombero a eliminar
@@ -154,4 +336,37 @@ public class BomberoController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
         }
     }
+
+    /**
+     * Esquema OpenAPI de la respuesta de {@link #listar} (un arreglo JSON), para combinarla con la de
+     * {@link #listarPagina} en el GET compartido: {@code @Schema(oneOf = ...)} sólo admite clases.
+     * Se ignoran las propiedades de bean de la colección (isEmpty, getFirst, getLast), que no forman parte del JSON.
+     */
+    @JsonIgnoreProperties({"empty", "first", "last"})
+    static class ListaBomberos extends ArrayList<Bombero> {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarPagina}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaBomberos", description = "Página de bomberos paginada por cursor")
+    record PaginaBomberos(
+            @Schema(description = "Bomberos de la página")
+            List<Bombero> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarResumen}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaBomberoResumen", description = "Página de resúmenes de bomberos paginada por cursor")
+    record PaginaBomberoResumen(
+            @Schema(description = "Resúmenes de la página")
+            List<BomberoResumen> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package com.SAFE_Rescue.API_Perfiles.controller;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
 import com.SAFE_Rescue.API_Perfiles.service.EquipoService;
+import com.SAFE_Rescue.API_Perfiles.util.ErrorTransitorio;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,10 +16,14 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -38,9 +48,10 @@ public class EquipoController {
     @GetMapping
     @Operation(summary = "Obtener todos los equipos", description = "Obtiene una lista con todos los equipos")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de equipos obtenida exitosamente.",
+            @ApiResponse(responseCode = "200", description = "Lista de equipos obtenida exitosamente " +
+                    "(o una página por cursor si se indica limit).",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Equipo.class))),
+                            schema = @Schema(oneOf = {ListaEquipos.class, PaginaEquipos.class}))),
             @ApiResponse(responseCode = "204", description = "No hay equipos registrados.")
     })
     public ResponseEntity<List<Equipo>> listar() {
@@ -51,6 +62,57 @@ public class EquipoController {
         return ResponseEntity.ok(equipos);
     }
 
+    /**
+     * Obtiene una página de equipos usando paginación por cursor sobre el ID.
+     * @param after ID del último equipo recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de equipos a devolver
+     * @return ResponseEntity con la página de equipos y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping(params = "limit")
+    @Operation(summary = "Obtener equipos paginados", description = "Obtiene una página de equipos ordenada por ID usando un cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de equipos obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaEquipos.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarPagina(@Parameter(description = "ID del último equipo recibido")
+                                          @RequestParam(required = false) Integer after,
+                                          @Parameter(description = "Cantidad máxima de equipos a devolver", required = true)
+                                          @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(equipoService.findPagina(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de resúmenes de equipos, pensada para listados.
+     * Sólo incluye las columnas necesarias y los nombres de sus relaciones.
+     * @param after ID del último equipo recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de resúmenes a devolver
+     * @return ResponseEntity con la página de resúmenes y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping("/resumen")
+    @Operation(summary = "Obtener resumen de equipos", description = "Obtiene una página de equipos con sólo los datos necesarios para listados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resúmenes obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaEquipoResumen.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarResumen(@Parameter(description = "ID del último equipo recibido")
+                                           @RequestParam(required = false) Integer after,
+                                           @Parameter(description = "Cantidad máxima de resúmenes a devolver")
+                                           @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(equipoService.findResumenes(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     /**
      * Busca un equipo por su ID.
      * @param id ID del equipo a buscar
@@ -59,7 +121,7 @@ public class EquipoController {
     @GetMapping("/{id}")
     @Operation(summary = "Obtiene un equipo por su ID", description = "Obtiene un equipo al buscarlo por su ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Equipo encontrado.",
+            @ApiResponse(responseCode = "200", description = "Equipo encontrado. El ETag identifica su versión actual.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Equipo.class))),
             @ApiResponse(responseCode = "404", description = "Equipo no encontrado.")
@@ -72,7 +134,7 @@ public class EquipoController {
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Equipo no encontrado", HttpStatus.NOT_FOUND);
         }
-        return ResponseEntity.ok(equipo);
+        return ResponseEntity.ok().eTag(EtiquetaVersion.etag(equipo.getVersion())).body(equipo);
     }
 
     /**
@@ -111,17 +173,23 @@ public class EquipoController {
             @ApiResponse(responseCode = "200", description = "Equipo actualizado con éxito."),
             @ApiResponse(responseCode = "404", description = "Equipo no encontrado."),
             @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El equipo fue modificado desde la versión indicada en If-Match."),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
     })
     public ResponseEntity<String> actualizarEquipo(@Parameter(description = "ID del equipo a actualizar", required = true)
                                                    @PathVariable Integer id,
                                                    @RequestBody @Parameter(description = "Datos actualizados del equipo", required = true)
-                                                   Equipo equipo) {
+                                                   Equipo equipo,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   @Parameter(description = "ETag obtenido al consultar el equipo; si cambió, se responde 412")
+                                                   String ifMatch) {
         try {
-            equipoService.update(equipo, id);
-            return ResponseEntity.ok("Actualizado con éxito");
+            Equipo actualizado = equipoService.update(equipo, id, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
         } catch (NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Equipo no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("equipo"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
@@ -129,6 +197,94 @@ public class EquipoController {
         }
     }
 
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente un equipo",
+            description = "Modifica sólo los campos enviados; las relaciones se validan sólo si cambian")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Equipo actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Equipo no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El equipo fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<String> actualizarEquipoParcial(@Parameter(description = "ID del equipo a actualizar", required = true)
+                                                          @PathVariable Integer id,
+                                                          @RequestBody @Parameter(description = "Campos del equipo a modificar", required = true)
+                                                          JsonNode cambios,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                          @Parameter(description = "ETag obtenido al consultar el equipo; si cambió, se responde 412")
+                                                          String ifMatch) {
+        try {
+            Equipo actualizado = equipoService.patch(id, cambios, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Equipo no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("equipo"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    /**
+     * Crea un nuevo equipo sin bloquear el hilo de la petición.
+     * La respuesta se completa cuando terminan las validaciones y la escritura en la base de datos.
+     * @param equipo Datos del equipo a crear
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PostMapping("/reactivo")
+    @Operation(summary = "Crear un nuevo equipo (no bloqueante)", description = "Crea un nuevo equipo validando sus relaciones sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Equipo creado con éxito."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> agregarEquipoReactivo(@RequestBody @Parameter(description = "Datos del equipo a crear", required = true)
+                                                          Equipo equipo) {
+        return equipoService.saveReactivo(equipo)
+                .map(guardado -> ResponseEntity.status(HttpStatus.CREATED).body("Equipo creado con éxito."))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
+    /**
+     * Actualiza un equipo existente sin bloquear el hilo de la petición.
+     * @param id ID del equipo a actualizar
+     * @param equipo Datos actualizados del equipo
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PutMapping("/reactivo/{id}")
+    @Operation(summary = "Actualizar un equipo existente (no bloqueante)", description = "Actualiza los datos de un equipo por su ID sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Equipo actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Equipo no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El equipo fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> actualizarEquipoReactivo(@Parameter(description = "ID del equipo a actualizar", required = true)
+                                                             @PathVariable Integer id,
+                                                             @RequestBody @Parameter(description = "Datos actualizados del equipo", required = true)
+                                                             Equipo equipo,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                             @Parameter(description = "ETag obtenido al consultar el equipo; si cambió, se responde 412")
+                                                             String ifMatch) {
+        return Mono.defer(() -> equipoService.updateReactivo(equipo, id, EtiquetaVersion.versionEsperada(ifMatch)))
+                .map(actualizado -> ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito"))
+                .onErrorResume(NoSuchElementException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Equipo no encontrado")))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("equipo"))))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
     /**
      * Elimina un equipo del sistema.
      * @param id ID del equipo a eliminar
@@ -154,4 +310,37 @@ public class EquipoController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
         }
     }
+
+    /**
+     * Esquema OpenAPI de la respuesta de {@link #listar} (un arreglo JSON), para combinarla con la de
+     * {@link #listarPagina} en el GET compartido: {@code @Schema(oneOf = ...)} sólo admite clases.
+     * Se ignoran las propiedades de bean de la colección (isEmpty, getFirst, getLast), que no forman parte del JSON.
+     */
+    @JsonIgnoreProperties({"empty", "first", "last"})
+    static class ListaEquipos extends ArrayList<Equipo> {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarPagina}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaEquipos", description = "Página de equipos paginada por cursor")
+    record PaginaEquipos(
+            @Schema(description = "Equipos de la página")
+            List<Equipo> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarResumen}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaEquipoResumen", description = "Página de resúmenes de equipos paginada por cursor")
+    record PaginaEquipoResumen(
+            @Schema(description = "Resúmenes de la página")
+            List<EquipoResumen> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
 }
\ No newline at end of file
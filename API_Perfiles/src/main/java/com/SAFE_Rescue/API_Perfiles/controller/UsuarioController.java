@@ -1,22 +1,47 @@
 package com.SAFE_Rescue.API_Perfiles.controller;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Perfiles.dto.TrabajoFoto;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.service.TrabajoFotoService;
 import com.SAFE_Rescue.API_Perfiles.service.UsuarioService;
+import com.SAFE_Rescue.API_Perfiles.util.ErrorTransitorio;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
 
 /**
  * Controlador REST para la gestión de usuarios
@@ -27,8 +52,23 @@ import java.util.NoSuchElementException;
 @Tag(name = "Usuarios", description = "Operaciones de CRUD relacionadas con Usuarios")
 public class UsuarioController {
 
+    private final UsuarioService usuarioService;
+    private final TrabajoFotoService trabajoFotoService;
+    private final ObjectMapper objectMapper;
+
+    // Limita las subidas simultáneas hacia la API de fotos. Se toma después de que Spring leyó el cuerpo multipart,
+    // así que no acota la recepción de archivos (de eso se encargan los límites de spring.servlet.multipart)
+    private final Semaphore subidasFoto;
+
     @Autowired
-    private UsuarioService usuarioService;
+    public UsuarioController(UsuarioService usuarioService, TrabajoFotoService trabajoFotoService,
+                             ObjectMapper objectMapper,
+                             @Value("${foto.subida.max-concurrentes:8}") int maxSubidasConcurrentes) {
+        this.usuarioService = usuarioService;
+        this.trabajoFotoService = trabajoFotoService;
+        this.objectMapper = objectMapper;
+        this.subidasFoto = new Semaphore(maxSubidasConcurrentes);
+    }
 
     // OPERACIONES CRUD BÁSICAS
 
@@ -39,9 +79,10 @@ public class UsuarioController {
     @GetMapping
     @Operation(summary = "Obtener todos los usuarios", description = "Obtiene una lista con todos los usuarios")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente.",
+            @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente " +
+                    "(o una página por cursor si se indica limit).",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = Usuario.class))),
+                            schema = @Schema(oneOf = {ListaUsuarios.class, PaginaUsuarios.class}))),
             @ApiResponse(responseCode = "204", description = "No hay usuarios registrados.")
     })
     public ResponseEntity<List<Usuario>> listar() {
@@ -52,6 +93,106 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
 
+    /**
+     * Obtiene una página de usuarios usando paginación por cursor sobre el ID.
+     * @param after ID del último usuario recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de usuarios a devolver
+     * @return ResponseEntity con la página de usuarios y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping(params = "limit")
+    @Operation(summary = "Obtener usuarios paginados", description = "Obtiene una página de usuarios ordenada por ID usando un cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de usuarios obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaUsuarios.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarPagina(@Parameter(description = "ID del último usuario recibido")
+                                          @RequestParam(required = false) Integer after,
+                                          @Parameter(description = "Cantidad máxima de usuarios a devolver", required = true)
+                                          @RequestParam int limit) {
+        try {
+            return ResponseEntity.ok(usuarioService.findPagina(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene una página de resúmenes de usuarios, pensada para listados.
+     * Sólo incluye las columnas necesarias y los nombres de sus relaciones.
+     * @param after ID del último usuario recibido (opcional, se omite en la primera página)
+     * @param limit Cantidad máxima de resúmenes a devolver
+     * @return ResponseEntity con la página de resúmenes y el cursor siguiente, o mensaje de error
+     */
+    @GetMapping("/resumen")
+    @Operation(summary = "Obtener resumen de usuarios", description = "Obtiene una página de usuarios con sólo los datos necesarios para listados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de resúmenes obtenida exitosamente.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaginaUsuarioResumen.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos.")
+    })
+    public ResponseEntity<?> listarResumen(@Parameter(description = "ID del último usuario recibido")
+                                           @RequestParam(required = false) Integer after,
+                                           @Parameter(description = "Cantidad máxima de resúmenes a devolver")
+                                           @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(usuarioService.findResumenes(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca usuarios por nombre o apellidos (coincidencia parcial, sin distinguir tildes ni mayúsculas).
+     * @param q Texto a buscar; todos sus términos deben coincidir
+     * @param limit Cantidad máxima de resultados
+     * @return ResponseEntity con los usuarios encontrados, del más al menos relevante, o mensaje de error
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Buscar usuarios por nombre", description = "Busca usuarios por nombre, apellido paterno o apellido materno, ordenados por relevancia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Búsqueda realizada (la lista puede estar vacía).",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = UsuarioCoincidencia.class)))),
+            @ApiResponse(responseCode = "400", description = "Consulta vacía o límite inválido."),
+            @ApiResponse(responseCode = "503", description = "El índice de búsqueda se está construyendo.")
+    })
+    public ResponseEntity<?> buscarPorNombre(@Parameter(description = "Texto a buscar", required = true)
+                                             @RequestParam String q,
+                                             @Parameter(description = "Cantidad máxima de resultados")
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(usuarioService.buscar(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta todos los usuarios en formato NDJSON (un usuario JSON por línea).
+     * La respuesta se escribe a medida que se leen las filas, sin cargar la tabla completa en memoria.
+     * @return ResponseEntity con el cuerpo de la exportación en streaming
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar todos los usuarios", description = "Exporta todos los usuarios en formato NDJSON, ordenados por ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación de usuarios en curso.",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = Usuario.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> exportarUsuarios() {
+        StreamingResponseBody cuerpo = salida -> usuarioService.exportar(usuario -> escribirLinea(salida, usuario));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
     /**
      * Busca un usuario por su ID.
      * @param id ID del usuario a buscar
@@ -60,7 +201,7 @@ public class UsuarioController {
     @GetMapping("/{id}")
     @Operation(summary = "Obtiene un usuario por su ID", description = "Obtiene un usuario al buscarlo por su ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Usuario encontrado.",
+            @ApiResponse(responseCode = "200", description = "Usuario encontrado. El ETag identifica su versión actual.",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Usuario.class))),
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado.")
@@ -73,7 +214,7 @@ public class UsuarioController {
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>("Usuario no encontrado", HttpStatus.NOT_FOUND);
         }
-        return ResponseEntity.ok(usuario);
+        return ResponseEntity.ok().eTag(EtiquetaVersion.etag(usuario.getVersion())).body(usuario);
     }
 
     /**
@@ -100,6 +241,31 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Crea usuarios en bloque.
+     * @param usuarios Arreglo de usuarios a crear
+     * @return ResponseEntity con el resultado de cada usuario (en el mismo orden), o mensaje de error
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Crear usuarios en bloque", description = "Crea varios usuarios en una sola solicitud e informa el resultado de cada uno")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Solicitud procesada; cada elemento indica si fue creado o rechazado.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoLote.class))),
+            @ApiResponse(responseCode = "400", description = "Lista vacía o demasiado grande."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<?> agregarUsuariosLote(@RequestBody @Parameter(description = "Usuarios a crear", required = true)
+                                                 List<Usuario> usuarios) {
+        try {
+            return ResponseEntity.ok(usuarioService.saveLote(usuarios));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
     /**
      * Actualiza un usuario existente.
      * @param id ID del usuario a actualizar
@@ -112,17 +278,54 @@ public class UsuarioController {
             @ApiResponse(responseCode = "200", description = "Usuario actualizado con éxito."),
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado."),
             @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El usuario fue modificado desde la versión indicada en If-Match."),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
     })
     public ResponseEntity<String> actualizarUsuario(@Parameter(description = "ID del usuario a actualizar", required = true)
                                                     @PathVariable Integer id,
                                                     @RequestBody @Parameter(description = "Datos actualizados del usuario", required = true)
-                                                    Usuario usuario) {
+                                                    Usuario usuario,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                    @Parameter(description = "ETag obtenido al consultar el usuario; si cambió, se responde 412")
+                                                    String ifMatch) {
+        try {
+            Usuario actualizado = usuarioService.update(usuario, id, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("usuario"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Actualizar parcialmente un usuario",
+            description = "Modifica sólo los campos enviados; las relaciones se validan sólo si cambian")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuario actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El usuario fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public ResponseEntity<String> actualizarUsuarioParcial(@Parameter(description = "ID del usuario a actualizar", required = true)
+                                                           @PathVariable Integer id,
+                                                           @RequestBody @Parameter(description = "Campos del usuario a modificar", required = true)
+                                                           JsonNode cambios,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                           @Parameter(description = "ETag obtenido al consultar el usuario; si cambió, se responde 412")
+                                                           String ifMatch) {
         try {
-            usuarioService.update(usuario, id);
-            return ResponseEntity.ok("Actualizado con éxito");
+            Usuario actualizado = usuarioService.patch(id, cambios, EtiquetaVersion.versionEsperada(ifMatch));
+            return ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito");
         } catch (NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("usuario"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
@@ -130,6 +333,63 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Crea un nuevo usuario sin bloquear el hilo de la petición.
+     * La respuesta se completa cuando terminan las validaciones y la escritura en la base de datos.
+     * @param usuario Datos del usuario a crear
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PostMapping("/reactivo")
+    @Operation(summary = "Crear un nuevo usuario (no bloqueante)", description = "Crea un nuevo usuario validando sus relaciones sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Usuario creado con éxito."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> agregarUsuarioReactivo(@RequestBody @Parameter(description = "Datos del usuario a crear", required = true)
+                                                          Usuario usuario) {
+        return usuarioService.saveReactivo(usuario)
+                .map(guardado -> ResponseEntity.status(HttpStatus.CREATED).body("Usuario creado con éxito."))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
+    /**
+     * Actualiza un usuario existente sin bloquear el hilo de la petición.
+     * @param id ID del usuario a actualizar
+     * @param usuario Datos actualizados del usuario
+     * @return Mono con ResponseEntity con mensaje de confirmación o error
+     */
+    @PutMapping("/reactivo/{id}")
+    @Operation(summary = "Actualizar un usuario existente (no bloqueante)", description = "Actualiza los datos de un usuario por su ID sin bloquear el hilo de la petición")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuario actualizado con éxito."),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado."),
+            @ApiResponse(responseCode = "400", description = "Error en la solicitud."),
+            @ApiResponse(responseCode = "412", description = "El usuario fue modificado desde la versión indicada en If-Match."),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado o API externa no disponible; reintentar más tarde."),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor.")
+    })
+    public Mono<ResponseEntity<String>> actualizarUsuarioReactivo(@Parameter(description = "ID del usuario a actualizar", required = true)
+                                                             @PathVariable Integer id,
+                                                             @RequestBody @Parameter(description = "Datos actualizados del usuario", required = true)
+                                                             Usuario usuario,
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                             @Parameter(description = "ETag obtenido al consultar el usuario; si cambió, se responde 412")
+                                                             String ifMatch) {
+        return Mono.defer(() -> usuarioService.updateReactivo(usuario, id, EtiquetaVersion.versionEsperada(ifMatch)))
+                .map(actualizado -> ResponseEntity.ok().eTag(EtiquetaVersion.etag(actualizado.getVersion())).body("Actualizado con éxito"))
+                .onErrorResume(NoSuchElementException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado")))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(EtiquetaVersion.conflicto("usuario"))))
+                .onErrorResume(ErrorTransitorio::es, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1").body("Servicio temporalmente no disponible. Intente nuevamente.")))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.")));
+    }
+
     /**
      * Elimina un usuario del sistema.
      * @param id ID del usuario a eliminar
@@ -156,14 +416,138 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Sube la foto de un usuario.
+     * Con {@code async=true} la foto sólo se guarda y se encola: se responde 202 con el trabajo, cuyo estado
+     * se consulta en {@code GET /{id}/foto/jobs/{jobId}} (indicado en el encabezado Location).
+     * @param id ID del usuario
+     * @param archivo Archivo de la foto
+     * @param async Procesar la subida en segundo plano
+     * @return ResponseEntity con la URL de la foto, el trabajo creado o mensaje de error
+     */
     @PostMapping("/{id}/subir-foto")
-    public ResponseEntity<String> subirFotoUsuario(@PathVariable Integer id, @RequestParam("foto") MultipartFile archivo) {
+    public ResponseEntity<?> subirFotoUsuario(@PathVariable Integer id, @RequestParam("foto") MultipartFile archivo,
+                                              @RequestParam(defaultValue = "false") boolean async) {
+        // Con el máximo de envíos a la API de fotos en curso se rechaza de inmediato, en lugar de esperar turno
+        if (!subidasFoto.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Demasiadas subidas de fotos en curso. Intente nuevamente.");
+        }
         try {
+            if (async) {
+                return encolarFoto(id, archivo);
+            }
             // Se delega la lógica de subir y guardar la URL al servicio
             String fotoUrl = usuarioService.subirYActualizarFotoUsuario(id, archivo);
             return ResponseEntity.ok("Foto subida y URL guardada con éxito: " + fotoUrl);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error al subir la foto: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al subir la foto: " + e.getMessage());
+        } finally {
+            subidasFoto.release();
         }
     }
+
+    /**
+     * Consulta el estado de una subida asíncrona de foto.
+     * @param id ID del usuario
+     * @param jobId ID del trabajo entregado al subir la foto
+     * @return ResponseEntity con el estado del trabajo o mensaje de error
+     */
+    @GetMapping("/{id}/foto/jobs/{jobId}")
+    @Operation(summary = "Consultar una subida de foto", description = "Obtiene el estado de una subida asíncrona de foto")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado del trabajo.",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TrabajoFoto.class))),
+            @ApiResponse(responseCode = "404", description = "Trabajo no encontrado o expirado.")
+    })
+    public ResponseEntity<?> buscarTrabajoFoto(@Parameter(description = "ID del usuario", required = true)
+                                               @PathVariable Integer id,
+                                               @Parameter(description = "ID del trabajo", required = true)
+                                               @PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(trabajoFotoService.buscar(id, jobId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Trabajo no encontrado");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error interno del servidor.");
+        }
+    }
+
+    // MÉTODOS AUXILIARES
+
+    /**
+     * Guarda la foto y encola su subida, respondiendo 202 con el trabajo creado.
+     * @param id ID del usuario
+     * @param archivo Archivo de la foto
+     * @return ResponseEntity con el trabajo creado o mensaje de error
+     */
+    private ResponseEntity<?> encolarFoto(Integer id, MultipartFile archivo) {
+        try {
+            TrabajoFoto trabajo = trabajoFotoService.encolar(id, archivo);
+            URI ubicacion = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api-perfiles/v1/usuarios/{id}/foto/jobs/{jobId}")
+                    .buildAndExpand(id, trabajo.id())
+                    .toUri();
+            return ResponseEntity.accepted().location(ubicacion).body(trabajo);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe un usuario como una línea NDJSON en la salida.
+     * @param salida Flujo de salida de la respuesta
+     * @param usuario Usuario a escribir
+     */
+    private void escribirLinea(OutputStream salida, Usuario usuario) {
+        try {
+            salida.write(objectMapper.writeValueAsBytes(usuario));
+            salida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir la exportación de usuarios.", e);
+        }
+    }
+
+    /**
+     * Esquema OpenAPI de la respuesta de {@link #listar} (un arreglo JSON), para combinarla con la de
+     * {@link #listarPagina} en el GET compartido: {@code @Schema(oneOf = ...)} sólo admite clases.
+     * Se ignoran las propiedades de bean de la colección (isEmpty, getFirst, getLast), que no forman parte del JSON.
+     */
+    @JsonIgnoreProperties({"empty", "first", "last"})
+    static class ListaUsuarios extends ArrayList<Usuario> {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarPagina}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaUsuarios", description = "Página de usuarios paginada por cursor")
+    record PaginaUsuarios(
+            @Schema(description = "Usuarios de la página")
+            List<Usuario> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
+
+    /**
+     * Esquema OpenAPI de la página de {@link #listarResumen}: {@link PaginaCursor} es genérico y su
+     * contenido no se puede documentar con {@code @Schema(implementation = ...)}.
+     */
+    @Schema(name = "PaginaUsuarioResumen", description = "Página de resúmenes de usuarios paginada por cursor")
+    record PaginaUsuarioResumen(
+            @Schema(description = "Resúmenes de la página")
+            List<UsuarioResumen> contenido,
+            @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+            Integer siguienteCursor) {
+    }
 }
\ No newline at end of file
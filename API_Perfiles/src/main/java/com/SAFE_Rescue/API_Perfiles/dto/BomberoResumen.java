@@ -0,0 +1,55 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Vista resumida de un bombero para los listados.
+ * Reemplaza el equipo completo (con su compañía, tipo, estado y líder) por su ID y nombre.
+ */
+@Schema(description = "Vista resumida de un bombero")
+public record BomberoResumen(
+        @Schema(description = "Identificador único del bombero", example = "1")
+        int idUsuario,
+        @Schema(description = "Run del bombero", example = "12345678")
+        String run,
+        @Schema(description = "Dígito verificador del bombero", example = "K")
+        String dv,
+        @Schema(description = "Nombre del bombero", example = "Juan")
+        String nombre,
+        @Schema(description = "Apellido paterno del bombero", example = "Pérez")
+        String aPaterno,
+        @Schema(description = "Apellido materno del bombero", example = "González")
+        String aMaterno,
+        @Schema(description = "Teléfono del bombero", example = "987654321")
+        String telefono,
+        @Schema(description = "Correo del bombero", example = "bombero@ejemplo.com")
+        String correo,
+        @Schema(description = "Nombre del estado del bombero", example = "Activo")
+        String estado,
+        @Schema(description = "Identificador del equipo del bombero", example = "3")
+        Integer idEquipo,
+        @Schema(description = "Nombre del equipo del bombero", example = "Equipo Alfa")
+        String equipo) {
+
+    /**
+     * Construye el resumen a partir de una entidad ya cargada.
+     *
+     * @param bombero Bombero a resumir.
+     * @return Resumen del bombero.
+     */
+    public static BomberoResumen desde(Bombero bombero) {
+        return new BomberoResumen(
+                bombero.getIdUsuario(),
+                bombero.getRun(),
+                bombero.getDv(),
+                bombero.getNombre(),
+                bombero.getAPaterno(),
+                bombero.getAMaterno(),
+                bombero.getTelefono(),
+                bombero.getCorreo(),
+                bombero.getEstado() != null ? bombero.getEstado().getNombre() : null,
+                bombero.getEquipo() != null ? bombero.getEquipo().getIdEquipo() : null,
+                bombero.getEquipo() != null ? bombero.getEquipo().getNombre() : null);
+    }
+}
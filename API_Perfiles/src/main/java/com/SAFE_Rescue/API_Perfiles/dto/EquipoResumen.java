@@ -0,0 +1,40 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Vista resumida de un equipo para los listados.
+ * Reemplaza la compañía, el tipo, el estado y el líder por sus nombres o IDs.
+ */
+@Schema(description = "Vista resumida de un equipo")
+public record EquipoResumen(
+        @Schema(description = "Identificador único del equipo", example = "1")
+        int idEquipo,
+        @Schema(description = "Nombre del equipo", example = "Equipo Alfa")
+        String nombre,
+        @Schema(description = "Nombre de la compañía del equipo", example = "Compañía 13")
+        String compania,
+        @Schema(description = "Nombre del tipo de equipo", example = "Rescate Urbano")
+        String tipoEquipo,
+        @Schema(description = "Nombre del estado del equipo", example = "Activo")
+        String estado,
+        @Schema(description = "Identificador del usuario líder del equipo", example = "7")
+        Integer idLider) {
+
+    /**
+     * Construye el resumen a partir de una entidad ya cargada.
+     *
+     * @param equipo Equipo a resumir.
+     * @return Resumen del equipo.
+     */
+    public static EquipoResumen desde(Equipo equipo) {
+        return new EquipoResumen(
+                equipo.getIdEquipo(),
+                equipo.getNombre(),
+                equipo.getCompania() != null ? equipo.getCompania().getNombre() : null,
+                equipo.getTipoEquipo() != null ? equipo.getTipoEquipo().getNombre() : null,
+                equipo.getEstado() != null ? equipo.getEstado().getNombre() : null,
+                equipo.getLider() != null ? equipo.getLider().getIdUsuario() : null);
+    }
+}
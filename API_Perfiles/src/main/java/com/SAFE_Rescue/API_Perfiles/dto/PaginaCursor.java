@@ -0,0 +1,66 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Página de resultados obtenida mediante paginación por cursor (keyset).
+ * El cursor corresponde al último ID entregado; la siguiente página se solicita con {@code ?after=<siguienteCursor>}.
+ *
+ * @param contenido       Elementos de la página, ordenados por ID ascendente.
+ * @param siguienteCursor Cursor para solicitar la página siguiente, o {@code null} si no hay más registros.
+ * @param <T>             Tipo de los elementos de la página.
+ */
+@Schema(description = "Página de resultados paginada por cursor")
+public record PaginaCursor<T>(
+        @Schema(description = "Elementos de la página")
+        List<T> contenido,
+        @Schema(description = "Cursor de la siguiente página (null si es la última)", example = "150")
+        Integer siguienteCursor) {
+
+    /**
+     * Tamaño máximo de página permitido.
+     */
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Valida el tamaño de página solicitado.
+     *
+     * @param limite Tamaño de página solicitado.
+     * @throws IllegalArgumentException Si el límite no está entre 1 y {@link #LIMITE_MAXIMO}.
+     */
+    public static void validarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+    }
+
+    /**
+     * Normaliza el cursor recibido: sin cursor se comienza desde el primer registro.
+     *
+     * @param after Cursor recibido (puede ser nulo).
+     * @return ID a partir del cual buscar.
+     */
+    public static int cursorInicial(Integer after) {
+        return after == null ? 0 : after;
+    }
+
+    /**
+     * Construye una página a partir de una consulta que solicitó {@code limite + 1} registros.
+     * El registro adicional sólo se usa para saber si existe una página siguiente y no se entrega.
+     *
+     * @param resultados Resultados de la consulta (como máximo {@code limite + 1}).
+     * @param limite     Tamaño de página solicitado.
+     * @param id         Función que obtiene el ID (cursor) de un elemento.
+     * @return La página con su cursor siguiente.
+     */
+    public static <T> PaginaCursor<T> desde(List<T> resultados, int limite, ToIntFunction<T> id) {
+        if (resultados.size() <= limite) {
+            return new PaginaCursor<>(resultados, null);
+        }
+        List<T> contenido = resultados.subList(0, limite);
+        return new PaginaCursor<>(List.copyOf(contenido), id.applyAsInt(contenido.get(limite - 1)));
+    }
+}
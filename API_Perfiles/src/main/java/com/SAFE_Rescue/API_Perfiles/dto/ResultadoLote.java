@@ -0,0 +1,31 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de un elemento dentro de una creación masiva.
+ *
+ * @param indice  Posición del elemento en el arreglo recibido (desde 0).
+ * @param creado  Indica si el elemento fue creado.
+ * @param id      ID asignado al elemento creado, o {@code null} si fue rechazado.
+ * @param error   Motivo del rechazo, o {@code null} si fue creado.
+ */
+@Schema(description = "Resultado de un elemento de una creación masiva")
+public record ResultadoLote(
+        @Schema(description = "Posición del elemento en la solicitud", example = "0")
+        int indice,
+        @Schema(description = "Indica si el elemento fue creado", example = "true")
+        boolean creado,
+        @Schema(description = "ID asignado (null si fue rechazado)", example = "151")
+        Integer id,
+        @Schema(description = "Motivo del rechazo (null si fue creado)", example = "El RUN ya está registrado.")
+        String error) {
+
+    public static ResultadoLote creado(int indice, int id) {
+        return new ResultadoLote(indice, true, id, null);
+    }
+
+    public static ResultadoLote rechazado(int indice, String error) {
+        return new ResultadoLote(indice, false, null, error);
+    }
+}
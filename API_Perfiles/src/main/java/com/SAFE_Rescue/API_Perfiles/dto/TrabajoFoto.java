@@ -0,0 +1,65 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Estado de un trabajo de subida asíncrona de foto.
+ * Es inmutable: cada cambio de estado produce una nueva instancia.
+ *
+ * @param id          Identificador del trabajo.
+ * @param idUsuario   ID del usuario al que se asociará la foto.
+ * @param estado      Estado actual del trabajo.
+ * @param intentos    Intentos de subida realizados.
+ * @param url         URL de la foto subida, o {@code null} si aún no termina.
+ * @param error       Motivo del último error, o {@code null} si no hubo errores.
+ * @param creado      Momento en que se recibió la foto.
+ * @param actualizado Momento del último cambio de estado.
+ */
+@Schema(description = "Estado de una subida asíncrona de foto")
+public record TrabajoFoto(
+        @Schema(description = "Identificador del trabajo", example = "3f2b8c1e-7a4d-4e5f-9b6a-2c1d0e9f8a7b")
+        String id,
+        @Schema(description = "ID del usuario", example = "15")
+        Integer idUsuario,
+        @Schema(description = "Estado del trabajo", example = "PENDIENTE")
+        Estado estado,
+        @Schema(description = "Intentos de subida realizados", example = "1")
+        int intentos,
+        @Schema(description = "URL de la foto (cuando el trabajo está completado)")
+        String url,
+        @Schema(description = "Motivo del último error")
+        String error,
+        @Schema(description = "Momento en que se recibió la foto")
+        Instant creado,
+        @Schema(description = "Momento del último cambio de estado")
+        Instant actualizado) {
+
+    /**
+     * Estados posibles de un trabajo de foto.
+     */
+    public enum Estado {
+        PENDIENTE, PROCESANDO, COMPLETADO, FALLIDO
+    }
+
+    public static TrabajoFoto nuevo(String id, Integer idUsuario, Instant ahora) {
+        return new TrabajoFoto(id, idUsuario, Estado.PENDIENTE, 0, null, null, ahora, ahora);
+    }
+
+    public TrabajoFoto procesando(Instant ahora) {
+        return new TrabajoFoto(id, idUsuario, Estado.PROCESANDO, intentos + 1, null, error, creado, ahora);
+    }
+
+    public TrabajoFoto reintentando(String error, Instant ahora) {
+        return new TrabajoFoto(id, idUsuario, Estado.PENDIENTE, intentos, null, error, creado, ahora);
+    }
+
+    public TrabajoFoto completado(String url, Instant ahora) {
+        return new TrabajoFoto(id, idUsuario, Estado.COMPLETADO, intentos, url, null, creado, ahora);
+    }
+
+    public TrabajoFoto fallido(String error, Instant ahora) {
+        return new TrabajoFoto(id, idUsuario, Estado.FALLIDO, intentos, null, error, creado, ahora);
+    }
+}
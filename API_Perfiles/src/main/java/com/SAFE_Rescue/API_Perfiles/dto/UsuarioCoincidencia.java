@@ -0,0 +1,30 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Usuario encontrado por la búsqueda por nombre.
+ * Sólo contiene los campos indexados, de modo que la búsqueda se responde sin consultar la base de datos.
+ */
+@Schema(description = "Usuario encontrado por la búsqueda por nombre")
+public record UsuarioCoincidencia(
+        @Schema(description = "Identificador único del usuario", example = "1")
+        int idUsuario,
+        @Schema(description = "Nombre del usuario", example = "Juan")
+        String nombre,
+        @Schema(description = "Apellido paterno del usuario", example = "Pérez")
+        String aPaterno,
+        @Schema(description = "Apellido materno del usuario", example = "González")
+        String aMaterno) {
+
+    /**
+     * Construye la coincidencia a partir de una entidad ya cargada.
+     *
+     * @param usuario Usuario a resumir.
+     * @return Coincidencia con los campos indexados del usuario.
+     */
+    public static UsuarioCoincidencia desde(Usuario usuario) {
+        return new UsuarioCoincidencia(usuario.getIdUsuario(), usuario.getNombre(), usuario.getAPaterno(), usuario.getAMaterno());
+    }
+}
@@ -0,0 +1,53 @@
+package com.SAFE_Rescue.API_Perfiles.dto;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Vista resumida de un usuario para los listados.
+ * No incluye datos sensibles (contraseña, baneos) y reemplaza las relaciones por sus nombres,
+ * de modo que se obtiene con una sola consulta de columnas.
+ */
+@Schema(description = "Vista resumida de un usuario")
+public record UsuarioResumen(
+        @Schema(description = "Identificador único del usuario", example = "1")
+        int idUsuario,
+        @Schema(description = "Run del usuario", example = "12345678")
+        String run,
+        @Schema(description = "Dígito verificador del usuario", example = "K")
+        String dv,
+        @Schema(description = "Nombre del usuario", example = "Juan")
+        String nombre,
+        @Schema(description = "Apellido paterno del usuario", example = "Pérez")
+        String aPaterno,
+        @Schema(description = "Apellido materno del usuario", example = "González")
+        String aMaterno,
+        @Schema(description = "Teléfono del usuario", example = "987654321")
+        String telefono,
+        @Schema(description = "Correo del usuario", example = "usuario@ejemplo.com")
+        String correo,
+        @Schema(description = "Nombre del estado del usuario", example = "Activo")
+        String estado,
+        @Schema(description = "Nombre del tipo de usuario", example = "Ciudadano")
+        String tipoUsuario) {
+
+    /**
+     * Construye el resumen a partir de una entidad ya cargada.
+     *
+     * @param usuario Usuario a resumir.
+     * @return Resumen del usuario.
+     */
+    public static UsuarioResumen desde(Usuario usuario) {
+        return new UsuarioResumen(
+                usuario.getIdUsuario(),
+                usuario.getRun(),
+                usuario.getDv(),
+                usuario.getNombre(),
+                usuario.getAPaterno(),
+                usuario.getAMaterno(),
+                usuario.getTelefono(),
+                usuario.getCorreo(),
+                usuario.getEstado() != null ? usuario.getEstado().getNombre() : null,
+                usuario.getTipoUsuario() != null ? usuario.getTipoUsuario().getNombre() : null);
+    }
+}
@@ -6,25 +6,29 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad que representa una Compañía de bomberos.
  * Contiene información básica de identificación y ubicación.
+ * Sólo cambia con la sincronización del espejo, que actualiza también la caché de segundo nivel.
  */
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 @Entity
 @Table(name = "compania")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalogo-compania")
 public class Compania {
 
     /**
      * Identificador único de la compañía.
-     * Se genera automáticamente mediante estrategia de identidad.
+     * Lo asigna la API de compañías; la tabla local es un espejo sincronizado.
      */
     @Id
     @Column(name = "id_compania")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(description = "Identificador único de la compañía", example = "1")
     private int idCompania;
 
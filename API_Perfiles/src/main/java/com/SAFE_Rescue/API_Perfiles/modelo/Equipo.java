@@ -1,11 +1,13 @@
 package com.SAFE_Rescue.API_Perfiles.modelo;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Entidad que representa un equipo en el sistema.
@@ -16,6 +18,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
+@DynamicUpdate
 public class Equipo {
 
     /**
@@ -70,4 +73,15 @@ public class Equipo {
     @JoinColumn(name = "estado_id", referencedColumnName = "id_estado")
     @Schema(description = "Estado del equipo")
     private Estado estado;
+
+    /**
+     * Versión del registro para el control de concurrencia optimista.
+     * Hibernate la incrementa en cada UPDATE y rechaza la escritura si otra solicitud la cambió antes;
+     * se expone a los clientes como ETag y se verifica contra el encabezado If-Match.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Versión del equipo (ETag)", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
 }
\ No newline at end of file
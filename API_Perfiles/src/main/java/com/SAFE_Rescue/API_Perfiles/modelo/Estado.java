@@ -5,18 +5,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "estado")
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalogo-estado")
 public class Estado {
 
     @Id
     @Column(name = "id_estado")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Schema(description = "Identificador único del estado", example = "1")
+    @Schema(description = "Identificador único del estado (asignado por la API de Configuraciones)", example = "1")
     private int idEstado;
 
     @Column(name = "nombre", unique = true, length = 50, nullable = false)
@@ -5,16 +5,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 /**
  * Entidad que representa la foto de perfil de un usuario en el sistema.
  * Esta clase almacena la URL de la imagen y se asocia con la entidad Usuario.
+ * Una foto no se modifica después de registrarse (una foto nueva es otra fila), por eso su caché es de sólo lectura.
  */
 @Entity
 @Table(name = "foto")
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "foto")
 public class Foto {
 
     /**
@@ -34,5 +41,14 @@ public class Foto {
     @Schema(description = "URL de la foto del usuario", example = "http://api-fotos.com/fotos/user123.jpg")
     private String url;
 
+    /**
+     * Hash SHA-256 (hexadecimal) del archivo subido.
+     * Permite reutilizar la foto cuando se sube nuevamente el mismo contenido; es nulo en las fotos
+     * registradas antes de calcularse el hash.
+     */
+    @Column(name = "hash_contenido", length = 64, unique = true, nullable = true)
+    @Schema(description = "Hash SHA-256 del contenido de la foto", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String hashContenido;
+
     // Puedes agregar más atributos aquí, como un timestamp o metadatos de la imagen.
 }
\ No newline at end of file
@@ -5,10 +5,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad que representa un tipo de equipo en el sistema.
  * Contiene información sobre la composición y estado del tipo de equipo
+ * Se guarda en la caché de segundo nivel, igual que los demás catálogos.
  */
 @Entity
 @Table(name = "tipo_equipo")
@@ -16,6 +19,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 @Schema(description = "Entidad que representa un tipo de equipo")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalogo-tipo-equipo")
 public class TipoEquipo {
 
     @Id
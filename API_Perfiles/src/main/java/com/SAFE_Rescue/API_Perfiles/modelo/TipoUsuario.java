@@ -5,10 +5,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad que representa un tipo de usuario en el sistema.
  * Contiene información sobre la composición y estado del tipo de usuario
+ * Se guarda en la caché de segundo nivel: cada usuario lo referencia y casi nunca cambia.
  */
 @Entity
 @Table(name = "tipo_usuario")
@@ -16,6 +19,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 @Schema(description = "Entidad que representa un tipo de usuario")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalogo-tipo-usuario")
 public class TipoUsuario {
 
     @Id
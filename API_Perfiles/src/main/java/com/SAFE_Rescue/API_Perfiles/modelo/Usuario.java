@@ -1,6 +1,7 @@
 package com.SAFE_Rescue.API_Perfiles.modelo;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -8,6 +9,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -15,6 +17,7 @@ import java.util.Date;
 /**
  * Entidad que representa un usuario en el sistema.
  * Contiene información sobre la composición y estado del usuario.
+ * Los UPDATE sólo incluyen las columnas modificadas ({@link DynamicUpdate}), lo que abarata las ediciones pequeñas.
  */
 @Entity
 @Table(name = "usuario")
@@ -22,14 +25,23 @@ import java.util.Date;
 @AllArgsConstructor
 @Data
 @Inheritance(strategy = InheritanceType.JOINED)
+@DynamicUpdate
 public class Usuario {
 
+    /**
+     * Cantidad de IDs reservados por cada acceso a la secuencia (coincide con hibernate.jdbc.batch_size).
+     */
+    public static final int IDS_POR_BLOQUE = 50;
+
     /**
      * Identificador único del usuario.
+     * Se genera con una secuencia que reserva bloques de 50 IDs (optimizador pooled), lo que permite
+     * agrupar los INSERT en lotes JDBC; en MySQL la secuencia se emula con la tabla usuario_seq.
      */
     @Id
     @Column(name = "id_usuario")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = "usuario_seq", allocationSize = Usuario.IDS_POR_BLOQUE)
     @Schema(description = "Identificador único del usuario", example = "1")
     private int idUsuario;
 
@@ -84,7 +96,7 @@ public class Usuario {
      */
     @Column(name = "fecha_registro", nullable = false)
     @Schema(description = "Fecha de registro del usuario", example = "2022-01-01", required = true)
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSZ", timezone = "GMT-4")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate fechaRegistro;
 
     /**
@@ -168,4 +180,15 @@ public class Usuario {
     @JoinColumn(name = "tipo_usuario_id", referencedColumnName = "id_tipo_usuario")
     @Schema(description = "Tipo de usuario asociado al usuario")
     private TipoUsuario tipoUsuario;
+
+    /**
+     * Versión del registro para el control de concurrencia optimista.
+     * Hibernate la incrementa en cada UPDATE y rechaza la escritura si otra solicitud la cambió antes;
+     * se expone a los clientes como ETag y se verifica contra el encabezado If-Match.
+     */
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Versión del usuario (ETag)", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
 }
\ No newline at end of file
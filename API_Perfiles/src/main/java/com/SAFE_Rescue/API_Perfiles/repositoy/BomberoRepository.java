@@ -1,14 +1,30 @@
 package com.SAFE_Rescue.API_Perfiles.repositoy;
 
+import com.SAFE_Rescue.API_Perfiles.dto.BomberoResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio para la gestión de Bomberos
  * Maneja operaciones CRUD desde la base de datos usando Jakarta
+ * Maneja la paginación por cursor sobre id_usuario y los resúmenes para listados
  */
 @Repository
 public interface BomberoRepository extends JpaRepository<Bombero, Integer> {
 
+    List<Bombero> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(int idUsuario, Limit limit);
+
+    /**
+     * Obtiene una página de resúmenes de bombero con una sola consulta de columnas.
+     */
+    @Query("select new com.SAFE_Rescue.API_Perfiles.dto.BomberoResumen(b.idUsuario, b.run, b.dv, b.nombre, b.aPaterno, b.aMaterno, b.telefono, b.correo, e.nombre, q.idEquipo, q.nombre) " +
+            "from Bombero b left join b.estado e left join b.equipo q " +
+            "where b.idUsuario > :after order by b.idUsuario")
+    List<BomberoResumen> findResumenes(@Param("after") int after, Limit limit);
 }
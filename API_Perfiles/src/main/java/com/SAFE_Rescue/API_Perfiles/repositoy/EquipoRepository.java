@@ -1,14 +1,30 @@
 package com.SAFE_Rescue.API_Perfiles.repositoy;
 
+import com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio para la gestión de Equipos
  * Maneja operaciones CRUD desde la base de datos usando Jakarta
+ * Maneja la paginación por cursor sobre id_equipo y los resúmenes para listados
  */
 @Repository
 public interface EquipoRepository extends JpaRepository<Equipo, Integer> {
 
+    List<Equipo> findByIdEquipoGreaterThanOrderByIdEquipoAsc(int idEquipo, Limit limit);
+
+    /**
+     * Obtiene una página de resúmenes de equipo con una sola consulta de columnas.
+     */
+    @Query("select new com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen(q.idEquipo, q.nombre, c.nombre, t.nombre, e.nombre, l.idUsuario) " +
+            "from Equipo q left join q.compania c left join q.tipoEquipo t left join q.estado e left join q.lider l " +
+            "where q.idEquipo > :after order by q.idEquipo")
+    List<EquipoResumen> findResumenes(@Param("after") int after, Limit limit);
 }
@@ -4,6 +4,8 @@ import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Repositorio para la gestión de Fotos
  * Maneja operaciones CRUD desde la base de datos usando Jakarta
@@ -11,4 +13,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface FotoRepository extends JpaRepository<Foto, Integer> {
 
+    /**
+     * Busca una foto por el hash SHA-256 de su contenido.
+     *
+     * @param hashContenido Hash en hexadecimal.
+     * @return La foto con ese contenido, si ya fue subida.
+     */
+    Optional<Foto> findByHashContenido(String hashContenido);
 }
@@ -1,9 +1,14 @@
 package com.SAFE_Rescue.API_Perfiles.repositoy;
 
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoEquipo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio para la gestión de Tipos de equipos
  * Maneja operaciones CRUD desde la base de datos usando Jakarta
@@ -11,4 +16,10 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface TipoEquipoRepository extends JpaRepository<TipoEquipo, Integer> {
 
+    /**
+     * Lista todos los tipos; el resultado queda en la caché de consultas hasta que la tabla cambie.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TipoEquipo> findAll();
 }
@@ -1,17 +1,104 @@
 package com.SAFE_Rescue.API_Perfiles.repositoy;
 
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repositorio para la gestión de Usuarios
  * Maneja operaciones CRUD desde la base de datos usando Jakarta
- * Maneja validadores para encontrar el run y telefono
+ * Maneja validadores para encontrar el run, telefono y correo (también excluyendo al propio usuario)
+ * Maneja la paginación por cursor sobre id_usuario y los resúmenes para listados
+ * Maneja la lectura en streaming para la exportación completa
+ * Maneja la detección en bloque de RUN, teléfonos y correos ya registrados (creación masiva)
+ * Maneja la lectura por tramos de ID de los nombres indexados por la búsqueda
+ * Maneja la lectura en streaming de RUN, teléfonos y correos para los filtros de unicidad
  */
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
     boolean existsByRun(String run);
 
     boolean existsByTelefono(String telefono);
-}
\ No newline at end of file
+
+    boolean existsByCorreo(String correo);
+
+    boolean existsByRunAndIdUsuarioNot(String run, int idUsuario);
+
+    boolean existsByTelefonoAndIdUsuarioNot(String telefono, int idUsuario);
+
+    boolean existsByCorreoAndIdUsuarioNot(String correo, int idUsuario);
+
+    List<Usuario> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(int idUsuario, Limit limit);
+
+    @Query("select u.run from Usuario u where u.run in :runs")
+    List<String> findRunsRegistrados(@Param("runs") Collection<String> runs);
+
+    @Query("select u.telefono from Usuario u where u.telefono in :telefonos")
+    List<String> findTelefonosRegistrados(@Param("telefonos") Collection<String> telefonos);
+
+    @Query("select u.correo from Usuario u where u.correo in :correos")
+    List<String> findCorreosRegistrados(@Param("correos") Collection<String> correos);
+
+    @Query("select coalesce(max(u.idUsuario), 0) from Usuario u")
+    int findMaxIdUsuario();
+
+    /**
+     * Obtiene una página de resúmenes de usuario con una sola consulta de columnas.
+     */
+    @Query("select new com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen(u.idUsuario, u.run, u.dv, u.nombre, u.aPaterno, u.aMaterno, u.telefono, u.correo, e.nombre, t.nombre) " +
+            "from Usuario u left join u.estado e left join u.tipoUsuario t " +
+            "where u.idUsuario > :after order by u.idUsuario")
+    List<UsuarioResumen> findResumenes(@Param("after") int after, Limit limit);
+
+    /**
+     * Obtiene una página de nombres de usuario dentro del tramo de IDs {@code (after, hasta]}.
+     * Se usa para construir el índice de búsqueda leyendo varios tramos en paralelo.
+     */
+    @Query("select new com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia(u.idUsuario, u.nombre, u.aPaterno, u.aMaterno) " +
+            "from Usuario u where u.idUsuario > :after and u.idUsuario <= :hasta order by u.idUsuario")
+    List<UsuarioCoincidencia> findNombres(@Param("after") int after, @Param("hasta") int hasta, Limit limit);
+
+    /**
+     * Recorre todos los usuarios ordenados por ID usando un cursor del lado del servidor.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from Usuario u left join fetch u.estado left join fetch u.tipoUsuario left join fetch u.foto order by u.idUsuario")
+    Stream<Usuario> streamAllByOrderByIdUsuarioAsc();
+
+    /**
+     * Recorre todos los RUN registrados. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.run from Usuario u")
+    Stream<String> streamRuns();
+
+    /**
+     * Recorre todos los teléfonos registrados. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.telefono from Usuario u")
+    Stream<String> streamTelefonos();
+
+    /**
+     * Recorre todos los correos registrados. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.correo from Usuario u")
+    Stream<String> streamCorreos();
+}
@@ -1,19 +1,35 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.BomberoResumen;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
 import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
 import com.SAFE_Rescue.API_Perfiles.repositoy.BomberoRepository;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
  * Servicio para la gestión de entidades Bombero.
  * Maneja operaciones CRUD y validaciones de negocio.
  */
 @Service
+@Timed("perfiles.servicio")
 public class BomberoService {
 
     @Autowired
@@ -25,6 +41,18 @@ public class BomberoService {
     @Autowired
     private EquipoService equipoService;
 
+    @Autowired
+    private Scheduler jpaScheduler;
+
+    @Autowired
+    private IndiceBusquedaUsuarios indiceBusquedaUsuarios;
+
+    @Autowired
+    private FiltroUnicidadUsuarios filtroUnicidadUsuarios;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Obtiene todos los bomberos registrados.
      *
@@ -34,6 +62,36 @@ public class BomberoService {
         return bomberoRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de bomberos ordenada por ID, a partir de un cursor.
+     *
+     * @param after  ID del último bombero de la página anterior (null para la primera página).
+     * @param limite Cantidad máxima de bomberos a devolver.
+     * @return Página de bomberos con el cursor de la siguiente página.
+     * @throws IllegalArgumentException Si el límite está fuera del rango permitido.
+     */
+    public PaginaCursor<Bombero> findPagina(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<Bombero> bomberos = bomberoRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(
+                PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(bomberos, limite, Bombero::getIdUsuario);
+    }
+
+    /**
+     * Obtiene una página de resúmenes de bomberos para listados.
+     * Se resuelve con una única consulta de columnas, sin cargar entidades ni sus relaciones.
+     *
+     * @param after  ID del último bombero de la página anterior (null para la primera página).
+     * @param limite Cantidad máxima de resúmenes a devolver.
+     * @return Página de resúmenes con el cursor de la siguiente página.
+     * @throws IllegalArgumentException Si el límite está fuera del rango permitido.
+     */
+    public PaginaCursor<BomberoResumen> findResumenes(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<BomberoResumen> resumenes = bomberoRepository.findResumenes(PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(resumenes, limite, BomberoResumen::idUsuario);
+    }
+
     /**
      * Busca un bombero por su ID único.
      *
@@ -63,14 +121,75 @@ public class BomberoService {
 
         // Se valida la existencia de la relación específica de Bombero
         validarRelacionesBombero(bombero);
+        usuarioService.validarUnicidad(bombero, null);
 
         try {
-            return bomberoRepository.save(bombero);
+            Bombero guardado = bomberoRepository.save(bombero);
+            filtroUnicidadUsuarios.registrar(guardado);
+            indiceBusquedaUsuarios.indexar(guardado);
+            return guardado;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El RUN, correo o teléfono ya existen.");
         }
     }
 
+    /**
+     * Versión no bloqueante de {@link #save(Bombero)}.
+     * Todas las validaciones de Bombero son locales (JPA), así que la operación completa se delega al scheduler JPA.
+     *
+     * @param bombero El objeto Bombero a guardar.
+     * @return Mono con el bombero guardado, o con IllegalArgumentException si no es válido.
+     */
+    public Mono<Bombero> saveReactivo(Bombero bombero) {
+        return Mono.fromCallable(() -> save(bombero)).subscribeOn(jpaScheduler);
+    }
+
+    /**
+     * Crea varios bomberos en una sola solicitud.
+     * Cada bombero se valida por separado y los inválidos o duplicados se rechazan sin afectar al resto;
+     * el equipo de cada bombero se consulta una sola vez por cada ID distinto. Los válidos se insertan en
+     * tramos de 500, como en {@link UsuarioService#saveLote}: una transacción por tramo, con un lote JDBC
+     * para la tabla usuario y otro para la tabla bombero.
+     *
+     * @param bomberos Bomberos a crear.
+     * @return Resultado de cada bombero (creado con su ID, o rechazado con el motivo).
+     * @throws IllegalArgumentException Si la lista es nula, vacía o supera {@link UsuarioService#LOTE_MAXIMO} elementos.
+     */
+    public List<ResultadoLote> saveLote(List<Bombero> bomberos) {
+        if (bomberos == null || bomberos.isEmpty()) {
+            throw new IllegalArgumentException("La lista de bomberos no puede estar vacía.");
+        }
+        if (bomberos.size() > UsuarioService.LOTE_MAXIMO) {
+            throw new IllegalArgumentException("Se pueden crear como máximo " + UsuarioService.LOTE_MAXIMO + " bomberos por solicitud.");
+        }
+
+        ResultadoLote[] resultados = new ResultadoLote[bomberos.size()];
+        Map<Integer, Boolean> equiposExistentes = new HashMap<>();
+
+        for (int i = 0; i < bomberos.size(); i++) {
+            Bombero bombero = bomberos.get(i);
+            String error = null;
+            if (bombero == null) {
+                error = "El objeto Bombero no puede ser nulo.";
+            } else {
+                try {
+                    usuarioService.validarAtributosUsuario(bombero);
+                    if (bombero.getEquipo() != null
+                            && !equiposExistentes.computeIfAbsent(bombero.getEquipo().getIdEquipo(), this::existeEquipo)) {
+                        error = "El equipo asociado no existe.";
+                    }
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                resultados[i] = ResultadoLote.rechazado(i, error);
+            }
+        }
+
+        return usuarioService.completarLote(bomberos, resultados);
+    }
+
     /**
      * Actualiza un bombero existente.
      *
@@ -81,41 +200,133 @@ public class BomberoService {
      * @throws NoSuchElementException   Si el bombero no es encontrado.
      */
     public Bombero update(Bombero bombero, Integer id) {
+        return update(bombero, id, null);
+    }
+
+    /**
+     * Actualiza un bombero existente, verificando que no haya cambiado desde la versión indicada.
+     * Una escritura obsoleta se rechaza, y una que no cambia nada se omite, antes de cualquier validación.
+     *
+     * @param bombero         El objeto Bombero con los datos actualizados.
+     * @param id              El ID del bombero a actualizar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return El bombero actualizado (o el existente, sin cambios, si los datos son los mismos).
+     * @throws IllegalArgumentException          Si los datos del bombero son inválidos.
+     * @throws NoSuchElementException            Si el bombero no es encontrado.
+     * @throws OptimisticLockingFailureException Si el bombero fue modificado desde la versión indicada.
+     */
+    public Bombero update(Bombero bombero, Integer id, Long versionEsperada) {
         if (bombero == null) {
             throw new IllegalArgumentException("El objeto Bombero a actualizar no puede ser nulo.");
         }
 
+        Bombero bomberoExistente = findById(id);
+        EtiquetaVersion.verificar(bomberoExistente.getVersion(), versionEsperada, "bombero");
+        if (sinCambios(bombero, bomberoExistente)) {
+            return bomberoExistente;
+        }
+
         // Se validan los atributos de Usuario y las relaciones específicas de Bombero
         usuarioService.validarAtributosUsuario(bombero);
         validarRelacionesBombero(bombero);
 
-        Bombero bomberoExistente = bomberoRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Bombero no encontrado con ID: " + id));
+        return aplicarCambios(bomberoExistente, bombero);
+    }
+
+    /**
+     * Actualiza parcialmente un bombero existente con los campos presentes en el JSON recibido.
+     * El equipo sólo se valida si cambia, y sólo se escriben las columnas modificadas.
+     *
+     * @param id      El ID del bombero a actualizar.
+     * @param cambios Objeto JSON con los campos a modificar.
+     * @return El bombero actualizado.
+     * @throws IllegalArgumentException Si los cambios no son válidos o si el nuevo equipo no existe.
+     * @throws NoSuchElementException   Si el bombero no es encontrado.
+     */
+    public Bombero patch(Integer id, JsonNode cambios) {
+        return patch(id, cambios, null);
+    }
+
+    /**
+     * Versión de {@link #patch(Integer, JsonNode)} que verifica que el bombero no haya cambiado desde la versión
+     * indicada. Si los cambios dejan los datos iguales, no se valida ni se escribe nada.
+     *
+     * @param id              El ID del bombero a actualizar.
+     * @param cambios         Objeto JSON con los campos a modificar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return El bombero actualizado (o el existente, si no hubo cambios).
+     * @throws IllegalArgumentException          Si los cambios no son válidos o si el nuevo equipo no existe.
+     * @throws NoSuchElementException            Si el bombero no es encontrado.
+     * @throws OptimisticLockingFailureException Si el bombero fue modificado desde la versión indicada.
+     */
+    public Bombero patch(Integer id, JsonNode cambios, Long versionEsperada) {
+        Bombero bomberoExistente = findById(id);
+        EtiquetaVersion.verificar(bomberoExistente.getVersion(), versionEsperada, "bombero");
+
+        // Los cambios se aplican sobre una copia: la entidad sólo se modifica si todas las validaciones pasan
+        Bombero bombero = new Bombero();
+        bombero.setIdUsuario(bomberoExistente.getIdUsuario());
+        UsuarioService.copiarDatos(bomberoExistente, bombero);
+        bombero.setEquipo(bomberoExistente.getEquipo());
+        ParcheJson.aplicar(objectMapper, bombero, cambios);
+        if (bombero.getIdUsuario() != bomberoExistente.getIdUsuario()) {
+            throw new IllegalArgumentException("El ID del bombero no se puede modificar.");
+        }
+        if (sinCambios(bombero, bomberoExistente)) {
+            return bomberoExistente;
+        }
+
+        usuarioService.validarAtributosUsuario(bombero);
+        if (!Objects.equals(idEquipo(bombero), idEquipo(bomberoExistente))) {
+            validarRelacionesBombero(bombero);
+        }
+
+        return aplicarCambios(bomberoExistente, bombero);
+    }
+
+    // Copia los datos validados sobre el bombero existente y lo guarda; con @DynamicUpdate el UPDATE sólo
+    // incluye las columnas cuyo valor cambió
+    private Bombero aplicarCambios(Bombero bomberoExistente, Bombero bombero) {
+        usuarioService.validarUnicidad(bombero, bomberoExistente);
 
         // Actualizar los campos del objeto Bombero existente
-        bomberoExistente.setRun(bombero.getRun());
-        bomberoExistente.setDv(bombero.getDv());
-        bomberoExistente.setNombre(bombero.getNombre());
-        bomberoExistente.setAPaterno(bombero.getAPaterno());
-        bomberoExistente.setAMaterno(bombero.getAMaterno());
-        bomberoExistente.setFechaRegistro(bombero.getFechaRegistro());
-        bomberoExistente.setTelefono(bombero.getTelefono());
-        bomberoExistente.setCorreo(bombero.getCorreo());
-        bomberoExistente.setContrasenia(bombero.getContrasenia());
-        bomberoExistente.setIntentosFallidos(bombero.getIntentosFallidos());
-        bomberoExistente.setRazonBaneo(bombero.getRazonBaneo());
-        bomberoExistente.setDiasBaneo(bombero.getDiasBaneo());
-        bomberoExistente.setTipoUsuario(bombero.getTipoUsuario());
-        bomberoExistente.setEstado(bombero.getEstado());
+        UsuarioService.copiarDatos(bombero, bomberoExistente);
         bomberoExistente.setEquipo(bombero.getEquipo());
 
         try {
-            return bomberoRepository.save(bomberoExistente);
+            Bombero actualizado = bomberoRepository.save(bomberoExistente);
+            filtroUnicidadUsuarios.registrar(actualizado);
+            indiceBusquedaUsuarios.indexar(actualizado);
+            return actualizado;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El RUN, correo o teléfono ya existen.");
         }
     }
 
+    /**
+     * Versión no bloqueante de {@link #update(Bombero, Integer)}, ejecutada en el scheduler JPA.
+     *
+     * @param bombero El objeto Bombero con los datos actualizados.
+     * @param id      El ID del bombero a actualizar.
+     * @return Mono con el bombero actualizado, o con IllegalArgumentException / NoSuchElementException.
+     */
+    public Mono<Bombero> updateReactivo(Bombero bombero, Integer id) {
+        return updateReactivo(bombero, id, null);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #update(Bombero, Integer, Long)}, ejecutada en el scheduler JPA.
+     *
+     * @param bombero         El objeto Bombero con los datos actualizados.
+     * @param id              El ID del bombero a actualizar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return Mono con el bombero actualizado, o con IllegalArgumentException / NoSuchElementException /
+     *         OptimisticLockingFailureException.
+     */
+    public Mono<Bombero> updateReactivo(Bombero bombero, Integer id, Long versionEsperada) {
+        return Mono.fromCallable(() -> update(bombero, id, versionEsperada)).subscribeOn(jpaScheduler);
+    }
+
     /**
      * Elimina un bombero por su ID.
      *
@@ -127,6 +338,27 @@ public class BomberoService {
             throw new NoSuchElementException("Bombero no encontrado con ID: " + id);
         }
         bomberoRepository.deleteById(id);
+        indiceBusquedaUsuarios.eliminar(id);
+    }
+
+    // Indica si guardar el bombero no cambiaría nada (datos de usuario y equipo)
+    private static boolean sinCambios(Bombero bombero, Bombero anterior) {
+        return UsuarioService.sinCambios(bombero, anterior)
+                && Objects.equals(idEquipo(bombero), idEquipo(anterior));
+    }
+
+    private static Integer idEquipo(Bombero bombero) {
+        return bombero.getEquipo() != null ? bombero.getEquipo().getIdEquipo() : null;
+    }
+
+    // Indica si existe el equipo con el ID dado
+    private boolean existeEquipo(Integer idEquipo) {
+        try {
+            equipoService.findById(idEquipo);
+            return true;
+        } catch (NoSuchElementException e) {
+            return false;
+        }
     }
 
     /**
@@ -0,0 +1,254 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Compania;
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.repositoy.CompaniaRepository;
+import com.SAFE_Rescue.API_Perfiles.repositoy.EstadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Espejo local de los catálogos de estados y compañías.
+ * Un proceso programado descarga ambos catálogos desde las APIs externas ({@code estado.service.url} y
+ * {@code compania.service.url}) hacia las tablas locales, usando ETag/If-None-Match para no transferir
+ * ni escribir nada cuando el catálogo no cambió, y guardando sólo las filas nuevas o modificadas.
+ * Las validaciones consultan primero el espejo; si éste supera la vigencia configurada
+ * ({@code catalogo.sync.vigencia}) o el ID aún no está replicado, se recurre a la caché de la API externa.
+ * Si la API externa falla (error, timeout, circuito abierto o bulkhead lleno) y {@code catalogo.respaldo-espejo}
+ * está activo, se responde con el espejo aunque esté vencido, ya que es el último valor conocido.
+ */
+@Service
+public class CatalogoEspejoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoEspejoService.class);
+
+    private final WebClient estadoWebClient;
+    private final WebClient companiaWebClient;
+    private final EstadoRepository estadoRepository;
+    private final CompaniaRepository companiaRepository;
+    private final EstadoCacheService estadoCacheService;
+    private final CompaniaCacheService companiaCacheService;
+    private final Duration vigencia;
+    private final Duration timeout;
+    private final boolean respaldoEspejo;
+    private final Scheduler jpaScheduler;
+    private final Clock reloj;
+
+    private final Sincronizacion sincronizacionEstados = new Sincronizacion();
+    private final Sincronizacion sincronizacionCompanias = new Sincronizacion();
+
+    @Autowired
+    public CatalogoEspejoService(WebClient estadoWebClient,
+                                 WebClient companiaWebClient,
+                                 EstadoRepository estadoRepository,
+                                 CompaniaRepository companiaRepository,
+                                 EstadoCacheService estadoCacheService,
+                                 CompaniaCacheService companiaCacheService,
+                                 @Value("${catalogo.sync.vigencia:15m}") Duration vigencia,
+                                 @Value("${catalogo.sync.timeout:30s}") Duration timeout,
+                                 @Value("${catalogo.respaldo-espejo:true}") boolean respaldoEspejo,
+                                 Scheduler jpaScheduler) {
+        this(estadoWebClient, companiaWebClient, estadoRepository, companiaRepository,
+                estadoCacheService, companiaCacheService, vigencia, timeout, respaldoEspejo, jpaScheduler, Clock.systemUTC());
+    }
+
+    CatalogoEspejoService(WebClient estadoWebClient,
+                          WebClient companiaWebClient,
+                          EstadoRepository estadoRepository,
+                          CompaniaRepository companiaRepository,
+                          EstadoCacheService estadoCacheService,
+                          CompaniaCacheService companiaCacheService,
+                          Duration vigencia,
+                          Duration timeout,
+                          boolean respaldoEspejo,
+                          Scheduler jpaScheduler,
+                          Clock reloj) {
+        this.estadoWebClient = estadoWebClient;
+        this.companiaWebClient = companiaWebClient;
+        this.estadoRepository = estadoRepository;
+        this.companiaRepository = companiaRepository;
+        this.estadoCacheService = estadoCacheService;
+        this.companiaCacheService = companiaCacheService;
+        this.vigencia = vigencia;
+        this.timeout = timeout;
+        this.respaldoEspejo = respaldoEspejo;
+        this.jpaScheduler = jpaScheduler;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Sincroniza ambos catálogos. Se ejecuta al iniciar y luego cada {@code catalogo.sync.intervalo}.
+     * Un error en un catálogo no impide sincronizar el otro; el espejo afectado simplemente envejece
+     * hasta la siguiente ejecución exitosa.
+     */
+    @Scheduled(fixedDelayString = "${catalogo.sync.intervalo:5m}")
+    public void sincronizar() {
+        try {
+            sincronizarCatalogo(estadoWebClient, Estado.class, estadoRepository, Estado::getIdEstado, sincronizacionEstados);
+        } catch (Exception e) {
+            log.warn("No se pudo sincronizar el catálogo de estados: {}", e.getMessage());
+        }
+        try {
+            sincronizarCatalogo(companiaWebClient, Compania.class, companiaRepository, Compania::getIdCompania, sincronizacionCompanias);
+        } catch (Exception e) {
+            log.warn("No se pudo sincronizar el catálogo de compañías: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el estado existe, resolviendo contra el espejo local cuando está vigente.
+     *
+     * @param id ID del estado.
+     * @return true si el estado existe.
+     * @throws RuntimeException Si hay que consultar la API de estados, ésta falla y no hay respaldo en el espejo.
+     */
+    public boolean existeEstado(Integer id) {
+        if (vigente(sincronizacionEstados) && estadoRepository.existsById(id)) {
+            return true;
+        }
+        // Espejo vencido o estado creado después de la última sincronización
+        try {
+            return estadoCacheService.existeEstado(id);
+        } catch (RuntimeException e) {
+            return respaldo(sincronizacionEstados, () -> estadoRepository.existsById(id), e);
+        }
+    }
+
+    /**
+     * Indica si la compañía existe, resolviendo contra el espejo local cuando está vigente.
+     *
+     * @param id ID de la compañía.
+     * @return true si la compañía existe.
+     * @throws RuntimeException Si hay que consultar la API de compañías, ésta falla y no hay respaldo en el espejo.
+     */
+    public boolean existeCompania(Integer id) {
+        if (vigente(sincronizacionCompanias) && companiaRepository.existsById(id)) {
+            return true;
+        }
+        // Espejo vencido o compañía creada después de la última sincronización
+        try {
+            return companiaCacheService.existeCompania(id);
+        } catch (RuntimeException e) {
+            return respaldo(sincronizacionCompanias, () -> companiaRepository.existsById(id), e);
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #existeEstado(Integer)}: la consulta al espejo se ejecuta en el
+     * scheduler JPA y la consulta a la API externa se compone sin bloquear.
+     *
+     * @param id ID del estado.
+     * @return Mono con true si el estado existe.
+     */
+    public Mono<Boolean> existeEstadoReactivo(Integer id) {
+        return existeReactivo(sincronizacionEstados, () -> estadoRepository.existsById(id),
+                () -> estadoCacheService.existeEstadoReactivo(id));
+    }
+
+    /**
+     * Versión no bloqueante de {@link #existeCompania(Integer)}.
+     *
+     * @param id ID de la compañía.
+     * @return Mono con true si la compañía existe.
+     */
+    public Mono<Boolean> existeCompaniaReactivo(Integer id) {
+        return existeReactivo(sincronizacionCompanias, () -> companiaRepository.existsById(id),
+                () -> companiaCacheService.existeCompaniaReactivo(id));
+    }
+
+    private Mono<Boolean> existeReactivo(Sincronizacion sincronizacion, Callable<Boolean> local, Supplier<Mono<Boolean>> remoto) {
+        Supplier<Mono<Boolean>> remotoConRespaldo = () -> remoto.get()
+                .onErrorResume(e -> hayRespaldo(sincronizacion), e -> Mono.fromCallable(local).subscribeOn(jpaScheduler));
+        return Mono.defer(() -> {
+            if (!vigente(sincronizacion)) {
+                return remotoConRespaldo.get();
+            }
+            return Mono.fromCallable(local)
+                    .subscribeOn(jpaScheduler)
+                    .flatMap(existe -> existe ? Mono.just(true) : remotoConRespaldo.get());
+        });
+    }
+
+    // Responde con el espejo (el último valor conocido) cuando la API externa falla, si está permitido
+    private boolean respaldo(Sincronizacion sincronizacion, BooleanSupplier local, RuntimeException error) {
+        // Si la espera fue interrumpida (p. ej. venció el plazo de validación) nadie espera ya la respuesta
+        if (!hayRespaldo(sincronizacion) || Thread.currentThread().isInterrupted()) {
+            throw error;
+        }
+        log.debug("API externa no disponible, se usa el espejo local: {}", error.getMessage());
+        return local.getAsBoolean();
+    }
+
+    private boolean hayRespaldo(Sincronizacion sincronizacion) {
+        return respaldoEspejo && sincronizacion.ultima != null;
+    }
+
+    private boolean vigente(Sincronizacion sincronizacion) {
+        Instant ultima = sincronizacion.ultima;
+        return ultima != null && !ultima.plus(vigencia).isBefore(Instant.now(reloj));
+    }
+
+    /**
+     * Descarga un catálogo y guarda sólo las filas que difieren de la copia local.
+     * Con 304 (Not Modified) no se lee ni escribe nada, sólo se renueva la vigencia.
+     * Las filas eliminadas en la API externa se conservan, ya que pueden estar referenciadas localmente.
+     */
+    private <T> void sincronizarCatalogo(WebClient cliente, Class<T> tipo, JpaRepository<T, Integer> repositorio,
+                                         ToIntFunction<T> id, Sincronizacion sincronizacion) {
+        String etag = sincronizacion.etag;
+        ResponseEntity<List<T>> respuesta = cliente.get()
+                .headers(headers -> {
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
+                    }
+                })
+                .exchangeToMono(r -> {
+                    if (r.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return r.releaseBody().then(Mono.<ResponseEntity<List<T>>>empty());
+                    }
+                    return r.statusCode().is2xxSuccessful() ? r.toEntityList(tipo) : r.createError();
+                })
+                .block(timeout);
+
+        if (respuesta != null) {
+            Map<Integer, T> locales = repositorio.findAll().stream()
+                    .collect(Collectors.toMap(id::applyAsInt, Function.identity()));
+            List<T> cambiados = respuesta.getBody() == null ? List.of() : respuesta.getBody().stream()
+                    .filter(remoto -> !remoto.equals(locales.get(id.applyAsInt(remoto))))
+                    .toList();
+            if (!cambiados.isEmpty()) {
+                repositorio.saveAll(cambiados);
+            }
+            sincronizacion.etag = respuesta.getHeaders().getETag();
+        }
+        sincronizacion.ultima = Instant.now(reloj);
+    }
+
+    // Estado de la sincronización de un catálogo
+    private static final class Sincronizacion {
+        private volatile String etag;
+        private volatile Instant ultima;
+    }
+}
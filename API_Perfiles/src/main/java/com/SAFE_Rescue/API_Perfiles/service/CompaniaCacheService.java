@@ -0,0 +1,118 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caché en memoria de la existencia de compañías en la API externa de compañías.
+ * Las consultas concurrentes por un mismo ID comparten una única llamada en curso (single-flight),
+ * de modo que una ráfaga de equipos creados para la misma compañía genera una sola petición.
+ * La existencia se verifica con HEAD (sin cuerpo); si la API no admite HEAD se usa GET descartando el cuerpo.
+ * Las métricas se publican con el nombre de caché "companias".
+ */
+@Service
+public class CompaniaCacheService {
+
+    private final WebClient companiaWebClient;
+    private final AsyncLoadingCache<Integer, Boolean> companias;
+    private final AtomicBoolean headSoportado = new AtomicBoolean(true);
+
+    public CompaniaCacheService(WebClient companiaWebClient,
+                                @Value("${compania.cache.ttl:10m}") Duration ttl,
+                                @Value("${compania.cache.ttl-negativo:1m}") Duration ttlNegativo,
+                                @Value("${compania.cache.max-size:1000}") long tamanoMaximo,
+                                MeterRegistry meterRegistry) {
+        this.companiaWebClient = companiaWebClient;
+        this.companias = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new ExpiracionCache<Integer, Boolean>(ttl, ttlNegativo, Boolean::booleanValue))
+                .recordStats()
+                .buildAsync((id, executor) -> consultarCompania(id).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, companias, "companias");
+    }
+
+    /**
+     * Indica si la compañía existe en la API externa.
+     *
+     * @param id ID de la compañía.
+     * @return true si la compañía existe, false si la API respondió 404.
+     * @throws RuntimeException      Si ocurre un error al comunicarse con la API de compañías.
+     * @throws IllegalStateException Si el hilo es interrumpido mientras espera la respuesta.
+     */
+    public boolean existeCompania(Integer id) {
+        try {
+            // get() (y no join()) responde a la interrupción; la consulta compartida no se cancela
+            return companias.get(id).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al consultar la compañía " + id + ".", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La consulta de la compañía fue interrumpida.", e);
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #existeCompania(Integer)}.
+     * Cancelar la suscripción no cancela la consulta compartida en curso.
+     *
+     * @param id ID de la compañía.
+     * @return Mono con true si la compañía existe, false si la API respondió 404.
+     */
+    public Mono<Boolean> existeCompaniaReactivo(Integer id) {
+        return Mono.fromFuture(() -> companias.get(id), true);
+    }
+
+    /**
+     * Elimina una compañía de la caché, forzando una nueva consulta en el próximo acceso.
+     *
+     * @param id ID de la compañía.
+     */
+    public void invalidar(Integer id) {
+        companias.synchronous().invalidate(id);
+    }
+
+    /**
+     * Consulta la existencia de la compañía sin leer el cuerpo de la respuesta.
+     * Un 404 se traduce en false (caché negativa); cualquier otro error se propaga y no se guarda.
+     */
+    private Mono<Boolean> consultarCompania(Integer id) {
+        Mono<Boolean> consulta = headSoportado.get()
+                ? consultarConHead(id).onErrorResume(WebClientResponseException.MethodNotAllowed.class, e -> {
+                    // La API no admite HEAD: se recuerda para no repetir el intento en cada consulta
+                    headSoportado.set(false);
+                    return consultarConGet(id);
+                })
+                : consultarConGet(id);
+        return consulta.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(false));
+    }
+
+    private Mono<Boolean> consultarConHead(Integer id) {
+        return companiaWebClient.head()
+                .uri("/{id}", id)
+                .retrieve()
+                .toBodilessEntity()
+                .map(respuesta -> true);
+    }
+
+    private Mono<Boolean> consultarConGet(Integer id) {
+        return companiaWebClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .toBodilessEntity()
+                .map(respuesta -> true);
+    }
+}
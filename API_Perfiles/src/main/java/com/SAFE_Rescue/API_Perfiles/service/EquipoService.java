@@ -1,32 +1,65 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
 import com.SAFE_Rescue.API_Perfiles.repositoy.EquipoRepository;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 @Service
+@Timed("perfiles.servicio")
 public class EquipoService {
 
     @Autowired
     private EquipoRepository equipoRepository;
 
     @Autowired
-    private WebClient companiaWebClient;
+    private CatalogoEspejoService catalogoEspejoService;
 
     @Autowired
     private TipoEquipoService tipoEquipoService;
 
+    @Autowired
+    private Scheduler jpaScheduler;
+
+    @Autowired
+    private ValidadorConcurrente validadorConcurrente;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     public List<Equipo> findAll() {
         return equipoRepository.findAll();
     }
 
+    public PaginaCursor<Equipo> findPagina(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<Equipo> equipos = equipoRepository.findByIdEquipoGreaterThanOrderByIdEquipoAsc(
+                PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(equipos, limite, Equipo::getIdEquipo);
+    }
+
+    public PaginaCursor<EquipoResumen> findResumenes(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<EquipoResumen> resumenes = equipoRepository.findResumenes(PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(resumenes, limite, EquipoResumen::idEquipo);
+    }
+
     public Equipo findById(Integer id) {
         return equipoRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Equipo no encontrado con ID: " + id));
@@ -39,19 +72,32 @@ public class EquipoService {
 
         validarAtributosEquipo(equipo);
 
-        // Se valida que el tipo de equipo exista en la API local
-        validarTipoEquipo(equipo);
-        // Se valida que la compañía exista en la API externa
-        validarCompaniaExterna(equipo);
+        // Se valida en paralelo que el tipo de equipo exista en la API local y la compañía en la API externa
+        validadorConcurrente.validar(
+                () -> validarTipoEquipo(equipo),
+                () -> validarCompaniaExterna(equipo));
 
-        try {
-            return equipoRepository.save(equipo);
-        } catch (DataIntegrityViolationException e) {
-            throw new IllegalArgumentException("Error de integridad de datos. El equipo no cumple con las restricciones de la base de datos.");
+        return guardar(equipo);
+    }
+
+    // Versión no bloqueante de save: las validaciones de relaciones corren en paralelo y la escritura en el scheduler JPA
+    public Mono<Equipo> saveReactivo(Equipo equipo) {
+        if (equipo == null) {
+            return Mono.error(new IllegalArgumentException("El equipo no puede ser nulo."));
         }
+
+        return Mono.fromRunnable(() -> validarAtributosEquipo(equipo))
+                .then(validarRelacionesReactivo(equipo))
+                .then(Mono.fromCallable(() -> guardar(equipo)).subscribeOn(jpaScheduler));
     }
 
     public Equipo update(Equipo equipo, Integer id) {
+        return update(equipo, id, null);
+    }
+
+    // Actualización con control de concurrencia: si se indica la versión esperada (If-Match) y el equipo cambió,
+    // se lanza OptimisticLockingFailureException; si los datos son los mismos no se valida ni se escribe nada
+    public Equipo update(Equipo equipo, Integer id, Long versionEsperada) {
         if (equipo == null) {
             throw new IllegalArgumentException("El equipo a actualizar no puede ser nulo.");
         }
@@ -59,12 +105,91 @@ public class EquipoService {
         // Mover esta línea al principio para asegurar que la NoSuchElementException se lanza primero
         Equipo equipoExistente = equipoRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Equipo no encontrado con ID: " + id));
+        EtiquetaVersion.verificar(equipoExistente.getVersion(), versionEsperada, "equipo");
+        if (sinCambios(equipo, equipoExistente)) {
+            return equipoExistente;
+        }
 
         // Ahora se validan los atributos y las relaciones SÓLO si el equipo existe
         validarAtributosEquipo(equipo);
-        validarTipoEquipo(equipo);
-        validarCompaniaExterna(equipo);
+        validadorConcurrente.validar(
+                () -> validarTipoEquipo(equipo),
+                () -> validarCompaniaExterna(equipo));
+
+        return actualizar(equipoExistente, equipo);
+    }
+
+    // Versión no bloqueante de update, con el mismo orden: primero se verifica que el equipo exista
+    public Mono<Equipo> updateReactivo(Equipo equipo, Integer id) {
+        return updateReactivo(equipo, id, null);
+    }
+
+    // Versión no bloqueante de update con control de concurrencia: misma verificación de la versión esperada
+    // (If-Match) y misma omisión de las escrituras que no cambian nada
+    public Mono<Equipo> updateReactivo(Equipo equipo, Integer id, Long versionEsperada) {
+        if (equipo == null) {
+            return Mono.error(new IllegalArgumentException("El equipo a actualizar no puede ser nulo."));
+        }
+
+        return Mono.fromCallable(() -> findById(id))
+                .subscribeOn(jpaScheduler)
+                .flatMap(equipoExistente -> {
+                    EtiquetaVersion.verificar(equipoExistente.getVersion(), versionEsperada, "equipo");
+                    if (sinCambios(equipo, equipoExistente)) {
+                        return Mono.just(equipoExistente);
+                    }
+                    return Mono.fromRunnable(() -> validarAtributosEquipo(equipo))
+                            .then(validarRelacionesReactivo(equipo))
+                            .then(Mono.fromCallable(() -> actualizar(equipoExistente, equipo)).subscribeOn(jpaScheduler));
+                });
+    }
+
+    // Actualización parcial: los cambios se aplican sobre una copia y sólo se validan el tipo de equipo y la
+    // compañía si cambian; con @DynamicUpdate el UPDATE sólo incluye las columnas modificadas
+    public Equipo patch(Integer id, JsonNode cambios) {
+        return patch(id, cambios, null);
+    }
+
+    // Igual que patch(id, cambios), verificando además la versión esperada (If-Match)
+    public Equipo patch(Integer id, JsonNode cambios, Long versionEsperada) {
+        Equipo equipoExistente = findById(id);
+        EtiquetaVersion.verificar(equipoExistente.getVersion(), versionEsperada, "equipo");
+
+        Equipo equipo = new Equipo(equipoExistente.getIdEquipo(), equipoExistente.getNombre(), equipoExistente.getLider(),
+                equipoExistente.getCompania(), equipoExistente.getTipoEquipo(), equipoExistente.getEstado(),
+                equipoExistente.getVersion());
+        ParcheJson.aplicar(objectMapper, equipo, cambios);
+        if (equipo.getIdEquipo() != equipoExistente.getIdEquipo()) {
+            throw new IllegalArgumentException("El ID del equipo no se puede modificar.");
+        }
+        if (sinCambios(equipo, equipoExistente)) {
+            return equipoExistente;
+        }
+
+        validarAtributosEquipo(equipo);
+        List<Runnable> validaciones = new ArrayList<>();
+        if (!Objects.equals(idTipoEquipo(equipo), idTipoEquipo(equipoExistente))) {
+            validaciones.add(() -> validarTipoEquipo(equipo));
+        }
+        if (!Objects.equals(idCompania(equipo), idCompania(equipoExistente))) {
+            validaciones.add(() -> validarCompaniaExterna(equipo));
+        }
+        if (!validaciones.isEmpty()) {
+            validadorConcurrente.validar(validaciones.toArray(Runnable[]::new));
+        }
+
+        return actualizar(equipoExistente, equipo);
+    }
+
+    private Equipo guardar(Equipo equipo) {
+        try {
+            return equipoRepository.save(equipo);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Error de integridad de datos. El equipo no cumple con las restricciones de la base de datos.");
+        }
+    }
 
+    private Equipo actualizar(Equipo equipoExistente, Equipo equipo) {
         equipoExistente.setNombre(equipo.getNombre());
         equipoExistente.setCompania(equipo.getCompania());
         equipoExistente.setTipoEquipo(equipo.getTipoEquipo());
@@ -83,6 +208,26 @@ public class EquipoService {
         equipoRepository.delete(equipo);
     }
 
+    // Compara los campos que actualizar() copia; las relaciones por ID
+    private static boolean sinCambios(Equipo equipo, Equipo anterior) {
+        return Objects.equals(equipo.getNombre(), anterior.getNombre())
+                && Objects.equals(idLider(equipo), idLider(anterior))
+                && Objects.equals(idCompania(equipo), idCompania(anterior))
+                && Objects.equals(idTipoEquipo(equipo), idTipoEquipo(anterior));
+    }
+
+    private static Integer idLider(Equipo equipo) {
+        return equipo.getLider() != null ? equipo.getLider().getIdUsuario() : null;
+    }
+
+    private static Integer idTipoEquipo(Equipo equipo) {
+        return equipo.getTipoEquipo() != null ? equipo.getTipoEquipo().getIdTipoEquipo() : null;
+    }
+
+    private static Integer idCompania(Equipo equipo) {
+        return equipo.getCompania() != null ? equipo.getCompania().getIdCompania() : null;
+    }
+
     private void validarAtributosEquipo(Equipo equipo) {
         if (equipo.getNombre() == null || equipo.getNombre().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del equipo es requerido.");
@@ -102,25 +247,40 @@ public class EquipoService {
         }
     }
 
-    // Método para validar la existencia de la compañía en la API externa
+    // Método para validar la existencia de la compañía (espejo local, o la API externa si el espejo está vencido)
     private void validarCompaniaExterna(Equipo equipo) {
         if (equipo.getCompania() != null) {
+            boolean existe;
             try {
-                // Se realiza la llamada a la API externa
-                this.companiaWebClient.get()
-                        .uri("/{id}", equipo.getCompania().getIdCompania())
-                        .retrieve()
-                        // Si el estado es un error 4xx, lanza una excepción
-                        .onStatus(status -> status.is4xxClientError(),
-                                response -> Mono.error(new IllegalArgumentException("La compañía asociada al equipo no existe en la API externa.")))
-                        // bodyToMono(String.class) consume el cuerpo y el .block() espera a que llegue la respuesta
-                        .bodyToMono(String.class)
-                        .block(); // <-- Aquí se bloquea el hilo de ejecución
+                // Sólo se llama a la API externa si el espejo está vencido y la compañía no está en caché
+                existe = catalogoEspejoService.existeCompania(equipo.getCompania().getIdCompania());
             } catch (Exception e) {
-                // Captura la excepción lanzada por onStatus o cualquier otro error de comunicación
+                // Captura cualquier error de comunicación
                 throw new IllegalArgumentException("Error al comunicarse con la API de compañías.", e);
             }
+            if (!existe) {
+                throw new IllegalArgumentException("La compañía asociada al equipo no existe en la API externa.");
+            }
         }
     }
 
+    // Valida en paralelo el tipo de equipo (JPA, en el scheduler JPA) y la compañía (espejo o API externa, sin bloquear)
+    private Mono<Void> validarRelacionesReactivo(Equipo equipo) {
+        Mono<Void> tipoEquipo = Mono.<Void>fromRunnable(() -> validarTipoEquipo(equipo))
+                .subscribeOn(jpaScheduler);
+
+        Mono<Void> compania = Mono.defer(() -> {
+            if (equipo.getCompania() == null) {
+                return Mono.empty();
+            }
+            return catalogoEspejoService.existeCompaniaReactivo(equipo.getCompania().getIdCompania())
+                    // Falla de comunicación (no de la solicitud): conserva la causa para responder 503 si es transitoria
+                    .onErrorMap(e -> new IllegalStateException("Error al comunicarse con la API de compañías.", e))
+                    .flatMap(existe -> existe ? Mono.<Void>empty()
+                            : Mono.error(new IllegalArgumentException("La compañía asociada al equipo no existe en la API externa.")));
+        });
+
+        return validadorConcurrente.validarReactivo(tipoEquipo, compania);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caché en memoria de los estados consultados a la API de Configuraciones.
+ * Evita repetir la llamada HTTP en cada creación o actualización de usuario:
+ * los estados existentes se guardan durante el TTL configurado y los inexistentes (404)
+ * durante el TTL negativo. Las consultas concurrentes por un mismo ID comparten una sola llamada.
+ * Las métricas de aciertos, fallos y desalojos se publican con el nombre de caché "estados".
+ */
+@Service
+public class EstadoCacheService {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> TIPO_ESTADO = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient estadoWebClient;
+    private final AsyncLoadingCache<Integer, Optional<Map<String, Object>>> estados;
+
+    public EstadoCacheService(WebClient estadoWebClient,
+                              @Value("${estado.cache.ttl:10m}") Duration ttl,
+                              @Value("${estado.cache.ttl-negativo:1m}") Duration ttlNegativo,
+                              @Value("${estado.cache.max-size:1000}") long tamanoMaximo,
+                              MeterRegistry meterRegistry) {
+        this.estadoWebClient = estadoWebClient;
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new ExpiracionCache<Integer, Optional<Map<String, Object>>>(ttl, ttlNegativo, Optional::isPresent))
+                .recordStats()
+                .buildAsync((id, executor) -> cargarEstado(id).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, estados, "estados");
+    }
+
+    /**
+     * Indica si el estado existe en la API de Configuraciones.
+     *
+     * @param id ID del estado.
+     * @return true si el estado existe, false si la API respondió 404.
+     * @throws RuntimeException Si ocurre un error al comunicarse con la API de estados.
+     */
+    public boolean existeEstado(Integer id) {
+        return buscarEstado(id).isPresent();
+    }
+
+    /**
+     * Versión no bloqueante de {@link #existeEstado(Integer)}.
+     * Cancelar la suscripción no cancela la consulta compartida en curso.
+     *
+     * @param id ID del estado.
+     * @return Mono con true si el estado existe, false si la API respondió 404.
+     */
+    public Mono<Boolean> existeEstadoReactivo(Integer id) {
+        return Mono.fromFuture(() -> estados.get(id), true)
+                .map(Optional::isPresent);
+    }
+
+    /**
+     * Obtiene los datos de un estado, usando la caché cuando es posible.
+     *
+     * @param id ID del estado.
+     * @return Los datos del estado, o vacío si la API respondió 404.
+     * @throws RuntimeException      Si ocurre un error al comunicarse con la API de estados.
+     * @throws IllegalStateException Si el hilo es interrumpido mientras espera la respuesta.
+     */
+    public Optional<Map<String, Object>> buscarEstado(Integer id) {
+        try {
+            // get() (y no join()) responde a la interrupción: quien espera puede liberar el hilo
+            // sin cancelar la consulta compartida, que sigue en curso para los demás
+            return estados.get(id).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al consultar el estado " + id + ".", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La consulta del estado fue interrumpida.", e);
+        }
+    }
+
+    /**
+     * Elimina un estado de la caché, forzando una nueva consulta en el próximo acceso.
+     *
+     * @param id ID del estado.
+     */
+    public void invalidar(Integer id) {
+        estados.synchronous().invalidate(id);
+    }
+
+    /**
+     * Consulta el estado en la API externa. Un 404 se traduce en un resultado vacío (caché negativa);
+     * cualquier otro error se propaga y no se guarda en la caché.
+     */
+    private Mono<Optional<Map<String, Object>>> cargarEstado(Integer id) {
+        return estadoWebClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(TIPO_ESTADO)
+                .defaultIfEmpty(Map.of())
+                .map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()));
+    }
+}
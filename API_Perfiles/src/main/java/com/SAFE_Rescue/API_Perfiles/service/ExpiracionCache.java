@@ -0,0 +1,42 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Política de expiración para las cachés de validación de entidades externas.
+ * Las respuestas positivas (la entidad existe) viven durante el TTL normal y las negativas
+ * (la API respondió 404) durante un TTL negativo, normalmente más corto.
+ *
+ * @param <K> Tipo de la clave.
+ * @param <V> Tipo del valor guardado.
+ */
+class ExpiracionCache<K, V> implements Expiry<K, V> {
+
+    private final long ttlNanos;
+    private final long ttlNegativoNanos;
+    private final Predicate<V> esPositivo;
+
+    ExpiracionCache(Duration ttl, Duration ttlNegativo, Predicate<V> esPositivo) {
+        this.ttlNanos = ttl.toNanos();
+        this.ttlNegativoNanos = ttlNegativo.toNanos();
+        this.esPositivo = esPositivo;
+    }
+
+    @Override
+    public long expireAfterCreate(K clave, V valor, long tiempoActual) {
+        return esPositivo.test(valor) ? ttlNanos : ttlNegativoNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(K clave, V valor, long tiempoActual, long duracionActual) {
+        return expireAfterCreate(clave, valor, tiempoActual);
+    }
+
+    @Override
+    public long expireAfterRead(K clave, V valor, long tiempoActual, long duracionActual) {
+        return duracionActual;
+    }
+}
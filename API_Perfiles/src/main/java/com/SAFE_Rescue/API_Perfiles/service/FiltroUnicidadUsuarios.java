@@ -0,0 +1,184 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import com.SAFE_Rescue.API_Perfiles.util.FiltroBloom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom en memoria con los RUN, teléfonos y correos registrados.
+ * Permiten descartar sin consultar la base de datos que un valor ya esté en uso: si el filtro responde que no,
+ * el valor es nuevo con seguridad; si responde que puede estarlo, se confirma con una consulta {@code exists}.
+ * <p>
+ * Se cargan al iniciar la aplicación recorriendo las tres columnas, y se mantienen al día desde
+ * {@link UsuarioService} y {@link BomberoService} en cada creación y actualización. Las eliminaciones y los
+ * valores reemplazados no se quitan (un filtro de Bloom no lo permite): sólo producen falsos positivos, que
+ * terminan en la consulta. Mientras se cargan, todos los valores se tratan como posibles.
+ * <p>
+ * Los valores se comparan en su forma de compatibilidad (NFKD: ligaduras y caracteres de ancho completo como sus
+ * equivalentes simples), sin tildes, sin distinguir mayúsculas y sin espacios en los extremos, para acercarse a la
+ * intercalación de la columna ({@code *_ai_ci}). Es una aproximación: la intercalación de MySQL puede igualar
+ * algún otro par de valores que el filtro descarte. Las restricciones únicas de la tabla son la verificación
+ * definitiva; protegen ese caso y las inserciones hechas por fuera de estos servicios (u otra instancia).
+ */
+@Service
+public class FiltroUnicidadUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroUnicidadUsuarios.class);
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Columnas únicas de la tabla usuario cubiertas por los filtros.
+     */
+    public enum Campo {
+        RUN, TELEFONO, CORREO
+    }
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long capacidad;
+    private final double falsosPositivos;
+    private final Map<Campo, Counter> descartados = new EnumMap<>(Campo.class);
+    private final Map<Campo, Counter> consultados = new EnumMap<>(Campo.class);
+
+    private volatile Map<Campo, FiltroBloom> filtros;
+    private volatile boolean listo;
+
+    @Autowired
+    public FiltroUnicidadUsuarios(UsuarioRepository usuarioRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${unicidad.usuarios.capacidad:100000}") long capacidad,
+                                  @Value("${unicidad.usuarios.falsos-positivos:0.01}") double falsosPositivos,
+                                  MeterRegistry meterRegistry) {
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.capacidad = capacidad;
+        this.falsosPositivos = falsosPositivos;
+        for (Campo campo : Campo.values()) {
+            descartados.put(campo, contador(meterRegistry, campo, "descartada"));
+            consultados.put(campo, contador(meterRegistry, campo, "consultada"));
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, Campo campo, String resultado) {
+        return Counter.builder("usuarios.unicidad")
+                .description("Verificaciones de unicidad: descartadas por el filtro de Bloom o consultadas a la base de datos")
+                .tag("campo", campo.name().toLowerCase(Locale.ROOT))
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carga los filtros con los valores registrados.
+     * Se dimensionan para el doble de los usuarios actuales (al menos {@code unicidad.usuarios.capacidad});
+     * si se agregan muchos más, la tasa de falsos positivos aumenta hasta el siguiente reinicio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        long esperados = Math.max(capacidad, usuarioRepository.count() * 2);
+        Map<Campo, FiltroBloom> nuevos = new EnumMap<>(Campo.class);
+        for (Campo campo : Campo.values()) {
+            nuevos.put(campo, new FiltroBloom(esperados, falsosPositivos));
+        }
+        // Las escrituras concurrentes se agregan a los filtros nuevos mientras se recorren las columnas
+        filtros = nuevos;
+        try {
+            cargar(Campo.RUN, usuarioRepository::streamRuns);
+            cargar(Campo.TELEFONO, usuarioRepository::streamTelefonos);
+            cargar(Campo.CORREO, usuarioRepository::streamCorreos);
+            listo = true;
+            log.info("Filtros de unicidad de usuarios cargados para {} elementos en {} ms",
+                    esperados, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("No se pudieron cargar los filtros de unicidad; se consultará siempre la base de datos.", e);
+        }
+    }
+
+    private void cargar(Campo campo, Supplier<Stream<String>> valores) {
+        FiltroBloom filtro = filtros.get(campo);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> stream = valores.get()) {
+                stream.forEach(valor -> filtro.agregar(clave(valor)));
+            }
+        });
+    }
+
+    /**
+     * Indica si el valor puede estar registrado y, por lo tanto, debe confirmarse en la base de datos.
+     *
+     * @param campo Columna a verificar.
+     * @param valor Valor a verificar.
+     * @return {@code false} si el valor con seguridad no está registrado.
+     */
+    public boolean puedeExistir(Campo campo, String valor) {
+        if (valor == null) {
+            return false;
+        }
+        if (!listo || filtros.get(campo).puedeContener(clave(valor))) {
+            consultados.get(campo).increment();
+            return true;
+        }
+        descartados.get(campo).increment();
+        return false;
+    }
+
+    /**
+     * Confirma si el valor está registrado: consulta la base de datos sólo cuando el filtro no lo descarta.
+     *
+     * @param campo    Columna a verificar.
+     * @param valor    Valor a verificar.
+     * @param consulta Consulta {@code exists} de la columna.
+     * @return {@code true} si el valor ya está registrado.
+     */
+    public boolean existe(Campo campo, String valor, Predicate<String> consulta) {
+        return puedeExistir(campo, valor) && consulta.test(valor);
+    }
+
+    /**
+     * Agrega a los filtros los valores de un usuario recién guardado.
+     *
+     * @param usuario Usuario guardado.
+     */
+    public void registrar(Usuario usuario) {
+        Map<Campo, FiltroBloom> actuales = filtros;
+        if (actuales == null) {
+            return;
+        }
+        agregar(actuales.get(Campo.RUN), usuario.getRun());
+        agregar(actuales.get(Campo.TELEFONO), usuario.getTelefono());
+        agregar(actuales.get(Campo.CORREO), usuario.getCorreo());
+    }
+
+    private static void agregar(FiltroBloom filtro, String valor) {
+        if (valor != null) {
+            filtro.agregar(clave(valor));
+        }
+    }
+
+    // Forma de compatibilidad sin tildes, con mayúsculas y minúsculas unificadas (pasar por mayúsculas iguala,
+    // por ejemplo, "ß" con "ss") y sin espacios en los extremos
+    private static String clave(String valor) {
+        return MARCAS.matcher(Normalizer.normalize(valor.strip(), Normalizer.Form.NFKD)).replaceAll("")
+                .toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+}
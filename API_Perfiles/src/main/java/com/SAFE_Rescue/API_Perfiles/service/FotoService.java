@@ -0,0 +1,98 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.config.WebClienteConfig;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
+import com.SAFE_Rescue.API_Perfiles.repositoy.FotoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Servicio para la gestión de fotos de perfil.
+ * Cada foto se identifica por el hash SHA-256 de su contenido (columna {@code hash_contenido}): si el mismo
+ * archivo ya fue subido, se reutiliza su fila {@link Foto} en vez de llamar nuevamente a la API de fotos.
+ * Las subidas y reutilizaciones se cuentan en la métrica {@code foto.subidas} (etiqueta {@code resultado}).
+ */
+@Service
+public class FotoService {
+
+    private final WebClienteConfig webClienteConfig;
+    private final FotoRepository fotoRepository;
+    private final Counter subidas;
+    private final Counter reutilizadas;
+
+    public FotoService(WebClienteConfig webClienteConfig, FotoRepository fotoRepository, MeterRegistry meterRegistry) {
+        this.webClienteConfig = webClienteConfig;
+        this.fotoRepository = fotoRepository;
+        this.subidas = Counter.builder("foto.subidas").tag("resultado", "subida").register(meterRegistry);
+        this.reutilizadas = Counter.builder("foto.subidas").tag("resultado", "reutilizada").register(meterRegistry);
+    }
+
+    /**
+     * Obtiene la foto correspondiente a un archivo, subiéndolo a la API de fotos sólo si su contenido es nuevo.
+     *
+     * @param archivo Archivo de la foto.
+     * @return La foto registrada (nueva o existente).
+     * @throws IllegalArgumentException Si el archivo está vacío.
+     */
+    public Foto subir(MultipartFile archivo) {
+        if (archivo == null || archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo no puede estar vacío.");
+        }
+        return subir(archivo, archivo.getOriginalFilename(), archivo.getContentType());
+    }
+
+    /**
+     * Obtiene la foto correspondiente a un contenido, subiéndolo a la API de fotos sólo si es nuevo.
+     *
+     * @param archivo       Contenido de la foto (por ejemplo, un archivo guardado en disco).
+     * @param nombreArchivo Nombre del archivo.
+     * @param tipoContenido Tipo MIME del archivo.
+     * @return La foto registrada (nueva o existente).
+     */
+    public Foto subir(InputStreamSource archivo, String nombreArchivo, String tipoContenido) {
+        String hash = calcularHash(archivo);
+        Foto existente = fotoRepository.findByHashContenido(hash).orElse(null);
+        if (existente != null) {
+            reutilizadas.increment();
+            return existente;
+        }
+
+        String url = webClienteConfig.uploadFoto(archivo, nombreArchivo, tipoContenido);
+        subidas.increment();
+        try {
+            return fotoRepository.save(new Foto(0, url, hash));
+        } catch (DataIntegrityViolationException e) {
+            // Otra subida del mismo contenido se registró primero: se usa esa
+            return fotoRepository.findByHashContenido(hash).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Calcula el hash SHA-256 de un contenido, leyéndolo por partes sin cargarlo completo en memoria.
+     *
+     * @param archivo Contenido a resumir.
+     * @return El hash en hexadecimal (64 caracteres).
+     */
+    public String calcularHash(InputStreamSource archivo) {
+        try (DigestInputStream entrada = new DigestInputStream(archivo.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(entrada.getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo de la foto: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
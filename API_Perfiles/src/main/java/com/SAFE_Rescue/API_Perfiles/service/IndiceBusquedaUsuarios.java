@@ -0,0 +1,372 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para buscar usuarios (incluidos los bomberos) por nombre, apellido paterno o apellido materno.
+ * <p>
+ * Los nombres se normalizan sin tildes ni mayúsculas y se separan en palabras; cada palabra se indexa por sus
+ * trigramas, con una marca de inicio de palabra. Un término de búsqueda de tres o más letras coincide con
+ * cualquier palabra que lo contenga; uno de una o dos letras, sólo con las palabras que empiezan por él.
+ * Todos los términos deben coincidir, y los resultados se ordenan por calidad de la coincidencia
+ * (palabra exacta, prefijo, contenido) y luego por nombre más corto.
+ * <p>
+ * Se construye al iniciar la aplicación leyendo la tabla en {@code busqueda.usuarios.hilos-carga} tramos de ID en
+ * paralelo, y luego se mantiene al día desde {@link UsuarioService} y {@link BomberoService} en cada creación,
+ * actualización y eliminación. Mientras se construye, {@link #buscar(String, int)} no está disponible.
+ * <p>
+ * Si la construcción falla (por ejemplo, la base de datos aún no responde), se reintenta a partir de
+ * {@code busqueda.usuarios.reintento-inicial}, duplicando la espera en cada falla hasta
+ * {@code busqueda.usuarios.reintento-maximo}, hasta que el índice quede listo.
+ */
+@Service
+public class IndiceBusquedaUsuarios {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBusquedaUsuarios.class);
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    private static final int USUARIOS_POR_CONSULTA = 1000;
+
+    // Marca de inicio de palabra en los trigramas (no puede aparecer en un texto normalizado)
+    private static final char INICIO = '^';
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final int PUNTAJE_EXACTO = 3;
+    private static final int PUNTAJE_PREFIJO = 2;
+    private static final int PUNTAJE_CONTENIDO = 1;
+
+    private final UsuarioRepository usuarioRepository;
+    private final int hilosCarga;
+    private final TaskScheduler scheduler;
+    private final Duration reintentoInicial;
+    private final Duration reintentoMaximo;
+
+    private final Map<Integer, Documento> documentos = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> trigramas = new ConcurrentHashMap<>();
+    private volatile boolean listo;
+    // IDs modificados mientras se construye el índice: la carga no debe sobrescribirlos con una lectura anterior
+    private volatile Set<Integer> modificadosDuranteCarga;
+    // Espera antes del próximo reintento de la construcción; vuelve al valor inicial cuando el índice queda listo
+    private Duration proximoReintento;
+
+    @Autowired
+    public IndiceBusquedaUsuarios(UsuarioRepository usuarioRepository,
+                                  @Value("${busqueda.usuarios.hilos-carga:4}") int hilosCarga,
+                                  TaskScheduler scheduler,
+                                  @Value("${busqueda.usuarios.reintento-inicial:5s}") Duration reintentoInicial,
+                                  @Value("${busqueda.usuarios.reintento-maximo:5m}") Duration reintentoMaximo) {
+        this.usuarioRepository = usuarioRepository;
+        this.hilosCarga = Math.max(hilosCarga, 1);
+        this.scheduler = scheduler;
+        this.reintentoInicial = reintentoInicial;
+        this.reintentoMaximo = reintentoMaximo.compareTo(reintentoInicial) < 0 ? reintentoInicial : reintentoMaximo;
+        this.proximoReintento = reintentoInicial;
+    }
+
+    /**
+     * Construye el índice con todos los usuarios registrados.
+     * Se ejecuta cuando la aplicación ya inició (después de la carga de datos de prueba); si falla, programa
+     * un nuevo intento con espera creciente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        modificadosDuranteCarga = ConcurrentHashMap.newKeySet();
+        try {
+            int maximo = usuarioRepository.findMaxIdUsuario();
+            int porTramo = maximo / hilosCarga + 1;
+            try (ExecutorService cargadores = Executors.newFixedThreadPool(hilosCarga,
+                    Thread.ofPlatform().name("indice-usuarios-", 0).daemon().factory())) {
+                List<Future<?>> tramos = new ArrayList<>();
+                for (int desde = 0; desde < maximo; desde += porTramo) {
+                    int after = desde;
+                    int hasta = Math.min(desde + porTramo, maximo);
+                    tramos.add(cargadores.submit(() -> cargarTramo(after, hasta)));
+                }
+                for (Future<?> tramo : tramos) {
+                    tramo.get();
+                }
+            }
+            listo = true;
+            proximoReintento = reintentoInicial;
+            log.info("Índice de búsqueda de usuarios construido: {} usuarios en {} ms",
+                    documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Se interrumpió la construcción del índice de búsqueda de usuarios.");
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("No se pudo construir el índice de búsqueda de usuarios; se reintentará en {} s.",
+                    proximoReintento.toSeconds(), e);
+            programarReintento();
+        } finally {
+            modificadosDuranteCarga = null;
+        }
+    }
+
+    private void programarReintento() {
+        scheduler.schedule(this::reconstruir, Instant.now().plus(proximoReintento));
+        Duration siguiente = proximoReintento.multipliedBy(2);
+        proximoReintento = siguiente.compareTo(reintentoMaximo) > 0 ? reintentoMaximo : siguiente;
+    }
+
+    /**
+     * Indica si el índice ya se construyó y acepta búsquedas.
+     */
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * Busca usuarios cuyo nombre o apellidos contengan todos los términos de la consulta.
+     *
+     * @param consulta Texto a buscar (sin distinguir tildes ni mayúsculas).
+     * @param limite   Cantidad máxima de resultados.
+     * @return Los usuarios encontrados, del más al menos relevante.
+     * @throws IllegalArgumentException Si la consulta no tiene letras ni dígitos o el límite está fuera de rango.
+     * @throws IllegalStateException    Si el índice aún se está construyendo.
+     */
+    public List<UsuarioCoincidencia> buscar(String consulta, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+        String[] terminos = normalizar(consulta);
+        if (terminos.length == 0) {
+            throw new IllegalArgumentException("La búsqueda debe contener al menos una letra o dígito.");
+        }
+        if (!listo) {
+            throw new IllegalStateException("El índice de búsqueda se está construyendo. Intente nuevamente.");
+        }
+
+        // Listas de IDs de los trigramas de todos los términos, de la más corta a la más larga
+        List<Set<Integer>> listas = new ArrayList<>();
+        for (String termino : terminos) {
+            for (String trigrama : trigramasConsulta(termino)) {
+                Set<Integer> ids = trigramas.get(trigrama);
+                if (ids == null) {
+                    return List.of();
+                }
+                listas.add(ids);
+            }
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        PriorityQueue<Candidato> mejores = new PriorityQueue<>(limite + 1, Candidato.ORDEN.reversed());
+        candidatos:
+        for (Integer id : listas.getFirst()) {
+            for (int i = 1; i < listas.size(); i++) {
+                if (!listas.get(i).contains(id)) {
+                    continue candidatos;
+                }
+            }
+            Documento documento = documentos.get(id);
+            int puntaje = documento != null ? documento.puntaje(terminos) : 0;
+            if (puntaje > 0) {
+                mejores.add(new Candidato(documento, puntaje));
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+        }
+
+        List<Candidato> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(Candidato.ORDEN);
+        return ordenados.stream().map(candidato -> candidato.documento().usuario()).toList();
+    }
+
+    /**
+     * Agrega o reemplaza un usuario en el índice.
+     *
+     * @param usuario Usuario recién guardado.
+     */
+    public void indexar(Usuario usuario) {
+        indexar(UsuarioCoincidencia.desde(usuario), true);
+    }
+
+    /**
+     * Quita un usuario del índice.
+     *
+     * @param idUsuario ID del usuario eliminado.
+     */
+    public void eliminar(int idUsuario) {
+        marcarModificado(idUsuario);
+        documentos.computeIfPresent(idUsuario, (id, anterior) -> {
+            quitarTrigramas(id, anterior.trigramas());
+            return null;
+        });
+    }
+
+    private void cargarTramo(int after, int hasta) {
+        List<UsuarioCoincidencia> pagina;
+        do {
+            pagina = usuarioRepository.findNombres(after, hasta, Limit.of(USUARIOS_POR_CONSULTA));
+            for (UsuarioCoincidencia usuario : pagina) {
+                indexar(usuario, false);
+            }
+            if (!pagina.isEmpty()) {
+                after = pagina.getLast().idUsuario();
+            }
+        } while (pagina.size() == USUARIOS_POR_CONSULTA);
+    }
+
+    // Las actualizaciones de un mismo ID se serializan en compute, así que la carga inicial ve cualquier
+    // modificación concurrente (marcada antes de aplicarse) y no la sobrescribe
+    private void indexar(UsuarioCoincidencia usuario, boolean modificacion) {
+        if (modificacion) {
+            marcarModificado(usuario.idUsuario());
+        }
+        documentos.compute(usuario.idUsuario(), (id, anterior) -> {
+            Set<Integer> modificados = modificadosDuranteCarga;
+            if (!modificacion && modificados != null && modificados.contains(id)) {
+                return anterior;
+            }
+            Documento nuevo = Documento.de(usuario);
+            if (anterior != null) {
+                Set<String> sobrantes = new LinkedHashSet<>(anterior.trigramas());
+                sobrantes.removeAll(nuevo.trigramas());
+                quitarTrigramas(id, sobrantes);
+            }
+            for (String trigrama : nuevo.trigramas()) {
+                // El ID se agrega dentro de compute: fuera de él, quitarTrigramas (de otro usuario) podría vaciar
+                // y retirar el conjunto del mapa antes del add, y el ID quedaría en un conjunto huérfano
+                trigramas.compute(trigrama, (t, ids) -> {
+                    if (ids == null) {
+                        ids = ConcurrentHashMap.newKeySet();
+                    }
+                    ids.add(id);
+                    return ids;
+                });
+            }
+            return nuevo;
+        });
+    }
+
+    private void marcarModificado(int idUsuario) {
+        Set<Integer> modificados = modificadosDuranteCarga;
+        if (modificados != null) {
+            modificados.add(idUsuario);
+        }
+    }
+
+    private void quitarTrigramas(Integer id, Set<String> quitar) {
+        for (String trigrama : quitar) {
+            trigramas.computeIfPresent(trigrama, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // Texto sin tildes, en minúsculas y separado en palabras de letras y dígitos
+    static String[] normalizar(String texto) {
+        if (texto == null) {
+            return new String[0];
+        }
+        String normalizado = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARADORES.split(normalizado))
+                .filter(palabra -> !palabra.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    // Trigramas indexados de una palabra: los de la palabra con la marca de inicio, más la marca con la primera letra
+    private static void trigramasPalabra(String palabra, Set<String> destino) {
+        String marcada = INICIO + palabra;
+        destino.add(marcada.substring(0, 2));
+        for (int i = 0; i + 3 <= marcada.length(); i++) {
+            destino.add(marcada.substring(i, i + 3));
+        }
+    }
+
+    // Con menos de tres letras sólo se buscan prefijos; con tres o más, el término puede aparecer en cualquier posición
+    private static List<String> trigramasConsulta(String termino) {
+        if (termino.length() < 3) {
+            return List.of(INICIO + termino);
+        }
+        List<String> resultado = new ArrayList<>(termino.length() - 2);
+        for (int i = 0; i + 3 <= termino.length(); i++) {
+            resultado.add(termino.substring(i, i + 3));
+        }
+        return resultado;
+    }
+
+    private record Documento(UsuarioCoincidencia usuario, String[] palabras, Set<String> trigramas, int largo) {
+
+        static Documento de(UsuarioCoincidencia usuario) {
+            String[] palabras = normalizar(String.join(" ",
+                    String.valueOf(usuario.nombre()), String.valueOf(usuario.aPaterno()), String.valueOf(usuario.aMaterno())));
+            Set<String> trigramas = new LinkedHashSet<>();
+            int largo = 0;
+            for (String palabra : palabras) {
+                trigramasPalabra(palabra, trigramas);
+                largo += palabra.length();
+            }
+            return new Documento(usuario, palabras, trigramas, largo);
+        }
+
+        // Suma, por término, la mejor coincidencia con alguna palabra; 0 si algún término no coincide
+        int puntaje(String[] terminos) {
+            int total = 0;
+            for (String termino : terminos) {
+                int mejor = 0;
+                for (String palabra : palabras) {
+                    if (palabra.equals(termino)) {
+                        mejor = PUNTAJE_EXACTO;
+                        break;
+                    }
+                    if (palabra.startsWith(termino)) {
+                        mejor = Math.max(mejor, PUNTAJE_PREFIJO);
+                    } else if (termino.length() >= 3 && palabra.contains(termino)) {
+                        mejor = Math.max(mejor, PUNTAJE_CONTENIDO);
+                    }
+                }
+                if (mejor == 0) {
+                    return 0;
+                }
+                total += mejor;
+            }
+            return total;
+        }
+    }
+
+    private record Candidato(Documento documento, int puntaje) {
+
+        // Mayor puntaje primero; a igual puntaje, el nombre más corto (más parecido a la consulta) y luego el menor ID
+        static final Comparator<Candidato> ORDEN = Comparator.comparingInt(Candidato::puntaje).reversed()
+                .thenComparingInt(candidato -> candidato.documento().largo())
+                .thenComparingInt(candidato -> candidato.documento().usuario().idUsuario());
+    }
+}
@@ -0,0 +1,348 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normaliza las fotos antes de reenviarlas a la API de fotos: las reduce para que quepan en
+ * {@code foto.normalizacion.max-ancho} x {@code foto.normalizacion.max-alto}, aplica la orientación EXIF
+ * y las recodifica en {@code foto.normalizacion.formato} con la calidad configurada. La imagen recodificada
+ * no conserva metadatos (EXIF, ubicación GPS, miniaturas).
+ * El trabajo (CPU intensivo) se ejecuta en un pool propio con un hilo por núcleo, y el tiempo de cada
+ * imagen se publica en la métrica {@code foto.normalizacion} (etiqueta {@code resultado}).
+ * Las fotos que no se pueden decodificar (formatos que ImageIO no lee, como HEIC; JPEG en CMYK; archivos
+ * dañados) se rechazan: reenviarlas sin cambios entregaría sus metadatos a la API de fotos.
+ */
+@Service
+public class NormalizadorImagenes {
+
+    private static final Logger log = LoggerFactory.getLogger(NormalizadorImagenes.class);
+
+    private static final String FORMATO_METADATOS_JPEG = "javax_imageio_jpeg_image_1.0";
+    private static final int MARCADOR_APP1 = 0xE1;
+    private static final int ETIQUETA_ORIENTACION = 0x0112;
+
+    private final boolean habilitada;
+    private final int maxAncho;
+    private final int maxAlto;
+    private final String formato;
+    private final float calidad;
+    private final String tipoContenido;
+    private final String extension;
+    private final Executor procesadores;
+    private final Timer normalizadas;
+    private final Timer rechazadas;
+
+    @Autowired
+    public NormalizadorImagenes(@Value("${foto.normalizacion.habilitada:true}") boolean habilitada,
+                                @Value("${foto.normalizacion.max-ancho:1024}") int maxAncho,
+                                @Value("${foto.normalizacion.max-alto:1024}") int maxAlto,
+                                @Value("${foto.normalizacion.formato:jpeg}") String formato,
+                                @Value("${foto.normalizacion.calidad:0.82}") float calidad,
+                                @Value("${foto.normalizacion.hilos:0}") int hilos,
+                                MeterRegistry meterRegistry) {
+        this(habilitada, maxAncho, maxAlto, formato, calidad,
+                Executors.newFixedThreadPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors(),
+                        Thread.ofPlatform().name("imagen-", 0).daemon().factory()),
+                meterRegistry);
+    }
+
+    NormalizadorImagenes(boolean habilitada, int maxAncho, int maxAlto, String formato, float calidad,
+                         Executor procesadores, MeterRegistry meterRegistry) {
+        Iterator<ImageWriter> escritores = ImageIO.getImageWritersByFormatName(formato);
+        if (!escritores.hasNext()) {
+            // ImageIO no incluye WebP; se requiere un plugin que lo agregue
+            throw new IllegalStateException("No hay un codificador de imágenes disponible para el formato: " + formato);
+        }
+        ImageWriterSpi proveedor = escritores.next().getOriginatingProvider();
+        this.habilitada = habilitada;
+        this.maxAncho = maxAncho;
+        this.maxAlto = maxAlto;
+        this.formato = formato;
+        this.calidad = calidad;
+        this.tipoContenido = proveedor.getMIMETypes()[0];
+        this.extension = proveedor.getFileSuffixes()[0];
+        this.procesadores = procesadores;
+        this.normalizadas = temporizador(meterRegistry, "normalizada");
+        this.rechazadas = temporizador(meterRegistry, "rechazada");
+    }
+
+    private static Timer temporizador(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("foto.normalizacion")
+                .description("Tiempo de normalización de cada foto")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imagen lista para reenviar a la API de fotos.
+     *
+     * @param contenido     Contenido de la imagen.
+     * @param nombreArchivo Nombre de archivo (con la extensión del formato final).
+     * @param tipoContenido Tipo MIME del contenido.
+     */
+    public record Imagen(InputStreamSource contenido, String nombreArchivo, String tipoContenido) {
+    }
+
+    /**
+     * Normaliza una foto en el pool de procesamiento de imágenes, esperando el resultado.
+     * Si la normalización está deshabilitada, se entrega la foto original sin cambios.
+     *
+     * @param origen        Contenido de la foto recibida.
+     * @param nombreArchivo Nombre del archivo recibido.
+     * @param tipoContenido Tipo MIME declarado por el cliente.
+     * @return La imagen a reenviar.
+     * @throws IllegalArgumentException Si el formato no es legible o la imagen no se puede decodificar.
+     */
+    public Imagen normalizar(InputStreamSource origen, String nombreArchivo, String tipoContenido) {
+        Imagen original = new Imagen(origen, nombreArchivo, tipoContenido);
+        if (!habilitada) {
+            return original;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> normalizarMedido(original), procesadores).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (procesadores instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private Imagen normalizarMedido(Imagen original) {
+        long inicio = System.nanoTime();
+        Timer temporizador = rechazadas;
+        try {
+            byte[] recodificada = recodificar(original.contenido());
+            temporizador = normalizadas;
+            return new Imagen(new ByteArrayResource(recodificada), renombrar(original.nombreArchivo()), tipoContenido);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo decodificar la foto {}: {}", original.nombreArchivo(), e.getMessage());
+            throw new IllegalArgumentException("La foto está dañada o su formato no es admitido.", e);
+        } finally {
+            temporizador.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Lee, reduce, orienta y recodifica la imagen
+    private byte[] recodificar(InputStreamSource origen) throws IOException {
+        try (InputStream entrada = origen.getInputStream();
+             ImageInputStream imagenEntrada = ImageIO.createImageInputStream(entrada)) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(imagenEntrada);
+            if (!lectores.hasNext()) {
+                throw new IllegalArgumentException("El formato de la foto no es admitido.");
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(imagenEntrada, true, false);
+                int orientacion = orientacion(lector);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+
+                // Dimensiones finales, considerando que las orientaciones 5 a 8 intercambian ancho y alto
+                boolean rota = orientacion >= 5;
+                double escala = Math.min(1.0, Math.min(
+                        (double) maxAncho / (rota ? alto : ancho),
+                        (double) maxAlto / (rota ? ancho : alto)));
+                int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+                int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+
+                // Se decodifica submuestreada (como mínimo al doble del tamaño final) para acotar la memoria
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                int submuestreo = Math.max(1, Math.min(ancho / (2 * anchoFinal), alto / (2 * altoFinal)));
+                parametros.setSourceSubsampling(submuestreo, submuestreo, 0, 0);
+                BufferedImage imagen = lector.read(0, parametros);
+
+                BufferedImage resultado = orientar(escalar(imagen, anchoFinal, altoFinal), orientacion);
+                return codificar(resultado);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    // Reduce en pasos de a la mitad (bilineal) para evitar el aliasing de una sola reducción grande
+    static BufferedImage escalar(BufferedImage imagen, int ancho, int alto) {
+        BufferedImage actual = imagen;
+        int w = imagen.getWidth();
+        int h = imagen.getHeight();
+        do {
+            w = Math.max(ancho, w / 2);
+            h = Math.max(alto, h / 2);
+            // El primer paso también convierte a RGB sobre fondo blanco (los formatos de salida no usan transparencia)
+            BufferedImage paso = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = paso.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, w, h, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            actual = paso;
+        } while (w > ancho || h > alto);
+        return actual;
+    }
+
+    // Aplica la orientación EXIF (1 a 8) para que la imagen se vea derecha sin sus metadatos
+    static BufferedImage orientar(BufferedImage imagen, int orientacion) {
+        int w = imagen.getWidth();
+        int h = imagen.getHeight();
+        AffineTransform transformacion = switch (orientacion) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transformacion == null) {
+            return imagen;
+        }
+        boolean rota = orientacion >= 5;
+        BufferedImage orientada = new BufferedImage(rota ? h : w, rota ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = orientada.createGraphics();
+        try {
+            g.drawImage(imagen, transformacion, null);
+        } finally {
+            g.dispose();
+        }
+        return orientada;
+    }
+
+    private byte[] codificar(BufferedImage imagen) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName(formato).next();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ImageOutputStream imagenSalida = ImageIO.createImageOutputStream(salida)) {
+            escritor.setOutput(imagenSalida);
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            if (parametros.canWriteCompressed()) {
+                parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (parametros.getCompressionType() == null) {
+                    parametros.setCompressionType(parametros.getCompressionTypes()[0]);
+                }
+                parametros.setCompressionQuality(calidad);
+            }
+            // Sin metadatos: no se copia EXIF, GPS ni miniaturas de la imagen original
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return salida.toByteArray();
+    }
+
+    private String renombrar(String nombreArchivo) {
+        String base = StringUtils.hasText(nombreArchivo) ? StringUtils.stripFilenameExtension(nombreArchivo) : "foto";
+        return base + "." + extension;
+    }
+
+    // Orientación EXIF de una imagen JPEG (1 si no la declara o sus metadatos no son legibles)
+    private static int orientacion(ImageReader lector) {
+        try {
+            return orientacion(lector.getImageMetadata(0));
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    static int orientacion(IIOMetadata metadatos) {
+        if (metadatos == null || !Arrays.asList(metadatos.getMetadataFormatNames()).contains(FORMATO_METADATOS_JPEG)) {
+            return 1;
+        }
+        Node raiz = metadatos.getAsTree(FORMATO_METADATOS_JPEG);
+        for (Node seccion = raiz.getFirstChild(); seccion != null; seccion = seccion.getNextSibling()) {
+            if (!"markerSequence".equals(seccion.getNodeName())) {
+                continue;
+            }
+            for (Node marcador = seccion.getFirstChild(); marcador != null; marcador = marcador.getNextSibling()) {
+                if (marcador instanceof IIOMetadataNode nodo && "unknown".equals(nodo.getNodeName())
+                        && String.valueOf(MARCADOR_APP1).equals(nodo.getAttribute("MarkerTag"))
+                        && nodo.getUserObject() instanceof byte[] datos) {
+                    int orientacion = orientacionExif(datos);
+                    if (orientacion > 0) {
+                        return orientacion;
+                    }
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Busca la etiqueta de orientación en el IFD0 de un segmento APP1 "Exif"; retorna 0 si no está
+    static int orientacionExif(byte[] datos) {
+        int tiff = 6;
+        if (datos.length < tiff + 8 || datos[0] != 'E' || datos[1] != 'x' || datos[2] != 'i' || datos[3] != 'f') {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(datos)
+                .order(datos[tiff] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        long ifd = tiff + Integer.toUnsignedLong(buffer.getInt(tiff + 4));
+        if (ifd + 2 > datos.length) {
+            return 0;
+        }
+        int entradas = Short.toUnsignedInt(buffer.getShort((int) ifd));
+        for (int i = 0; i < entradas; i++) {
+            int entrada = (int) ifd + 2 + i * 12;
+            if (entrada + 12 > datos.length) {
+                break;
+            }
+            if (Short.toUnsignedInt(buffer.getShort(entrada)) == ETIQUETA_ORIENTACION) {
+                int orientacion = Short.toUnsignedInt(buffer.getShort(entrada + 8));
+                return orientacion >= 1 && orientacion <= 8 ? orientacion : 0;
+            }
+        }
+        return 0;
+    }
+}
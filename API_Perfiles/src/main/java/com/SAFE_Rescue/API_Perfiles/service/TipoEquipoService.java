@@ -2,6 +2,7 @@ package com.SAFE_Rescue.API_Perfiles.service;
 
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoEquipo;
 import com.SAFE_Rescue.API_Perfiles.repositoy.TipoEquipoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,7 @@ import java.util.NoSuchElementException;
  * Maneja operaciones CRUD y validación de datos.
  */
 @Service
+@Timed("perfiles.servicio")
 public class TipoEquipoService {
 
     // REPOSITORIOS INYECTADOS
@@ -2,6 +2,7 @@ package com.SAFE_Rescue.API_Perfiles.service;
 
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
 import com.SAFE_Rescue.API_Perfiles.repositoy.TipoUsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ import java.util.NoSuchElementException;
  * y validación de datos.
  */
 @Service
+@Timed("perfiles.servicio")
 public class TipoUsuarioService {
 
     // REPOSITORIOS INYECTADOS
@@ -0,0 +1,226 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.dto.TrabajoFoto;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Subida asíncrona de fotos de usuario.
+ * La foto recibida se guarda en disco ({@code foto.trabajos.directorio}) y se responde de inmediato con un
+ * trabajo; un pool acotado de trabajadores ({@code foto.trabajos.hilos}, con cola de {@code foto.trabajos.cola})
+ * la sube a la API de fotos (o reutiliza la foto existente con el mismo contenido, ver {@link FotoService}) y la
+ * asocia al usuario, reintentando los errores transitorios hasta {@code foto.trabajos.intentos} veces con espera
+ * exponencial. El estado de cada trabajo se conserva en memoria durante {@code foto.trabajos.retencion}.
+ */
+@Service
+public class TrabajoFotoService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrabajoFotoService.class);
+
+    private final FotoService fotoService;
+    private final UsuarioService usuarioService;
+    private final UsuarioRepository usuarioRepository;
+    private final Executor trabajadores;
+    private final Path directorio;
+    private final int maxIntentos;
+    private final Duration esperaReintento;
+    private final Clock reloj;
+    private final Cache<String, TrabajoFoto> trabajos;
+
+    @Autowired
+    public TrabajoFotoService(FotoService fotoService,
+                              UsuarioService usuarioService,
+                              UsuarioRepository usuarioRepository,
+                              @Value("${foto.trabajos.directorio:${java.io.tmpdir}/api-perfiles/fotos}") Path directorio,
+                              @Value("${foto.trabajos.hilos:4}") int hilos,
+                              @Value("${foto.trabajos.cola:100}") int cola,
+                              @Value("${foto.trabajos.intentos:3}") int maxIntentos,
+                              @Value("${foto.trabajos.espera-reintento:2s}") Duration esperaReintento,
+                              @Value("${foto.trabajos.retencion:1h}") Duration retencion,
+                              Environment environment) {
+        this(fotoService, usuarioService, usuarioRepository,
+                new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(cola),
+                        Threading.VIRTUAL.isActive(environment)
+                                ? Thread.ofVirtual().name("foto-", 0).factory()
+                                : Thread.ofPlatform().name("foto-", 0).daemon().factory()),
+                directorio, maxIntentos, esperaReintento, retencion, Clock.systemUTC());
+    }
+
+    TrabajoFotoService(FotoService fotoService,
+                       UsuarioService usuarioService,
+                       UsuarioRepository usuarioRepository,
+                       Executor trabajadores,
+                       Path directorio,
+                       int maxIntentos,
+                       Duration esperaReintento,
+                       Duration retencion,
+                       Clock reloj) {
+        this.fotoService = fotoService;
+        this.usuarioService = usuarioService;
+        this.usuarioRepository = usuarioRepository;
+        this.trabajadores = trabajadores;
+        this.directorio = directorio;
+        this.maxIntentos = maxIntentos;
+        this.esperaReintento = esperaReintento;
+        this.reloj = reloj;
+        this.trabajos = Caffeine.newBuilder()
+                .expireAfterWrite(retencion)
+                .maximumSize(100_000)
+                .build();
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de fotos pendientes: " + directorio, e);
+        }
+    }
+
+    /**
+     * Guarda la foto en disco y encola su subida.
+     *
+     * @param idUsuario ID del usuario al que se asociará la foto.
+     * @param archivo   Archivo de la foto.
+     * @return El trabajo creado, en estado PENDIENTE.
+     * @throws IllegalArgumentException Si el archivo está vacío.
+     * @throws NoSuchElementException   Si el usuario no existe.
+     * @throws IllegalStateException    Si la cola de trabajos está llena.
+     */
+    public TrabajoFoto encolar(Integer idUsuario, MultipartFile archivo) {
+        if (archivo == null || archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo no puede estar vacío.");
+        }
+        if (!usuarioRepository.existsById(idUsuario)) {
+            throw new NoSuchElementException("Usuario no encontrado con ID: " + idUsuario);
+        }
+
+        Path pendiente;
+        try {
+            pendiente = Files.createTempFile(directorio, "foto-", ".tmp");
+            archivo.transferTo(pendiente);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar la foto recibida.", e);
+        }
+
+        TrabajoFoto trabajo = TrabajoFoto.nuevo(UUID.randomUUID().toString(), idUsuario, reloj.instant());
+        trabajos.put(trabajo.id(), trabajo);
+        Subida subida = new Subida(trabajo.id(), idUsuario, pendiente, archivo.getOriginalFilename(), archivo.getContentType(), 1);
+        try {
+            trabajadores.execute(() -> procesar(subida));
+        } catch (RejectedExecutionException e) {
+            trabajos.invalidate(trabajo.id());
+            eliminar(pendiente);
+            throw new IllegalStateException("Hay demasiadas fotos en proceso. Intente nuevamente más tarde.");
+        }
+        return trabajo;
+    }
+
+    /**
+     * Obtiene el estado de un trabajo de foto.
+     *
+     * @param idUsuario ID del usuario dueño del trabajo.
+     * @param idTrabajo ID del trabajo.
+     * @return El estado actual del trabajo.
+     * @throws NoSuchElementException Si el trabajo no existe, expiró o pertenece a otro usuario.
+     */
+    public TrabajoFoto buscar(Integer idUsuario, String idTrabajo) {
+        TrabajoFoto trabajo = trabajos.getIfPresent(idTrabajo);
+        if (trabajo == null || !trabajo.idUsuario().equals(idUsuario)) {
+            throw new NoSuchElementException("Trabajo de foto no encontrado: " + idTrabajo);
+        }
+        return trabajo;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (trabajadores instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    // Un intento de subida; los errores transitorios se reintentan con espera exponencial
+    private void procesar(Subida subida) {
+        actualizar(subida.idTrabajo(), t -> t.procesando(reloj.instant()));
+        try {
+            Foto foto = fotoService.subir(new FileSystemResource(subida.archivo()),
+                    subida.nombreArchivo(), subida.tipoContenido());
+            usuarioService.asignarFoto(subida.idUsuario(), foto);
+            actualizar(subida.idTrabajo(), t -> t.completado(foto.getUrl(), reloj.instant()));
+            eliminar(subida.archivo());
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            // El usuario fue eliminado o el archivo es inválido: reintentar no cambia el resultado
+            terminarConError(subida, e.getMessage());
+        } catch (RuntimeException e) {
+            if (subida.intento() >= maxIntentos) {
+                terminarConError(subida, e.getMessage());
+                return;
+            }
+            actualizar(subida.idTrabajo(), t -> t.reintentando(e.getMessage(), reloj.instant()));
+            long espera = esperaReintento.toMillis() << (subida.intento() - 1);
+            CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS).execute(() -> reencolar(subida.siguiente()));
+        }
+    }
+
+    private void reencolar(Subida subida) {
+        try {
+            trabajadores.execute(() -> procesar(subida));
+        } catch (RejectedExecutionException e) {
+            terminarConError(subida, "Hay demasiadas fotos en proceso; no se pudo reintentar la subida.");
+        }
+    }
+
+    private void terminarConError(Subida subida, String error) {
+        log.warn("No se pudo subir la foto del usuario {} (trabajo {}): {}", subida.idUsuario(), subida.idTrabajo(), error);
+        actualizar(subida.idTrabajo(), t -> t.fallido(error, reloj.instant()));
+        eliminar(subida.archivo());
+    }
+
+    // Si el trabajo ya expiró del registro se sigue procesando, sólo que su estado deja de consultarse
+    private void actualizar(String idTrabajo, UnaryOperator<TrabajoFoto> cambio) {
+        trabajos.asMap().computeIfPresent(idTrabajo, (id, trabajo) -> cambio.apply(trabajo));
+    }
+
+    private void eliminar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar la foto pendiente {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    // Datos necesarios para (re)intentar la subida de una foto guardada en disco
+    private record Subida(String idTrabajo, Integer idUsuario, Path archivo, String nombreArchivo, String tipoContenido,
+                          int intento) {
+
+        Subida siguiente() {
+            return new Subida(idTrabajo, idUsuario, archivo, nombreArchivo, tipoContenido, intento + 1);
+        }
+    }
+}
@@ -1,36 +1,98 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
-import com.SAFE_Rescue.API_Perfiles.config.WebClienteConfig;
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
 import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
 import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Servicio para la gestión de usuarios.
  * Maneja operaciones CRUD y validaciones de negocio.
  */
 @Service
+@Timed("perfiles.servicio")
 public class UsuarioService {
 
+    /**
+     * Cantidad máxima de usuarios por solicitud de creación masiva.
+     */
+    public static final int LOTE_MAXIMO = 10000;
+
+    // Usuarios insertados por transacción en la creación masiva (el valor se cita en el javadoc de saveLote aquí y en BomberoService)
+    private static final int USUARIOS_POR_TRAMO = 500;
+
+    // Valores por consulta IN al buscar duplicados ya registrados
+    private static final int VALORES_POR_CONSULTA = 1000;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private WebClient estadoWebClient;
+    private CatalogoEspejoService catalogoEspejoService;
 
     @Autowired
     private TipoUsuarioService tipoUsuarioService;
 
     @Autowired
-    private WebClienteConfig webClienteConfig;
+    private FotoService fotoService;
+
+    @Autowired
+    private Scheduler jpaScheduler;
+
+    @Autowired
+    private ValidadorConcurrente validadorConcurrente;
+
+    @Autowired
+    private IndiceBusquedaUsuarios indiceBusquedaUsuarios;
+
+    @Autowired
+    private FiltroUnicidadUsuarios filtroUnicidadUsuarios;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Obtiene todos los usuarios registrados en el sistema.
@@ -41,6 +103,57 @@ public class UsuarioService {
         return usuarioRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de usuarios ordenada por ID, a partir de un cursor.
+     * Evita cargar la tabla completa: sólo se leen {@code limite + 1} filas.
+     *
+     * @param after  ID del último usuario de la página anterior (null para la primera página).
+     * @param limite Cantidad máxima de usuarios a devolver.
+     * @return Página de usuarios con el cursor de la siguiente página.
+     * @throws IllegalArgumentException Si el límite está fuera del rango permitido.
+     */
+    public PaginaCursor<Usuario> findPagina(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<Usuario> usuarios = usuarioRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(
+                PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(usuarios, limite, Usuario::getIdUsuario);
+    }
+
+    /**
+     * Obtiene una página de resúmenes de usuarios para listados.
+     * Se resuelve con una única consulta de columnas, sin cargar entidades ni sus relaciones.
+     *
+     * @param after  ID del último usuario de la página anterior (null para la primera página).
+     * @param limite Cantidad máxima de resúmenes a devolver.
+     * @return Página de resúmenes con el cursor de la siguiente página.
+     * @throws IllegalArgumentException Si el límite está fuera del rango permitido.
+     */
+    public PaginaCursor<UsuarioResumen> findResumenes(Integer after, int limite) {
+        PaginaCursor.validarLimite(limite);
+        List<UsuarioResumen> resumenes = usuarioRepository.findResumenes(PaginaCursor.cursorInicial(after), Limit.of(limite + 1));
+        return PaginaCursor.desde(resumenes, limite, UsuarioResumen::idUsuario);
+    }
+
+    /**
+     * Recorre todos los usuarios ordenados por ID sin materializar la lista completa.
+     * Cada usuario se entrega al consumidor y luego se desvincula del contexto de persistencia,
+     * por lo que la memoria usada se mantiene acotada sin importar el tamaño de la tabla.
+     *
+     * @param consumidor Acción a ejecutar sobre cada usuario (por ejemplo, escribirlo en la respuesta).
+     */
+    @Transactional(readOnly = true)
+    public void exportar(Consumer<Usuario> consumidor) {
+        try (Stream<Usuario> usuarios = usuarioRepository.streamAllByOrderByIdUsuarioAsc()) {
+            usuarios.forEach(usuario -> {
+                consumidor.accept(usuario);
+                entityManager.detach(usuario);
+                if (usuario.getFoto() != null) {
+                    entityManager.detach(usuario.getFoto());
+                }
+            });
+        }
+    }
+
     /**
      * Busca un usuario por su ID único.
      *
@@ -53,6 +166,19 @@ public class UsuarioService {
                 .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con ID: " + id));
     }
 
+    /**
+     * Busca usuarios (incluidos los bomberos) por nombre o apellidos, usando el índice en memoria.
+     *
+     * @param consulta Texto a buscar; se ignoran tildes y mayúsculas.
+     * @param limite   Cantidad máxima de resultados.
+     * @return Los usuarios encontrados, del más al menos relevante.
+     * @throws IllegalArgumentException Si la consulta está vacía o el límite está fuera de rango.
+     * @throws IllegalStateException    Si el índice aún se está construyendo.
+     */
+    public List<UsuarioCoincidencia> buscar(String consulta, int limite) {
+        return indiceBusquedaUsuarios.buscar(consulta, limite);
+    }
+
     /**
      * Guarda un nuevo usuario en la base de datos.
      *
@@ -68,11 +194,25 @@ public class UsuarioService {
         validarAtributosUsuario(usuario);
         validarExistencia(usuario);
 
-        try {
-            return usuarioRepository.save(usuario);
-        } catch (DataIntegrityViolationException e) {
-            throw new IllegalArgumentException("Error de integridad de datos. El RUN o correo electrónico ya existen.");
+        return guardar(usuario);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #save(Usuario)}.
+     * Las validaciones de relaciones se ejecutan en paralelo y la escritura JPA se delega al scheduler JPA,
+     * por lo que ningún hilo de petición queda bloqueado esperando a la API externa o a la base de datos.
+     *
+     * @param usuario El objeto Usuario a guardar.
+     * @return Mono con el usuario guardado, o con IllegalArgumentException si no es válido.
+     */
+    public Mono<Usuario> saveReactivo(Usuario usuario) {
+        if (usuario == null) {
+            return Mono.error(new IllegalArgumentException("El usuario no puede ser nulo."));
         }
+
+        return Mono.fromRunnable(() -> validarAtributosUsuario(usuario))
+                .then(validarExistenciaReactivo(usuario))
+                .then(Mono.fromCallable(() -> guardar(usuario)).subscribeOn(jpaScheduler));
     }
 
     /**
@@ -85,35 +225,338 @@ public class UsuarioService {
      * @throws NoSuchElementException   Si el usuario a actualizar no es encontrado.
      */
     public Usuario update(Usuario usuario, Integer id) {
+        return update(usuario, id, null);
+    }
+
+    /**
+     * Actualiza los datos de un usuario existente, verificando que no haya cambiado desde la versión indicada.
+     * La versión y los datos se comparan antes de cualquier validación: una escritura obsoleta se rechaza, y una
+     * que no cambia nada se omite, sin consultar la base de datos ni la API externa.
+     *
+     * @param usuario         El objeto Usuario con los datos actualizados.
+     * @param id              El ID del usuario a actualizar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return El usuario actualizado (o el existente, sin cambios, si los datos son los mismos).
+     * @throws IllegalArgumentException          Si los datos del usuario son inválidos o si las entidades relacionadas no existen.
+     * @throws NoSuchElementException            Si el usuario a actualizar no es encontrado.
+     * @throws OptimisticLockingFailureException Si el usuario fue modificado desde la versión indicada.
+     */
+    public Usuario update(Usuario usuario, Integer id, Long versionEsperada) {
         if (usuario == null) {
             throw new IllegalArgumentException("El usuario a actualizar no puede ser nulo.");
         }
 
+        Usuario usuarioExistente = findById(id);
+        EtiquetaVersion.verificar(usuarioExistente.getVersion(), versionEsperada, "usuario");
+        if (sinCambios(usuario, usuarioExistente)) {
+            return usuarioExistente;
+        }
+
         // Se valida el objeto usuario, incluyendo la existencia de sus relaciones
         validarAtributosUsuario(usuario);
         validarExistencia(usuario);
 
-        Usuario usuarioExistente = usuarioRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con ID: " + id));
+        return aplicarCambios(usuarioExistente, usuario);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #update(Usuario, Integer)}.
+     *
+     * @param usuario El objeto Usuario con los datos actualizados.
+     * @param id      El ID del usuario a actualizar.
+     * @return Mono con el usuario actualizado, o con IllegalArgumentException / NoSuchElementException.
+     */
+    public Mono<Usuario> updateReactivo(Usuario usuario, Integer id) {
+        return updateReactivo(usuario, id, null);
+    }
+
+    /**
+     * Versión no bloqueante de {@link #update(Usuario, Integer, Long)}, con la misma verificación de versión y
+     * la misma omisión de las escrituras que no cambian nada.
+     *
+     * @param usuario         El objeto Usuario con los datos actualizados.
+     * @param id              El ID del usuario a actualizar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return Mono con el usuario actualizado, o con IllegalArgumentException / NoSuchElementException /
+     *         OptimisticLockingFailureException.
+     */
+    public Mono<Usuario> updateReactivo(Usuario usuario, Integer id, Long versionEsperada) {
+        if (usuario == null) {
+            return Mono.error(new IllegalArgumentException("El usuario a actualizar no puede ser nulo."));
+        }
+
+        return Mono.fromCallable(() -> findById(id))
+                .subscribeOn(jpaScheduler)
+                .flatMap(usuarioExistente -> {
+                    EtiquetaVersion.verificar(usuarioExistente.getVersion(), versionEsperada, "usuario");
+                    if (sinCambios(usuario, usuarioExistente)) {
+                        return Mono.just(usuarioExistente);
+                    }
+                    // Se escribe sobre la entidad leída: si otra solicitud la modifica mientras se valida,
+                    // el UPDATE falla por versión en vez de sobrescribir el cambio
+                    return Mono.fromRunnable(() -> validarAtributosUsuario(usuario))
+                            .then(validarExistenciaReactivo(usuario))
+                            .then(Mono.fromCallable(() -> aplicarCambios(usuarioExistente, usuario)).subscribeOn(jpaScheduler));
+                });
+    }
+
+    /**
+     * Actualiza parcialmente un usuario existente con los campos presentes en el JSON recibido.
+     * Sólo se validan contra la base de datos o la API externa las relaciones y los valores únicos que cambian,
+     * y sólo se escriben las columnas modificadas.
+     *
+     * @param id      El ID del usuario a actualizar.
+     * @param cambios Objeto JSON con los campos a modificar.
+     * @return El usuario actualizado.
+     * @throws IllegalArgumentException Si los cambios no son válidos o si las entidades relacionadas no existen.
+     * @throws NoSuchElementException   Si el usuario a actualizar no es encontrado.
+     */
+    public Usuario patch(Integer id, JsonNode cambios) {
+        return patch(id, cambios, null);
+    }
+
+    /**
+     * Versión de {@link #patch(Integer, JsonNode)} que verifica que el usuario no haya cambiado desde la versión
+     * indicada. Si los cambios dejan los datos iguales, no se valida ni se escribe nada.
+     *
+     * @param id              El ID del usuario a actualizar.
+     * @param cambios         Objeto JSON con los campos a modificar.
+     * @param versionEsperada Versión conocida por el cliente (If-Match), o {@code null} para no verificarla.
+     * @return El usuario actualizado (o el existente, si no hubo cambios).
+     * @throws IllegalArgumentException          Si los cambios no son válidos o si las entidades relacionadas no existen.
+     * @throws NoSuchElementException            Si el usuario a actualizar no es encontrado.
+     * @throws OptimisticLockingFailureException Si el usuario fue modificado desde la versión indicada.
+     */
+    public Usuario patch(Integer id, JsonNode cambios, Long versionEsperada) {
+        Usuario usuarioExistente = findById(id);
+        EtiquetaVersion.verificar(usuarioExistente.getVersion(), versionEsperada, "usuario");
+
+        // Los cambios se aplican sobre una copia: la entidad sólo se modifica si todas las validaciones pasan
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(usuarioExistente.getIdUsuario());
+        copiarDatos(usuarioExistente, usuario);
+        ParcheJson.aplicar(objectMapper, usuario, cambios);
+        if (usuario.getIdUsuario() != usuarioExistente.getIdUsuario()) {
+            throw new IllegalArgumentException("El ID del usuario no se puede modificar.");
+        }
+        if (sinCambios(usuario, usuarioExistente)) {
+            return usuarioExistente;
+        }
+
+        validarAtributosUsuario(usuario);
+        validarRelacionesModificadas(usuario, usuarioExistente);
+
+        return aplicarCambios(usuarioExistente, usuario);
+    }
+
+    /**
+     * Crea usuarios en bloque y entrega un resultado por cada elemento, en el mismo orden recibido.
+     * Los tipos de usuario y estados se consultan una sola vez por ID distinto, los RUN, teléfonos y correos
+     * duplicados (dentro de la solicitud o ya registrados) se detectan antes de insertar, y los válidos se
+     * insertan en lotes JDBC con una transacción por tramo de 500 usuarios.
+     *
+     * @param usuarios Usuarios a crear.
+     * @return Resultado de cada usuario (creado con su ID, o rechazado con el motivo).
+     * @throws IllegalArgumentException Si la lista es nula, vacía o supera {@link #LOTE_MAXIMO} elementos.
+     */
+    public List<ResultadoLote> saveLote(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            throw new IllegalArgumentException("La lista de usuarios no puede estar vacía.");
+        }
+        if (usuarios.size() > LOTE_MAXIMO) {
+            throw new IllegalArgumentException("Se pueden crear como máximo " + LOTE_MAXIMO + " usuarios por solicitud.");
+        }
+
+        ResultadoLote[] resultados = new ResultadoLote[usuarios.size()];
+        Map<Integer, Optional<String>> erroresTipoUsuario = new HashMap<>();
+        Map<Integer, Optional<String>> erroresEstado = new HashMap<>();
+
+        // Validaciones por elemento, con una sola consulta por cada tipo de usuario y estado distintos
+        for (int i = 0; i < usuarios.size(); i++) {
+            String error = validarElementoLote(usuarios.get(i), erroresTipoUsuario, erroresEstado);
+            if (error != null) {
+                resultados[i] = ResultadoLote.rechazado(i, error);
+            }
+        }
+
+        return completarLote(usuarios, resultados);
+    }
+
+    /**
+     * Completa una creación masiva de usuarios o de sus subclases (por ejemplo, bomberos).
+     * Sobre los elementos que aún no tienen resultado, rechaza los RUN, teléfonos y correos repetidos en la
+     * solicitud o ya registrados, e inserta el resto en tramos: cada tramo es una transacción y sus filas se
+     * envían como un único lote JDBC por tabla (usuario, y la tabla de la subclase si corresponde).
+     * Los IDs los reserva de antemano la secuencia usuario_seq, sin esperar al INSERT.
+     *
+     * @param usuarios   Elementos recibidos.
+     * @param resultados Resultados ya decididos por validaciones previas ({@code null} = pendiente); se completan aquí.
+     * @return Resultado de cada elemento, en el orden recibido.
+     */
+    public <T extends Usuario> List<ResultadoLote> completarLote(List<T> usuarios, ResultadoLote[] resultados) {
+        Set<String> runs = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        Set<String> correos = new HashSet<>();
+
+        for (int i = 0; i < usuarios.size(); i++) {
+            if (resultados[i] != null) {
+                continue;
+            }
+            T usuario = usuarios.get(i);
+            if (runs.contains(usuario.getRun()) || telefonos.contains(usuario.getTelefono())
+                    || correos.contains(usuario.getCorreo())) {
+                resultados[i] = ResultadoLote.rechazado(i, "El RUN, teléfono o correo está repetido en la solicitud.");
+                continue;
+            }
+            runs.add(usuario.getRun());
+            telefonos.add(usuario.getTelefono());
+            correos.add(usuario.getCorreo());
+        }
+
+        // Duplicados ya registrados, consultados en bloque sólo para los valores que el filtro de unicidad no descarta
+        Set<String> runsRegistrados = buscarRegistrados(FiltroUnicidadUsuarios.Campo.RUN, runs, usuarioRepository::findRunsRegistrados);
+        Set<String> telefonosRegistrados = buscarRegistrados(FiltroUnicidadUsuarios.Campo.TELEFONO, telefonos, usuarioRepository::findTelefonosRegistrados);
+        Set<String> correosRegistrados = buscarRegistrados(FiltroUnicidadUsuarios.Campo.CORREO, correos, usuarioRepository::findCorreosRegistrados);
+
+        List<Integer> pendientes = new ArrayList<>();
+        for (int i = 0; i < usuarios.size(); i++) {
+            if (resultados[i] != null) {
+                continue;
+            }
+            T usuario = usuarios.get(i);
+            if (runsRegistrados.contains(usuario.getRun())) {
+                resultados[i] = ResultadoLote.rechazado(i, "El RUN ya está registrado.");
+            } else if (telefonosRegistrados.contains(usuario.getTelefono())) {
+                resultados[i] = ResultadoLote.rechazado(i, "El teléfono ya está registrado.");
+            } else if (correosRegistrados.contains(usuario.getCorreo())) {
+                resultados[i] = ResultadoLote.rechazado(i, "El correo ya está registrado.");
+            } else {
+                pendientes.add(i);
+            }
+        }
+
+        for (int desde = 0; desde < pendientes.size(); desde += USUARIOS_POR_TRAMO) {
+            List<Integer> tramo = pendientes.subList(desde, Math.min(desde + USUARIOS_POR_TRAMO, pendientes.size()));
+            insertarTramo(usuarios, tramo, resultados);
+        }
+
+        return List.of(resultados);
+    }
+
+    // Inserta un tramo en una sola transacción; si otra escritura concurrente provoca un conflicto,
+    // se reintenta uno a uno para identificar a los usuarios afectados
+    private <T extends Usuario> void insertarTramo(List<T> usuarios, List<Integer> tramo, ResultadoLote[] resultados) {
+        List<T> nuevos = tramo.stream().map(usuarios::get).toList();
+        try {
+            transactionTemplate.execute(status -> {
+                // Un solo lote JDBC por tabla para todo el tramo
+                Session session = entityManager.unwrap(Session.class);
+                Integer tamanoLoteAnterior = session.getJdbcBatchSize();
+                session.setJdbcBatchSize(nuevos.size());
+                try {
+                    // Se envían los INSERT a través del repositorio, que traduce un conflicto de unicidad a
+                    // DataIntegrityViolationException (un flush directo del EntityManager no lo traduce)
+                    usuarioRepository.saveAllAndFlush(nuevos);
+                    // Se libera el contexto de persistencia del tramo
+                    entityManager.clear();
+                } finally {
+                    session.setJdbcBatchSize(tamanoLoteAnterior);
+                }
+                return null;
+            });
+            for (int indice : tramo) {
+                filtroUnicidadUsuarios.registrar(usuarios.get(indice));
+                indiceBusquedaUsuarios.indexar(usuarios.get(indice));
+                resultados[indice] = ResultadoLote.creado(indice, usuarios.get(indice).getIdUsuario());
+            }
+        } catch (DataIntegrityViolationException e) {
+            for (int indice : tramo) {
+                T usuario = usuarios.get(indice);
+                // El ID asignado en el intento fallido se descarta
+                usuario.setIdUsuario(0);
+                try {
+                    Usuario guardado = transactionTemplate.execute(status -> usuarioRepository.saveAndFlush(usuario));
+                    filtroUnicidadUsuarios.registrar(guardado);
+                    indiceBusquedaUsuarios.indexar(guardado);
+                    resultados[indice] = ResultadoLote.creado(indice, guardado.getIdUsuario());
+                } catch (DataIntegrityViolationException ex) {
+                    resultados[indice] = ResultadoLote.rechazado(indice, "Error de integridad de datos. El RUN, teléfono o correo ya existen.");
+                }
+            }
+        }
+    }
+
+    // Valida un elemento del lote; retorna el motivo del rechazo o null si es válido
+    private String validarElementoLote(Usuario usuario, Map<Integer, Optional<String>> erroresTipoUsuario,
+                                       Map<Integer, Optional<String>> erroresEstado) {
+        if (usuario == null) {
+            return "El usuario no puede ser nulo.";
+        }
+        try {
+            validarAtributosUsuario(usuario);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        if (usuario.getTipoUsuario() == null) {
+            return "El tipo de usuario es un campo obligatorio.";
+        }
+        if (usuario.getEstado() == null) {
+            return "El estado es un campo obligatorio.";
+        }
+        Optional<String> error = erroresTipoUsuario.computeIfAbsent(usuario.getTipoUsuario().getIdTipoUsuario(),
+                id -> errorDe(() -> validarTipoUsuario(usuario)));
+        if (error.isEmpty()) {
+            error = erroresEstado.computeIfAbsent(usuario.getEstado().getIdEstado(),
+                    id -> errorDe(() -> validarEstado(usuario)));
+        }
+        return error.orElse(null);
+    }
+
+    private static Optional<String> errorDe(Runnable validacion) {
+        try {
+            validacion.run();
+            return Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.of(e.getMessage());
+        }
+    }
+
+    // Consulta en tramos cuáles de los valores ya están registrados, omitiendo los que el filtro descarta
+    private Set<String> buscarRegistrados(FiltroUnicidadUsuarios.Campo campo, Collection<String> valores,
+                                          Function<List<String>, List<String>> consulta) {
+        List<String> lista = valores.stream().filter(valor -> filtroUnicidadUsuarios.puedeExistir(campo, valor)).toList();
+        Set<String> registrados = new HashSet<>();
+        for (int desde = 0; desde < lista.size(); desde += VALORES_POR_CONSULTA) {
+            registrados.addAll(consulta.apply(lista.subList(desde, Math.min(desde + VALORES_POR_CONSULTA, lista.size()))));
+        }
+        return registrados;
+    }
+
+    private Usuario guardar(Usuario usuario) {
+        validarUnicidad(usuario, null);
+        try {
+            Usuario guardado = usuarioRepository.save(usuario);
+            filtroUnicidadUsuarios.registrar(guardado);
+            indiceBusquedaUsuarios.indexar(guardado);
+            return guardado;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Error de integridad de datos. El RUN o correo electrónico ya existen.");
+        }
+    }
+
+    // Copia los datos validados sobre el usuario existente y lo guarda; con @DynamicUpdate el UPDATE sólo
+    // incluye las columnas cuyo valor cambió
+    private Usuario aplicarCambios(Usuario usuarioExistente, Usuario usuario) {
+        validarUnicidad(usuario, usuarioExistente);
 
         // Actualizar los campos del usuario existente con los nuevos valores
-        usuarioExistente.setRun(usuario.getRun());
-        usuarioExistente.setDv(usuario.getDv());
-        usuarioExistente.setNombre(usuario.getNombre());
-        usuarioExistente.setAPaterno(usuario.getAPaterno());
-        usuarioExistente.setAMaterno(usuario.getAMaterno());
-        usuarioExistente.setFechaRegistro(usuario.getFechaRegistro());
-        usuarioExistente.setTelefono(usuario.getTelefono());
-        usuarioExistente.setCorreo(usuario.getCorreo());
-        usuarioExistente.setContrasenia(usuario.getContrasenia());
-        usuarioExistente.setIntentosFallidos(usuario.getIntentosFallidos());
-        usuarioExistente.setRazonBaneo(usuario.getRazonBaneo());
-        usuarioExistente.setDiasBaneo(usuario.getDiasBaneo());
-        usuarioExistente.setTipoUsuario(usuario.getTipoUsuario());
-        usuarioExistente.setEstado(usuario.getEstado());
+        copiarDatos(usuario, usuarioExistente);
 
         try {
-            return usuarioRepository.save(usuarioExistente);
+            Usuario actualizado = usuarioRepository.save(usuarioExistente);
+            filtroUnicidadUsuarios.registrar(actualizado);
+            indiceBusquedaUsuarios.indexar(actualizado);
+            return actualizado;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Error de integridad de datos. El RUN, teléfono o correo ya existen.");
         }
@@ -130,10 +573,67 @@ public class UsuarioService {
             throw new NoSuchElementException("Usuario no encontrado con ID: " + id);
         }
         usuarioRepository.deleteById(id);
+        indiceBusquedaUsuarios.eliminar(id);
     }
 
     // Métodos de validación y utilidades
 
+    /**
+     * Copia los datos modificables de un usuario (todos salvo el ID y la foto) sobre otro.
+     *
+     * @param origen  Usuario del que se leen los datos.
+     * @param destino Usuario que se modifica.
+     */
+    static void copiarDatos(Usuario origen, Usuario destino) {
+        destino.setRun(origen.getRun());
+        destino.setDv(origen.getDv());
+        destino.setNombre(origen.getNombre());
+        destino.setAPaterno(origen.getAPaterno());
+        destino.setAMaterno(origen.getAMaterno());
+        destino.setFechaRegistro(origen.getFechaRegistro());
+        destino.setTelefono(origen.getTelefono());
+        destino.setCorreo(origen.getCorreo());
+        destino.setContrasenia(origen.getContrasenia());
+        destino.setIntentosFallidos(origen.getIntentosFallidos());
+        destino.setRazonBaneo(origen.getRazonBaneo());
+        destino.setDiasBaneo(origen.getDiasBaneo());
+        destino.setTipoUsuario(origen.getTipoUsuario());
+        destino.setEstado(origen.getEstado());
+    }
+
+    /**
+     * Rechaza el RUN, teléfono o correo si ya pertenecen a otro usuario, antes de intentar el INSERT o UPDATE.
+     * Sólo se consulta la base de datos por los valores que el filtro de unicidad no descarta; al actualizar,
+     * además se omiten los valores que no cambian.
+     *
+     * @param usuario  Usuario con los valores a guardar.
+     * @param anterior Usuario existente que se actualiza, o {@code null} si es un usuario nuevo.
+     * @throws IllegalArgumentException Si algún valor ya está registrado.
+     */
+    public void validarUnicidad(Usuario usuario, Usuario anterior) {
+        if (enUso(FiltroUnicidadUsuarios.Campo.RUN, usuario.getRun(), anterior != null ? anterior.getRun() : null,
+                usuarioRepository::existsByRun, usuarioRepository::existsByRunAndIdUsuarioNot, anterior)) {
+            throw new IllegalArgumentException("El RUN ya está registrado.");
+        }
+        if (enUso(FiltroUnicidadUsuarios.Campo.TELEFONO, usuario.getTelefono(), anterior != null ? anterior.getTelefono() : null,
+                usuarioRepository::existsByTelefono, usuarioRepository::existsByTelefonoAndIdUsuarioNot, anterior)) {
+            throw new IllegalArgumentException("El teléfono ya está registrado.");
+        }
+        if (enUso(FiltroUnicidadUsuarios.Campo.CORREO, usuario.getCorreo(), anterior != null ? anterior.getCorreo() : null,
+                usuarioRepository::existsByCorreo, usuarioRepository::existsByCorreoAndIdUsuarioNot, anterior)) {
+            throw new IllegalArgumentException("El correo ya está registrado.");
+        }
+    }
+
+    private boolean enUso(FiltroUnicidadUsuarios.Campo campo, String valor, String valorAnterior,
+                          Predicate<String> existe, BiPredicate<String, Integer> existeEnOtro, Usuario anterior) {
+        if (anterior == null) {
+            return filtroUnicidadUsuarios.existe(campo, valor, existe);
+        }
+        return !Objects.equals(valor, valorAnterior)
+                && filtroUnicidadUsuarios.existe(campo, valor, v -> existeEnOtro.test(v, anterior.getIdUsuario()));
+    }
+
     /**
      * Valida los atributos obligatorios del usuario.
      *
@@ -156,63 +656,163 @@ public class UsuarioService {
 
     /**
      * Valida que las entidades relacionadas (Estado y TipoUsuario) existan.
-     * Se comunica con la API externa para validar la existencia del estado.
+     * La existencia del estado se consulta al espejo local de catálogos (o a la API externa si está vencido).
+     * Ambas validaciones son independientes y se ejecutan en paralelo, con el plazo de {@link ValidadorConcurrente}.
      *
      * @param usuario El objeto Usuario a validar.
-     * @throws IllegalArgumentException Si alguna de las entidades relacionadas no existe.
+     * @throws IllegalArgumentException Si alguna de las entidades relacionadas no existe o se excede el plazo.
      */
     private void validarExistencia(Usuario usuario) {
-        // Valida la existencia del Tipo de Usuario (local)
-        if (usuario.getTipoUsuario() != null) {
-            try {
-                tipoUsuarioService.findById(usuario.getTipoUsuario().getIdTipoUsuario());
-            } catch (NoSuchElementException e) {
-                throw new IllegalArgumentException("El tipo de usuario asociado no existe.");
-            }
-        } else {
-            throw new IllegalArgumentException("El tipo de usuario es un campo obligatorio.");
+        validadorConcurrente.validar(
+                () -> validarTipoUsuario(usuario),
+                () -> validarEstado(usuario));
+    }
+
+    /**
+     * Indica si los datos modificables de un usuario son iguales a los del usuario existente.
+     * Las relaciones se comparan por ID.
+     *
+     * @param usuario  El usuario con los datos nuevos.
+     * @param anterior El usuario existente.
+     * @return {@code true} si guardar el usuario no cambiaría nada.
+     */
+    static boolean sinCambios(Usuario usuario, Usuario anterior) {
+        return Objects.equals(usuario.getRun(), anterior.getRun())
+                && Objects.equals(usuario.getDv(), anterior.getDv())
+                && Objects.equals(usuario.getNombre(), anterior.getNombre())
+                && Objects.equals(usuario.getAPaterno(), anterior.getAPaterno())
+                && Objects.equals(usuario.getAMaterno(), anterior.getAMaterno())
+                && Objects.equals(usuario.getFechaRegistro(), anterior.getFechaRegistro())
+                && Objects.equals(usuario.getTelefono(), anterior.getTelefono())
+                && Objects.equals(usuario.getCorreo(), anterior.getCorreo())
+                && Objects.equals(usuario.getContrasenia(), anterior.getContrasenia())
+                && usuario.getIntentosFallidos() == anterior.getIntentosFallidos()
+                && Objects.equals(usuario.getRazonBaneo(), anterior.getRazonBaneo())
+                && Objects.equals(usuario.getDiasBaneo(), anterior.getDiasBaneo())
+                && Objects.equals(idTipoUsuario(usuario), idTipoUsuario(anterior))
+                && Objects.equals(idEstado(usuario), idEstado(anterior));
+    }
+
+    /**
+     * Valida, en paralelo, sólo las relaciones (TipoUsuario y Estado) que cambian respecto del usuario existente.
+     * Si ninguna cambia no se consulta la base de datos ni la API externa.
+     *
+     * @param usuario  El usuario con los datos nuevos.
+     * @param anterior El usuario existente.
+     * @throws IllegalArgumentException Si alguna de las relaciones modificadas no existe o se excede el plazo.
+     */
+    private void validarRelacionesModificadas(Usuario usuario, Usuario anterior) {
+        List<Runnable> validaciones = new ArrayList<>();
+        if (!Objects.equals(idTipoUsuario(usuario), idTipoUsuario(anterior))) {
+            validaciones.add(() -> validarTipoUsuario(usuario));
+        }
+        if (!Objects.equals(idEstado(usuario), idEstado(anterior))) {
+            validaciones.add(() -> validarEstado(usuario));
         }
+        if (!validaciones.isEmpty()) {
+            validadorConcurrente.validar(validaciones.toArray(Runnable[]::new));
+        }
+    }
+
+    private static Integer idTipoUsuario(Usuario usuario) {
+        return usuario.getTipoUsuario() != null ? usuario.getTipoUsuario().getIdTipoUsuario() : null;
+    }
+
+    private static Integer idEstado(Usuario usuario) {
+        return usuario.getEstado() != null ? usuario.getEstado().getIdEstado() : null;
+    }
+
+    /**
+     * Versión no bloqueante de {@link #validarExistencia(Usuario)}.
+     * El tipo de usuario (JPA) y el estado (espejo o API externa) se validan en paralelo.
+     *
+     * @param usuario El objeto Usuario a validar.
+     * @return Mono vacío, o con IllegalArgumentException si alguna relación no existe.
+     */
+    private Mono<Void> validarExistenciaReactivo(Usuario usuario) {
+        Mono<Void> tipoUsuario = Mono.<Void>fromRunnable(() -> validarTipoUsuario(usuario))
+                .subscribeOn(jpaScheduler);
+
+        Mono<Void> estado = Mono.defer(() -> {
+            if (usuario.getEstado() == null) {
+                return Mono.error(new IllegalArgumentException("El estado es un campo obligatorio."));
+            }
+            return catalogoEspejoService.existeEstadoReactivo(usuario.getEstado().getIdEstado())
+                    // Falla de comunicación (no de la solicitud): conserva la causa para responder 503 si es transitoria
+                    .onErrorMap(e -> new IllegalStateException("Error al comunicarse con la API de estados.", e))
+                    .flatMap(existe -> existe ? Mono.<Void>empty()
+                            : Mono.error(new IllegalArgumentException("El estado asociado al usuario no existe en la API externa.")));
+        });
 
+        return validadorConcurrente.validarReactivo(tipoUsuario, estado);
+    }
+
+    // Valida la existencia del Estado (espejo local o API externa)
+    private void validarEstado(Usuario usuario) {
         if (usuario.getEstado() != null) {
+            boolean existe;
             try {
-                // Llama y espera la respuesta. El onStatus es redundante si capturas la excepción.
-                estadoWebClient.get()
-                        .uri("/{id}", usuario.getEstado().getIdEstado())
-                        .retrieve()
-                        .toBodilessEntity() // Llama al servicio sin importar el cuerpo.
-                        .block();
-            } catch (WebClientResponseException.NotFound e) {
-                // Captura el error 404 (Not Found)
-                throw new IllegalArgumentException("El estado asociado al usuario no existe en la API externa.", e);
+                // Se resuelve contra el espejo local; sólo se llama a la API externa si está vencido
+                existe = catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado());
             } catch (Exception e) {
-                // Captura otros errores de conexión
+                // Captura errores de conexión
                 throw new IllegalArgumentException("Error al comunicarse con la API de estados.", e);
             }
+            if (!existe) {
+                // La API respondió 404 (Not Found), posiblemente ya guardado en la caché negativa
+                throw new IllegalArgumentException("El estado asociado al usuario no existe en la API externa.");
+            }
         } else {
             throw new IllegalArgumentException("El estado es un campo obligatorio.");
         }
+    }
 
+    // Valida la existencia del Tipo de Usuario (local)
+    private void validarTipoUsuario(Usuario usuario) {
+        if (usuario.getTipoUsuario() != null) {
+            try {
+                tipoUsuarioService.findById(usuario.getTipoUsuario().getIdTipoUsuario());
+            } catch (NoSuchElementException e) {
+                throw new IllegalArgumentException("El tipo de usuario asociado no existe.");
+            }
+        } else {
+            throw new IllegalArgumentException("El tipo de usuario es un campo obligatorio.");
+        }
     }
 
     /**
-     * Sube un archivo de foto a la API de fotos y actualiza la URL en el perfil del usuario.
+     * Sube un archivo de foto a la API de fotos y la asocia al perfil del usuario.
+     * Si el mismo contenido ya fue subido antes, se reutiliza esa foto sin volver a llamar a la API de fotos.
      * @param id El ID del usuario al que se le asociará la foto.
      * @param archivo El archivo de la foto a subir.
      * @return La URL de la foto guardada.
+     * @throws NoSuchElementException Si el usuario no es encontrado.
      */
     public String subirYActualizarFotoUsuario(Integer id, MultipartFile archivo) {
+        // 1. Buscar al usuario antes de subir nada
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con ID: " + id));
+
+        // 2. Obtener la foto (subiéndola a la otra API sólo si su contenido es nuevo) y asociarla
+        Foto foto = fotoService.subir(archivo);
+        usuario.setFoto(foto);
+        usuarioRepository.save(usuario);
 
-        // 1. Lógica para subir el archivo a la otra API
-        // Esta parte es la que hace la llamada HTTP. La responsabilidad es del servicio.
-        String fotoUrl = webClienteConfig.uploadFoto(archivo);
+        return foto.getUrl();
+    }
 
-        // 2. Buscar al usuario y actualizar su URL
+    /**
+     * Asocia una foto ya registrada al perfil del usuario.
+     * La foto puede estar compartida con otros usuarios (mismo contenido), por lo que no se modifica.
+     * @param id El ID del usuario.
+     * @param foto La foto a asociar.
+     * @throws NoSuchElementException Si el usuario no es encontrado.
+     */
+    public void asignarFoto(Integer id, Foto foto) {
         Usuario usuario = usuarioRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con ID: " + id));
 
-        usuario.getFoto().setUrl(fotoUrl);
+        usuario.setFoto(foto);
         usuarioRepository.save(usuario);
-
-        return fotoUrl;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ejecuta en paralelo validaciones independientes entre sí (consultas locales y a APIs externas),
+ * de modo que la latencia de una escritura sea la de la validación más lenta y no la suma de todas.
+ * Todas las validaciones comparten un plazo por petición ({@code validacion.plazo}).
+ */
+@Component
+public class ValidadorConcurrente {
+
+    private final Executor validacionExecutor;
+    private final Duration plazo;
+
+    @Autowired
+    public ValidadorConcurrente(@Value("${validacion.plazo:5s}") Duration plazo,
+                                @Value("${validacion.hilos:32}") int hilos,
+                                Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment)
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("validacion-", 0).factory())
+                : Executors.newFixedThreadPool(hilos, Thread.ofPlatform().name("validacion-", 0).daemon().factory()), plazo);
+    }
+
+    ValidadorConcurrente(Executor validacionExecutor, Duration plazo) {
+        this.validacionExecutor = validacionExecutor;
+        this.plazo = plazo;
+    }
+
+    /**
+     * Ejecuta las validaciones en paralelo y espera a que terminen todas.
+     * Ante la primera falla, o al vencer el plazo, se interrumpen las validaciones que siguen en curso
+     * (liberando sus hilos) y se relanza la excepción. Para que el hilo se libere de verdad, las validaciones
+     * deben esperar de forma interrumpible (p. ej. {@code Future.get()} y no {@code CompletableFuture.join()}).
+     *
+     * @param validaciones Validaciones independientes entre sí.
+     * @throws IllegalArgumentException Si alguna validación falla.
+     * @throws IllegalStateException    Si no terminan dentro del plazo (con causa {@link TimeoutException}),
+     *                                  o si la espera es interrumpida.
+     */
+    public void validar(Runnable... validaciones) {
+        // Las tareas quedan en la cola de completadas en el orden en que terminan
+        CompletionService<Void> completadas = new ExecutorCompletionService<>(validacionExecutor);
+        List<Future<Void>> tareas = Arrays.stream(validaciones)
+                .map(validacion -> completadas.submit(validacion, null))
+                .toList();
+        long limite = System.nanoTime() + plazo.toNanos();
+
+        try {
+            for (int i = 0; i < tareas.size(); i++) {
+                Future<Void> terminada = completadas.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (terminada == null) {
+                    String mensaje = "Las validaciones no terminaron dentro del plazo de " + plazo.toMillis() + " ms.";
+                    throw new IllegalStateException(mensaje, new TimeoutException(mensaje));
+                }
+                terminada.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalArgumentException("Error al validar el registro.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("La validación fue interrumpida.", e);
+        } finally {
+            // cancel(true) interrumpe el hilo de las que siguen en curso; no afecta a las ya terminadas
+            tareas.forEach(tarea -> tarea.cancel(true));
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #validar(Runnable...)}: combina las validaciones con el mismo plazo.
+     *
+     * @param validaciones Validaciones independientes entre sí.
+     * @return Mono vacío, o con la primera falla ({@link TimeoutException} si se excede el plazo).
+     */
+    public Mono<Void> validarReactivo(Mono<?>... validaciones) {
+        return Mono.when(validaciones)
+                .timeout(plazo, Mono.error(() -> new TimeoutException(
+                        "Las validaciones no terminaron dentro del plazo de " + plazo.toMillis() + " ms.")));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (validacionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+}
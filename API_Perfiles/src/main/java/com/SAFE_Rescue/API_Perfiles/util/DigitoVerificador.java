@@ -0,0 +1,39 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+/**
+ * Cálculo del dígito verificador (DV) de un RUN chileno (módulo 11).
+ */
+public final class DigitoVerificador {
+
+    private DigitoVerificador() {
+    }
+
+    /**
+     * Calcula el dígito verificador de un RUN.
+     *
+     * @param run RUN sin puntos ni dígito verificador (por ejemplo, "12345678").
+     * @return El dígito verificador: "0" a "9" o "K".
+     * @throws IllegalArgumentException Si el RUN está vacío o contiene caracteres que no son dígitos.
+     */
+    public static String calcular(String run) {
+        if (run == null || run.isEmpty()) {
+            throw new IllegalArgumentException("El RUN no puede estar vacío.");
+        }
+        int suma = 0;
+        int multiplicador = 2;
+        // Se recorre desde el último dígito, con multiplicadores 2, 3, ..., 7, 2, 3, ...
+        for (int i = run.length() - 1; i >= 0; i--) {
+            int digito = Character.digit(run.charAt(i), 10);
+            if (digito < 0) {
+                throw new IllegalArgumentException("El RUN sólo debe contener dígitos: " + run);
+            }
+            suma += digito * multiplicador;
+            multiplicador = (multiplicador == 7) ? 2 : multiplicador + 1;
+        }
+
+        int dv = 11 - (suma % 11);
+        if (dv == 11) return "0";
+        if (dv == 10) return "K";
+        return String.valueOf(dv);
+    }
+}
@@ -0,0 +1,40 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Clasifica las fallas que no se deben a la solicitud del cliente sino a una saturación o indisponibilidad
+ * pasajera (pool lleno, plazo vencido, circuit breaker abierto, API externa inalcanzable), para responderlas
+ * con 503 y {@code Retry-After} en lugar de 400 o 500.
+ */
+public final class ErrorTransitorio {
+
+    private ErrorTransitorio() {
+    }
+
+    /**
+     * Indica si la falla, o alguna de sus causas, es transitoria: reintentar la misma solicitud puede funcionar.
+     *
+     * @param error Falla a clasificar.
+     * @return true si es un rechazo por saturación, un plazo vencido o una indisponibilidad pasajera.
+     */
+    public static boolean es(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof RejectedExecutionException
+                    || e instanceof TimeoutException
+                    || e instanceof CallNotPermittedException
+                    || e instanceof BulkheadFullException
+                    || e instanceof WebClientRequestException
+                    || e instanceof TransientDataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Conversión entre la versión de una entidad ({@code @Version}) y su ETag, y verificación de If-Match.
+ * El ETag de una entidad es su versión entre comillas (por ejemplo {@code "3"}); cambia con cada actualización.
+ */
+public final class EtiquetaVersion {
+
+    private EtiquetaVersion() {
+    }
+
+    /**
+     * ETag correspondiente a una versión.
+     *
+     * @param version Versión de la entidad.
+     * @return El ETag, entre comillas.
+     */
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Obtiene la versión esperada a partir del encabezado If-Match.
+     *
+     * @param ifMatch Valor del encabezado (puede ser nulo).
+     * @return La versión indicada, o {@code null} si no se envió el encabezado o es {@code *} (cualquier versión).
+     * @throws IllegalArgumentException Si el encabezado no corresponde a un ETag de esta API o es un ETag débil
+     *                                  ({@code W/"3"}), que If-Match no admite porque exige comparación fuerte.
+     */
+    public static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String etiqueta = ifMatch.strip();
+        if (etiqueta.startsWith("W/")) {
+            throw new IllegalArgumentException("El encabezado If-Match debe indicar un ETag fuerte.");
+        }
+        if (etiqueta.length() < 3 || !etiqueta.startsWith("\"") || !etiqueta.endsWith("\"")) {
+            throw new IllegalArgumentException("El encabezado If-Match no es válido.");
+        }
+        try {
+            return Long.parseLong(etiqueta.substring(1, etiqueta.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El encabezado If-Match no es válido.");
+        }
+    }
+
+    /**
+     * Mensaje para el cliente cuando una actualización choca con otra, sin detalles internos de la entidad.
+     *
+     * @param entidad Nombre de la entidad.
+     * @return El mensaje de conflicto.
+     */
+    public static String conflicto(String entidad) {
+        return "El " + entidad + " fue modificado por otra solicitud. Vuelva a consultarlo antes de actualizarlo.";
+    }
+
+    /**
+     * Rechaza la escritura si la entidad cambió desde la versión que conoce el cliente.
+     *
+     * @param actual    Versión almacenada.
+     * @param esperada  Versión indicada en If-Match ({@code null} = no verificar).
+     * @param entidad   Nombre de la entidad, para el mensaje.
+     * @throws OptimisticLockingFailureException Si las versiones no coinciden.
+     */
+    public static void verificar(long actual, Long esperada, String entidad) {
+        if (esperada != null && esperada != actual) {
+            throw new OptimisticLockingFailureException(conflicto(entidad));
+        }
+    }
+}
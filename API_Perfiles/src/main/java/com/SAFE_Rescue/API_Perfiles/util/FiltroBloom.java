@@ -0,0 +1,113 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para cadenas.
+ * Responde si un valor <em>puede</em> haberse agregado: un {@code false} es definitivo (nunca se agregó), mientras
+ * que un {@code true} puede ser un falso positivo, con una probabilidad cercana a la indicada al crearlo mientras
+ * no se agreguen más elementos que los esperados. No permite quitar elementos.
+ * Agregar y consultar son seguros entre hilos y no usan bloqueos.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funciones;
+
+    /**
+     * Crea un filtro dimensionado para la cantidad de elementos y la tasa de falsos positivos indicadas.
+     *
+     * @param elementosEsperados       Cantidad de elementos que se espera agregar.
+     * @param probabilidadFalsoPositivo Tasa de falsos positivos aceptada con esa cantidad (entre 0 y 1, exclusivo).
+     * @throws IllegalArgumentException Si algún parámetro está fuera de rango.
+     */
+    public FiltroBloom(long elementosEsperados, double probabilidadFalsoPositivo) {
+        if (elementosEsperados < 1) {
+            throw new IllegalArgumentException("La cantidad de elementos esperados debe ser positiva.");
+        }
+        if (!(probabilidadFalsoPositivo > 0 && probabilidadFalsoPositivo < 1)) {
+            throw new IllegalArgumentException("La probabilidad de falso positivo debe estar entre 0 y 1.");
+        }
+        // m = -n ln(p) / ln(2)^2 bits y k = (m / n) ln(2) funciones de hash
+        double optimo = -elementosEsperados * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2));
+        int palabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (long) Math.ceil(optimo / Long.SIZE)));
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = (long) palabras * Long.SIZE;
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / elementosEsperados * Math.log(2)));
+    }
+
+    /**
+     * Agrega un valor al filtro.
+     *
+     * @param valor Valor a agregar.
+     */
+    public void agregar(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.weakCompareAndSetVolatile(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+    }
+
+    /**
+     * Indica si el valor puede haberse agregado.
+     *
+     * @param valor Valor a consultar.
+     * @return {@code false} si el valor con seguridad no se agregó; {@code true} si puede haberse agregado.
+     */
+    public boolean puedeContener(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cantidad de bits del filtro.
+     */
+    public long cantidadBits() {
+        return cantidadBits;
+    }
+
+    /**
+     * Cantidad de funciones de hash usadas por cada valor.
+     */
+    public int funciones() {
+        return funciones;
+    }
+
+    private long indice(long hash) {
+        return (hash & Long.MAX_VALUE) % cantidadBits;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, seguido de la mezcla final de MurmurHash3
+    private static long hash(String valor) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,43 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Aplica actualizaciones parciales (PATCH) en formato JSON sobre un objeto.
+ * Sólo se modifican las propiedades presentes en el JSON; una propiedad con valor {@code null} se deja nula.
+ * Las relaciones ({@code "estado": {"idEstado": 2}}) se reemplazan completas, nunca se combinan con la anterior.
+ */
+public final class ParcheJson {
+
+    private ParcheJson() {
+    }
+
+    /**
+     * Aplica los cambios sobre el objeto destino.
+     *
+     * @param objectMapper ObjectMapper de la aplicación (mismos nombres y formatos que el resto de la API).
+     * @param destino      Objeto a modificar; debe ser una copia, no la entidad administrada por JPA.
+     * @param cambios      Objeto JSON con las propiedades a modificar.
+     * @return El mismo objeto destino, ya modificado.
+     * @throws IllegalArgumentException Si los cambios no son un objeto JSON o no se pueden convertir.
+     */
+    public static <T> T aplicar(ObjectMapper objectMapper, T destino, JsonNode cambios) {
+        if (cambios == null || !cambios.isObject()) {
+            throw new IllegalArgumentException("Los cambios deben enviarse como un objeto JSON.");
+        }
+        if (cambios.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un campo a modificar.");
+        }
+        try {
+            return objectMapper.readerForUpdating(destino).readValue(cambios);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Los cambios no son válidos: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Los cambios no son válidos.", e);
+        }
+    }
+}
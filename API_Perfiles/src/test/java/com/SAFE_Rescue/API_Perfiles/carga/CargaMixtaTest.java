@@ -0,0 +1,384 @@
+package com.SAFE_Rescue.API_Perfiles.carga;
+
+import com.SAFE_Rescue.API_Perfiles.ApiPerfilesApplication;
+import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
+import com.SAFE_Rescue.API_Perfiles.modelo.Compania;
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoEquipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.util.DigitoVerificador;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga de punta a punta: levanta la aplicación sobre H2 en memoria, con las APIs de estados, compañías
+ * y fotos simuladas en el mismo proceso ({@link StubApisExternas}), siembra datos a través de la propia API y luego
+ * envía tráfico CRUD mixto a tasa fija contra los cinco controladores ({@link GeneradorCarga}).
+ * <p>
+ * No corre con {@code mvn test}; se ejecuta con {@code mvn -Pcarga test}. Se configura con propiedades de sistema:
+ * <ul>
+ *     <li>{@code carga.tasa} (peticiones por segundo, 100), {@code carga.duracion} (30s) y
+ *     {@code carga.calentamiento} (10s, no se mide).</li>
+ *     <li>{@code carga.usuarios}, {@code carga.bomberos} y {@code carga.equipos}: datos sembrados (2000, 500 y 50).</li>
+ *     <li>{@code carga.stub[.estado|.compania|.foto].latencia}, {@code .variacion} y {@code .errores}: latencia y
+ *     fracción de errores 503 de las APIs simuladas (20ms, 10ms y 0).</li>
+ *     <li>{@code carga.max-p99}: si se indica, la prueba falla cuando el p99 total lo supera.</li>
+ *     <li>{@code carga.resultado}: archivo donde se guarda el reporte en JSON ({@code target/carga-resultado.json}).</li>
+ * </ul>
+ */
+@Tag("carga")
+@SpringBootTest(classes = ApiPerfilesApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:carga;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"
+        })
+public class CargaMixtaTest {
+
+    private static final String BASE = "/api-perfiles/v1";
+
+    private static final StubApisExternas stubs;
+
+    static {
+        try {
+            stubs = StubApisExternas.desdePropiedades();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void apisExternas(DynamicPropertyRegistry registry) {
+        registry.add("estado.service.url", () -> stubs.url("/estados"));
+        registry.add("compania.service.url", () -> stubs.url("/companias"));
+        registry.add("foto.service.url", () -> stubs.url("/fotos"));
+    }
+
+    @AfterAll
+    static void detenerStubs() {
+        stubs.close();
+    }
+
+    @LocalServerPort
+    private int puerto;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final Random random = new Random(42);
+    private final AtomicInteger secuencia = new AtomicInteger();
+
+    private final int cantidadEstados = Integer.getInteger("carga.stub.estados", 5);
+    private final int cantidadCompanias = Integer.getInteger("carga.stub.companias", 20);
+    private List<Integer> tiposUsuario;
+    private List<Integer> tiposEquipo;
+    private List<Integer> equipos;
+    private final List<Usuario> usuarios = new ArrayList<>();
+    private final List<Bombero> bomberos = new ArrayList<>();
+    private final Queue<Integer> desechables = new ConcurrentLinkedQueue<>();
+    private final List<byte[]> fotos = new ArrayList<>();
+
+    @Test
+    public void traficoMixto() throws Exception {
+        double tasa = Double.parseDouble(System.getProperty("carga.tasa", "100"));
+        Duration duracion = duracion("carga.duracion", "30s");
+        Duration calentamiento = duracion("carga.calentamiento", "10s");
+
+        List<GeneradorCarga.Operacion> operaciones = operaciones();
+        int pesoTotal = operaciones.stream().mapToInt(GeneradorCarga.Operacion::peso).sum();
+        double segundos = (calentamiento.toMillis() + duracion.toMillis()) / 1000.0;
+        int eliminaciones = (int) Math.ceil(tasa * segundos * PESO_ELIMINAR / pesoTotal * 1.5) + 10;
+        sembrar(eliminaciones);
+
+        GeneradorCarga.Resultado resultado;
+        try (GeneradorCarga generador = new GeneradorCarga(operaciones, 7)) {
+            if (!calentamiento.isZero()) {
+                generador.ejecutar(tasa, calentamiento, Duration.ofSeconds(30));
+            }
+            resultado = generador.ejecutar(tasa, duracion, Duration.ofSeconds(30));
+        }
+
+        resultado.imprimir();
+        System.out.printf("APIs simuladas: estados %d pet (%d errores), companias %d pet (%d errores), fotos %d pet (%d errores)%n",
+                stubs.apiEstados.peticiones.get(), stubs.apiEstados.errores.get(),
+                stubs.apiCompanias.peticiones.get(), stubs.apiCompanias.errores.get(),
+                stubs.apiFotos.peticiones.get(), stubs.apiFotos.errores.get());
+        resultado.guardar(Path.of(System.getProperty("carga.resultado", "target/carga-resultado.json")));
+
+        assertTrue(resultado.total().peticiones() > 0);
+        String maxP99 = System.getProperty("carga.max-p99");
+        if (maxP99 != null) {
+            double limite = DurationStyle.detectAndParse(maxP99).toNanos() / 1e6;
+            assertTrue(resultado.total().p99Ms() <= limite,
+                    "p99 de " + resultado.total().p99Ms() + " ms supera el máximo de " + limite + " ms");
+        }
+    }
+
+    // ---------------------------------------------------------------- mezcla de tráfico
+
+    private static final int PESO_ELIMINAR = 2;
+
+    private List<GeneradorCarga.Operacion> operaciones() {
+        List<GeneradorCarga.Operacion> operaciones = new ArrayList<>();
+        operaciones.add(op("usuarios.obtener", 18, r -> get("/usuarios/" + usuarios.get(r.nextInt(usuarios.size())).getIdUsuario())));
+        operaciones.add(op("usuarios.pagina", 5, r -> get("/usuarios?limit=50&after=" + usuarios.get(r.nextInt(usuarios.size())).getIdUsuario())));
+        operaciones.add(op("usuarios.resumen", 3, r -> get("/usuarios/resumen?limit=100")));
+        operaciones.add(op("usuarios.crear", 5, r -> post("/usuarios", nuevoUsuario(new Usuario()))));
+        operaciones.add(op("usuarios.actualizar", 5, r -> {
+            Usuario usuario = usuarios.get(r.nextInt(usuarios.size()));
+            return put("/usuarios/" + usuario.getIdUsuario(), renombrado(usuario, r));
+        }));
+        operaciones.add(op("usuarios.eliminar", PESO_ELIMINAR, r -> {
+            Integer id = desechables.poll();
+            return id == null ? get("/usuarios/" + usuarios.getFirst().getIdUsuario()) : peticion("/usuarios/" + id).DELETE().build();
+        }));
+        operaciones.add(op("usuarios.subir-foto", 1, r -> subirFoto(usuarios.get(r.nextInt(usuarios.size())).getIdUsuario(),
+                fotos.get(r.nextInt(fotos.size())), r)));
+        operaciones.add(op("bomberos.obtener", 10, r -> get("/bomberos/" + bomberos.get(r.nextInt(bomberos.size())).getIdUsuario())));
+        operaciones.add(op("bomberos.pagina", 3, r -> get("/bomberos?limit=50&after=" + bomberos.get(r.nextInt(bomberos.size())).getIdUsuario())));
+        operaciones.add(op("bomberos.crear", 3, r -> post("/bomberos", nuevoBombero(r))));
+        operaciones.add(op("bomberos.actualizar", 2, r -> {
+            Bombero bombero = bomberos.get(r.nextInt(bomberos.size()));
+            return put("/bomberos/" + bombero.getIdUsuario(), renombrado(bombero, r));
+        }));
+        operaciones.add(op("equipos.obtener", 8, r -> get("/equipos/" + equipos.get(r.nextInt(equipos.size())))));
+        operaciones.add(op("equipos.resumen", 2, r -> get("/equipos/resumen?limit=100")));
+        operaciones.add(op("equipos.crear", 1, r -> post("/equipos", nuevoEquipo(r))));
+        operaciones.add(op("tipos-usuario.listar", 4, r -> get("/tipos-usuario")));
+        operaciones.add(op("tipos-usuario.obtener", 4, r -> get("/tipos-usuario/" + tiposUsuario.get(r.nextInt(tiposUsuario.size())))));
+        operaciones.add(op("tipos-equipo.listar", 4, r -> get("/tipos-equipo")));
+        operaciones.add(op("tipos-equipo.obtener", 4, r -> get("/tipos-equipo/" + tiposEquipo.get(r.nextInt(tiposEquipo.size())))));
+        return operaciones;
+    }
+
+    private static GeneradorCarga.Operacion op(String nombre, int peso, Function<Random, HttpRequest> peticion) {
+        return new GeneradorCarga.Operacion(nombre, peso, peticion);
+    }
+
+    // ---------------------------------------------------------------- siembra
+
+    private void sembrar(int eliminaciones) throws Exception {
+        tiposUsuario = crearCatalogo("/tipos-usuario", "idTipoUsuario", 4, i -> {
+            TipoUsuario tipo = new TipoUsuario();
+            tipo.setNombre("Tipo usuario " + i);
+            return tipo;
+        });
+        tiposEquipo = crearCatalogo("/tipos-equipo", "idTipoEquipo", 3, i -> {
+            TipoEquipo tipo = new TipoEquipo();
+            tipo.setNombre("Tipo equipo " + i);
+            return tipo;
+        });
+        int cantidadEquipos = Integer.getInteger("carga.equipos", 50);
+        for (int i = 0; i < cantidadEquipos; i++) {
+            enviar(post("/equipos", nuevoEquipo(random)), 201);
+        }
+        equipos = ids(enviar(get("/equipos?limit=" + Math.min(cantidadEquipos + 100, 500)), 200).get("contenido"), "idEquipo");
+
+        for (Usuario usuario : crearLote("/usuarios", Integer.getInteger("carga.usuarios", 2000), i -> nuevoUsuario(new Usuario()))) {
+            usuarios.add(usuario);
+        }
+        for (Usuario usuario : crearLote("/usuarios", eliminaciones, i -> nuevoUsuario(new Usuario()))) {
+            desechables.add(usuario.getIdUsuario());
+        }
+        for (Bombero bombero : crearLote("/bomberos", Integer.getInteger("carga.bomberos", 500), i -> nuevoBombero(random))) {
+            bomberos.add(bombero);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            fotos.add(imagen(new Color(random.nextInt(0xFFFFFF))));
+        }
+    }
+
+    private <T> List<Integer> crearCatalogo(String ruta, String campoId, int cantidad, IntFunction<T> elemento) throws Exception {
+        for (int i = 1; i <= cantidad; i++) {
+            enviar(post(ruta, elemento.apply(i)), 201);
+        }
+        return ids(enviar(get(ruta), 200), campoId);
+    }
+
+    private <T extends Usuario> List<T> crearLote(String ruta, int cantidad, IntFunction<T> elemento) throws Exception {
+        List<T> creados = new ArrayList<>();
+        for (int desde = 0; desde < cantidad; desde += 1000) {
+            List<T> lote = new ArrayList<>();
+            for (int i = desde; i < Math.min(desde + 1000, cantidad); i++) {
+                lote.add(elemento.apply(i));
+            }
+            for (JsonNode resultado : enviar(post(ruta + "/batch", lote), 200)) {
+                assertTrue(resultado.get("creado").asBoolean(), resultado.path("error").asText());
+                T creado = lote.get(resultado.get("indice").asInt());
+                creado.setIdUsuario(resultado.get("id").asInt());
+                creados.add(creado);
+            }
+        }
+        return creados;
+    }
+
+    private static List<Integer> ids(JsonNode elementos, String campoId) {
+        List<Integer> ids = new ArrayList<>();
+        elementos.forEach(elemento -> ids.add(elemento.get(campoId).asInt()));
+        assertFalse(ids.isEmpty());
+        return ids;
+    }
+
+    // Datos únicos por secuencia: run, teléfono y correo no se repiten entre usuarios creados
+    private <T extends Usuario> T nuevoUsuario(T usuario) {
+        int n = secuencia.incrementAndGet();
+        String run = String.valueOf(10_000_000 + n);
+        usuario.setRun(run);
+        usuario.setDv(DigitoVerificador.calcular(run));
+        usuario.setNombre("Nombre" + n);
+        usuario.setAPaterno("Paterno" + n);
+        usuario.setAMaterno("Materno" + n);
+        usuario.setFechaRegistro(LocalDate.of(2024, 1, 1).plusDays(n % 365));
+        usuario.setTelefono(String.format("9%08d", n));
+        usuario.setCorreo("carga" + n + "@safe-rescue.cl");
+        usuario.setContrasenia("clave-de-carga-" + n);
+        usuario.setEstado(estado(1 + n % cantidadEstados));
+        TipoUsuario tipo = new TipoUsuario();
+        tipo.setIdTipoUsuario(tiposUsuario.get(n % tiposUsuario.size()));
+        usuario.setTipoUsuario(tipo);
+        return usuario;
+    }
+
+    private Bombero nuevoBombero(Random r) {
+        Bombero bombero = nuevoUsuario(new Bombero());
+        Equipo equipo = new Equipo();
+        equipo.setIdEquipo(equipos.get(r.nextInt(equipos.size())));
+        bombero.setEquipo(equipo);
+        return bombero;
+    }
+
+    private Equipo nuevoEquipo(Random r) {
+        Equipo equipo = new Equipo();
+        equipo.setNombre("Equipo " + secuencia.incrementAndGet());
+        Compania compania = new Compania();
+        compania.setIdCompania(1 + r.nextInt(cantidadCompanias));
+        equipo.setCompania(compania);
+        TipoEquipo tipo = new TipoEquipo();
+        tipo.setIdTipoEquipo(tiposEquipo.get(r.nextInt(tiposEquipo.size())));
+        equipo.setTipoEquipo(tipo);
+        equipo.setEstado(estado(1 + r.nextInt(cantidadEstados)));
+        return equipo;
+    }
+
+    private static Estado estado(int id) {
+        Estado estado = new Estado();
+        estado.setIdEstado(id);
+        return estado;
+    }
+
+    // Copia del usuario con otro nombre; los datos sembrados no se modifican porque se comparten entre hilos
+    private ObjectNode renombrado(Usuario usuario, Random r) {
+        ObjectNode json = objectMapper.valueToTree(usuario);
+        json.put("nombre", "Nombre" + r.nextInt(1_000_000));
+        return json;
+    }
+
+    private static byte[] imagen(Color color) {
+        BufferedImage imagen = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, 640, 480);
+        g.setColor(color.darker());
+        g.fillOval(160, 120, 320, 240);
+        g.dispose();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(imagen, "png", salida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    // ---------------------------------------------------------------- peticiones HTTP
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + BASE + ruta)).timeout(Duration.ofSeconds(60));
+    }
+
+    private HttpRequest get(String ruta) {
+        return peticion(ruta).GET().build();
+    }
+
+    private HttpRequest post(String ruta, Object cuerpo) {
+        return peticion(ruta).header("Content-Type", "application/json").POST(json(cuerpo)).build();
+    }
+
+    private HttpRequest put(String ruta, Object cuerpo) {
+        return peticion(ruta).header("Content-Type", "application/json").PUT(json(cuerpo)).build();
+    }
+
+    private HttpRequest.BodyPublisher json(Object cuerpo) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(cuerpo));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest subirFoto(int idUsuario, byte[] foto, Random r) {
+        String limite = "carga-" + Long.toHexString(r.nextLong());
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        cuerpo.writeBytes(("--" + limite + "\r\n"
+                + "Content-Disposition: form-data; name=\"foto\"; filename=\"foto.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        cuerpo.writeBytes(foto);
+        cuerpo.writeBytes(("\r\n--" + limite + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return peticion("/usuarios/" + idUsuario + "/subir-foto")
+                .header("Content-Type", "multipart/form-data; boundary=" + limite)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo.toByteArray()))
+                .build();
+    }
+
+    private JsonNode enviar(HttpRequest peticion, int statusEsperado) throws Exception {
+        HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+        assertEquals(statusEsperado, respuesta.statusCode(), peticion.uri() + ": " + respuesta.body());
+        return statusEsperado == 201 ? null : objectMapper.readTree(respuesta.body());
+    }
+
+    private static Duration duracion(String propiedad, String porDefecto) {
+        return DurationStyle.detectAndParse(System.getProperty(propiedad, porDefecto));
+    }
+}
@@ -0,0 +1,225 @@
+package com.SAFE_Rescue.API_Perfiles.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Generador de carga de modelo abierto: lanza peticiones a una tasa de llegada fija, sin esperar a que terminen
+ * las anteriores, eligiendo cada operación al azar según su peso.
+ * La latencia de cada petición se mide desde el momento en que <em>debía</em> enviarse, de modo que si el
+ * servicio (o el propio generador) se atrasa, la espera acumulada queda reflejada en los percentiles en lugar
+ * de ocultarse.
+ */
+final class GeneradorCarga implements AutoCloseable {
+
+    /**
+     * Operación del tráfico mixto.
+     *
+     * @param nombre   Nombre con el que aparece en el reporte (por ejemplo, {@code "usuarios.obtener"}).
+     * @param peso     Peso relativo de la operación en la mezcla.
+     * @param peticion Construye la petición a enviar; puede usar el {@link Random} para elegir datos.
+     */
+    record Operacion(String nombre, int peso, Function<Random, HttpRequest> peticion) {
+    }
+
+    /**
+     * Resultado de una operación durante la medición.
+     *
+     * @param operacion    Nombre de la operación.
+     * @param peticiones   Peticiones completadas (con o sin error).
+     * @param errores      Peticiones con respuesta distinta de 2xx o sin respuesta.
+     * @param porSegundo   Peticiones completadas por segundo.
+     * @param p50Ms        Percentil 50 de la latencia, en milisegundos.
+     * @param p95Ms        Percentil 95 de la latencia, en milisegundos.
+     * @param p99Ms        Percentil 99 de la latencia, en milisegundos.
+     * @param maxMs        Latencia máxima, en milisegundos.
+     * @param statusErrores Cantidad de errores por código de estado ({@code 0} si no hubo respuesta).
+     */
+    record ResultadoOperacion(String operacion, long peticiones, long errores, double porSegundo,
+                              double p50Ms, double p95Ms, double p99Ms, double maxMs,
+                              Map<Integer, Long> statusErrores) {
+    }
+
+    /**
+     * Resultado de una ejecución completa.
+     *
+     * @param tasaObjetivo Tasa de llegada pedida, en peticiones por segundo.
+     * @param duracionS    Duración real de la medición, en segundos.
+     * @param enviadas     Peticiones enviadas.
+     * @param sinTerminar  Peticiones que no terminaron antes del tiempo de espera final.
+     * @param total        Resultado agregado de todas las operaciones.
+     * @param operaciones  Resultado por operación.
+     */
+    record Resultado(double tasaObjetivo, double duracionS, long enviadas, long sinTerminar,
+                     ResultadoOperacion total, List<ResultadoOperacion> operaciones) {
+
+        void imprimir() {
+            System.out.printf(Locale.ROOT, "%nCarga: %.0f pet/s objetivo, %.1f s, %d enviadas, %d sin terminar%n",
+                    tasaObjetivo, duracionS, enviadas, sinTerminar);
+            System.out.printf(Locale.ROOT, "%-26s %9s %8s %9s %9s %9s %9s %9s%n",
+                    "operacion", "peticiones", "errores", "pet/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+            operaciones.forEach(Resultado::imprimir);
+            imprimir(total);
+        }
+
+        private static void imprimir(ResultadoOperacion r) {
+            System.out.printf(Locale.ROOT, "%-26s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%s%n",
+                    r.operacion(), r.peticiones(), r.errores(), r.porSegundo(),
+                    r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs(),
+                    r.statusErrores().isEmpty() ? "" : "  " + r.statusErrores());
+        }
+
+        void guardar(Path archivo) throws IOException {
+            Files.createDirectories(archivo.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(archivo.toFile(), this);
+        }
+    }
+
+    private final HttpClient cliente;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Operacion> operaciones;
+    private final int[] pesosAcumulados;
+    private final Random random;
+
+    GeneradorCarga(List<Operacion> operaciones, long semilla) {
+        this.operaciones = List.copyOf(operaciones);
+        this.pesosAcumulados = new int[operaciones.size()];
+        int acumulado = 0;
+        for (int i = 0; i < operaciones.size(); i++) {
+            acumulado += operaciones.get(i).peso();
+            pesosAcumulados[i] = acumulado;
+        }
+        this.random = new Random(semilla);
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(hilos)
+                .build();
+    }
+
+    /**
+     * Envía peticiones a {@code tasa} por segundo durante {@code duracion} y espera a que terminen
+     * (como máximo {@code esperaFinal}).
+     */
+    Resultado ejecutar(double tasa, Duration duracion, Duration esperaFinal) throws InterruptedException {
+        Map<String, Registro> registros = new LinkedHashMap<>();
+        operaciones.forEach(op -> registros.put(op.nombre(), new Registro()));
+        AtomicLong pendientes = new AtomicLong();
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / tasa);
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        long enviadas = 0;
+
+        for (long programada = inicio; programada < fin; programada = inicio + (++enviadas) * intervalo) {
+            long espera = programada - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacion operacion = elegir();
+            Registro registro = registros.get(operacion.nombre());
+            long momento = programada;
+            pendientes.incrementAndGet();
+            try {
+                cliente.sendAsync(operacion.peticion().apply(random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((respuesta, error) -> {
+                            registro.registrar(System.nanoTime() - momento, error == null ? respuesta.statusCode() : 0);
+                            pendientes.decrementAndGet();
+                        });
+            } catch (RuntimeException e) {
+                registro.registrar(System.nanoTime() - momento, 0);
+                pendientes.decrementAndGet();
+            }
+        }
+
+        long limite = System.nanoTime() + esperaFinal.toNanos();
+        while (pendientes.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        long sinTerminar = pendientes.get();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        List<ResultadoOperacion> resultados = new ArrayList<>();
+        Registro total = new Registro();
+        registros.forEach((nombre, registro) -> {
+            resultados.add(registro.resumir(nombre, segundos));
+            total.agregar(registro);
+        });
+        return new Resultado(tasa, segundos, enviadas, sinTerminar, total.resumir("total", segundos), resultados);
+    }
+
+    @Override
+    public void close() {
+        cliente.close();
+        hilos.shutdownNow();
+    }
+
+    private Operacion elegir() {
+        int valor = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        int indice = Arrays.binarySearch(pesosAcumulados, valor + 1);
+        return operaciones.get(indice >= 0 ? indice : -indice - 1);
+    }
+
+    // Latencias exactas (en nanosegundos) de una operación; los percentiles se calculan ordenándolas al final
+    private static final class Registro {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private final Map<Integer, AtomicLong> statusErrores = new LinkedHashMap<>();
+
+        synchronized void registrar(long nanos, int status) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+            if (status < 200 || status >= 300) {
+                statusErrores.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+            }
+        }
+
+        synchronized void agregar(Registro otro) {
+            for (int i = 0; i < otro.cantidad; i++) {
+                registrar(otro.latencias[i], 200);
+            }
+            otro.statusErrores.forEach((status, errores) ->
+                    statusErrores.computeIfAbsent(status, s -> new AtomicLong()).addAndGet(errores.get()));
+        }
+
+        synchronized ResultadoOperacion resumir(String nombre, double segundos) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            Map<Integer, Long> errores = new LinkedHashMap<>();
+            statusErrores.forEach((status, n) -> errores.put(status, n.get()));
+            return new ResultadoOperacion(nombre, cantidad, errores.values().stream().mapToLong(Long::longValue).sum(),
+                    cantidad / segundos, percentil(ordenadas, 0.50), percentil(ordenadas, 0.95),
+                    percentil(ordenadas, 0.99), percentil(ordenadas, 1.0), errores);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(indice, 0)] / 1e6;
+        }
+    }
+}
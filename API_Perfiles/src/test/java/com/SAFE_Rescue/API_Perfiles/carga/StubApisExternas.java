@@ -0,0 +1,204 @@
+package com.SAFE_Rescue.API_Perfiles.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simula en el mismo proceso las APIs externas de estados, compañías y fotos, con latencia y errores configurables.
+ * <ul>
+ *     <li>{@code /estados} y {@code /companias}: listado completo (con ETag) y consulta por ID (404 si no existe).</li>
+ *     <li>{@code /fotos/upload}: recibe la foto y responde con una URL; {@code /fotos/{id}}: responde {@code {"url": ...}}.</li>
+ * </ul>
+ * Cada API tiene su propio {@link Comportamiento}, que puede cambiarse durante la prueba.
+ */
+final class StubApisExternas implements AutoCloseable {
+
+    /**
+     * Latencia y errores inyectados en una API: cada respuesta espera {@code latencia} más un valor al azar
+     * entre 0 y {@code variacion}, y una fracción {@code tasaErrores} de las peticiones responde 503.
+     */
+    static final class Comportamiento {
+        volatile Duration latencia;
+        volatile Duration variacion;
+        volatile double tasaErrores;
+        final AtomicLong peticiones = new AtomicLong();
+        final AtomicLong errores = new AtomicLong();
+
+        Comportamiento(Duration latencia, Duration variacion, double tasaErrores) {
+            this.latencia = latencia;
+            this.variacion = variacion;
+            this.tasaErrores = tasaErrores;
+        }
+
+        /**
+         * Comportamiento leído de las propiedades de sistema {@code carga.stub[.<api>].latencia},
+         * {@code .variacion} y {@code .errores}; las de la API tienen prioridad sobre las generales.
+         */
+        static Comportamiento desdePropiedades(String api) {
+            return new Comportamiento(
+                    duracion(api, "latencia", "20ms"),
+                    duracion(api, "variacion", "10ms"),
+                    Double.parseDouble(propiedad(api, "errores", "0")));
+        }
+
+        private static Duration duracion(String api, String nombre, String porDefecto) {
+            return DurationStyle.detectAndParse(propiedad(api, nombre, porDefecto));
+        }
+
+        private static String propiedad(String api, String nombre, String porDefecto) {
+            return System.getProperty("carga.stub." + api + "." + nombre,
+                    System.getProperty("carga.stub." + nombre, porDefecto));
+        }
+
+        private void esperar() throws InterruptedException {
+            long nanos = latencia.toNanos();
+            if (!variacion.isZero()) {
+                nanos += ThreadLocalRandom.current().nextLong(variacion.toNanos() + 1);
+            }
+            if (nanos > 0) {
+                Thread.sleep(Duration.ofNanos(nanos));
+            }
+        }
+
+        private boolean fallar() {
+            return tasaErrores > 0 && ThreadLocalRandom.current().nextDouble() < tasaErrores;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer servidor;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong fotosSubidas = new AtomicLong();
+    private final List<Map<String, Object>> estados = new ArrayList<>();
+    private final List<Map<String, Object>> companias = new ArrayList<>();
+
+    final Comportamiento apiEstados;
+    final Comportamiento apiCompanias;
+    final Comportamiento apiFotos;
+
+    StubApisExternas(int cantidadEstados, int cantidadCompanias,
+                     Comportamiento apiEstados, Comportamiento apiCompanias, Comportamiento apiFotos) throws IOException {
+        this.apiEstados = apiEstados;
+        this.apiCompanias = apiCompanias;
+        this.apiFotos = apiFotos;
+        for (int i = 1; i <= cantidadEstados; i++) {
+            estados.add(Map.of("idEstado", i, "nombre", "Estado " + i, "descripcion", "Estado de carga " + i));
+        }
+        for (int i = 1; i <= cantidadCompanias; i++) {
+            companias.add(Map.of("idCompania", i, "nombre", i + "ª Compañía"));
+        }
+
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        servidor.setExecutor(hilos);
+        servidor.createContext("/estados", intercambio -> atender(intercambio, apiEstados, () -> catalogo(intercambio, "/estados", estados)));
+        servidor.createContext("/companias", intercambio -> atender(intercambio, apiCompanias, () -> catalogo(intercambio, "/companias", companias)));
+        servidor.createContext("/fotos", intercambio -> atender(intercambio, apiFotos, () -> fotos(intercambio)));
+        servidor.start();
+    }
+
+    /**
+     * Stubs configurados con las propiedades de sistema {@code carga.stub.*}.
+     */
+    static StubApisExternas desdePropiedades() throws IOException {
+        return new StubApisExternas(
+                Integer.getInteger("carga.stub.estados", 5),
+                Integer.getInteger("carga.stub.companias", 20),
+                Comportamiento.desdePropiedades("estado"),
+                Comportamiento.desdePropiedades("compania"),
+                Comportamiento.desdePropiedades("foto"));
+    }
+
+    /**
+     * URL base de una de las APIs simuladas (por ejemplo, {@code url("/estados")}).
+     */
+    String url(String ruta) {
+        return "http://" + servidor.getAddress().getHostString() + ":" + servidor.getAddress().getPort() + ruta;
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+
+    private interface Respuesta {
+        void enviar() throws IOException;
+    }
+
+    private void atender(HttpExchange intercambio, Comportamiento comportamiento, Respuesta respuesta) throws IOException {
+        try (intercambio) {
+            comportamiento.peticiones.incrementAndGet();
+            try {
+                comportamiento.esperar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (comportamiento.fallar()) {
+                comportamiento.errores.incrementAndGet();
+                responder(intercambio, 503, "text/plain", "Error inyectado");
+                return;
+            }
+            respuesta.enviar();
+        }
+    }
+
+    private void catalogo(HttpExchange intercambio, String base, List<Map<String, Object>> elementos) throws IOException {
+        String ruta = intercambio.getRequestURI().getPath();
+        if (ruta.equals(base) || ruta.equals(base + "/")) {
+            String etag = "\"" + elementos.size() + "\"";
+            if (etag.equals(intercambio.getRequestHeaders().getFirst("If-None-Match"))) {
+                intercambio.sendResponseHeaders(304, -1);
+                return;
+            }
+            intercambio.getResponseHeaders().add("ETag", etag);
+            responder(intercambio, 200, "application/json", objectMapper.writeValueAsString(elementos));
+            return;
+        }
+        int id = Integer.parseInt(ruta.substring(base.length() + 1));
+        if (id < 1 || id > elementos.size()) {
+            responder(intercambio, 404, "text/plain", "No encontrado");
+            return;
+        }
+        responder(intercambio, 200, "application/json", objectMapper.writeValueAsString(elementos.get(id - 1)));
+    }
+
+    private void fotos(HttpExchange intercambio) throws IOException {
+        String ruta = intercambio.getRequestURI().getPath();
+        if ("POST".equals(intercambio.getRequestMethod()) && ruta.endsWith("/upload")) {
+            try (InputStream cuerpo = intercambio.getRequestBody()) {
+                cuerpo.transferTo(OutputStream.nullOutputStream());
+            }
+            responder(intercambio, 200, "text/plain", "http://fotos.stub/" + fotosSubidas.incrementAndGet() + ".jpg");
+            return;
+        }
+        String id = ruta.substring(ruta.lastIndexOf('/') + 1);
+        responder(intercambio, 200, "application/json", "{\"url\":\"http://fotos.stub/" + id + ".jpg\"}");
+    }
+
+    private static void responder(HttpExchange intercambio, int status, String tipo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().add("Content-Type", tipo);
+        intercambio.sendResponseHeaders(status, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+}
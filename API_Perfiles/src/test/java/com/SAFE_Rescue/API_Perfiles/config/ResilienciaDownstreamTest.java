@@ -0,0 +1,189 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResilienciaDownstreamTest {
+
+    private final AtomicInteger peticiones = new AtomicInteger();
+    private final AtomicReference<Mono<ClientResponse>> respuesta = new AtomicReference<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private WebClient webClient;
+
+    @BeforeEach
+    public void setUp() {
+        circuitBreaker = CircuitBreaker.of("prueba", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        bulkhead = Bulkhead.of("prueba", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        webClient = WebClient.builder()
+                .exchangeFunction(peticion -> {
+                    peticiones.incrementAndGet();
+                    return respuesta.get();
+                })
+                .filter(ResilienciaDownstream.medicion(meterRegistry, "prueba"))
+                .filter(ResilienciaDownstream.filtro(circuitBreaker, bulkhead))
+                .build();
+    }
+
+    private long llamadas(String outcome, String status) {
+        return meterRegistry.get("downstream.llamadas")
+                .tags("downstream", "prueba", "outcome", outcome, "status", status)
+                .timer().count();
+    }
+
+    private static Mono<ClientResponse> estado(HttpStatus status) {
+        return Mono.just(ClientResponse.create(status, ExchangeStrategies.withDefaults()).build());
+    }
+
+    private Mono<Void> consultar() {
+        return webClient.get().uri("http://api/1").retrieve().toBodilessEntity().then();
+    }
+
+    @Test
+    public void filtro_shouldOpenCircuit_whenServerErrors() {
+        respuesta.set(estado(HttpStatus.SERVICE_UNAVAILABLE));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> consultar().block());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> consultar().block());
+        // La llamada rechazada no llega a la API
+        assertEquals(4, peticiones.get());
+    }
+
+    @Test
+    public void filtro_shouldNotCountNotFoundAsFailure() {
+        respuesta.set(estado(HttpStatus.NOT_FOUND));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.NotFound.class, () -> consultar().block());
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    public void filtro_shouldRejectCalls_whenBulkheadIsFull() {
+        respuesta.set(Mono.never());
+        Disposable enCurso = consultar().subscribe();
+
+        assertThrows(BulkheadFullException.class, () -> consultar().block());
+        assertEquals(1, peticiones.get());
+
+        // Cancelar la llamada en curso libera el permiso
+        enCurso.dispose();
+        respuesta.set(estado(HttpStatus.OK));
+        assertDoesNotThrow(() -> consultar().block());
+    }
+
+    @Test
+    public void filtro_shouldHoldBulkheadPermit_untilBodyIsRead() {
+        // Los encabezados llegan de inmediato; el cuerpo, cuando se emite en el sink
+        Sinks.Many<DataBuffer> cuerpo = Sinks.many().unicast().onBackpressureBuffer();
+        respuesta.set(Mono.just(ClientResponse.create(HttpStatus.OK, ExchangeStrategies.withDefaults())
+                .body(cuerpo.asFlux())
+                .build()));
+        AtomicReference<String> leido = new AtomicReference<>();
+        webClient.get().uri("http://api/1").retrieve().bodyToMono(String.class).subscribe(leido::set);
+
+        assertThrows(BulkheadFullException.class, () -> consultar().block());
+
+        cuerpo.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap("ok".getBytes(StandardCharsets.UTF_8)));
+        cuerpo.tryEmitComplete();
+        assertEquals("ok", leido.get());
+        respuesta.set(estado(HttpStatus.OK));
+        assertDoesNotThrow(() -> consultar().block());
+        assertEquals(2, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    public void filtro_shouldCountBodyReadErrorsAsFailures() {
+        respuesta.set(Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK, ExchangeStrategies.withDefaults())
+                .body(Flux.error(new IOException("Conexión cerrada")))
+                .build()));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class,
+                    () -> webClient.get().uri("http://api/1").retrieve().bodyToMono(String.class).block());
+        }
+
+        assertEquals(4, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void medicion_shouldTagCallsByOutcomeAndStatus() {
+        respuesta.set(estado(HttpStatus.OK));
+        consultar().block();
+        respuesta.set(estado(HttpStatus.NOT_FOUND));
+        assertThrows(WebClientResponseException.NotFound.class, () -> consultar().block());
+        // Dos fallos de cuatro llamadas abren el circuito
+        respuesta.set(estado(HttpStatus.SERVICE_UNAVAILABLE));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WebClientResponseException.ServiceUnavailable.class, () -> consultar().block());
+        }
+        assertThrows(CallNotPermittedException.class, () -> consultar().block());
+
+        assertEquals(1, llamadas("SUCCESS", "200"));
+        assertEquals(1, llamadas("CLIENT_ERROR", "404"));
+        assertEquals(2, llamadas("SERVER_ERROR", "503"));
+        assertEquals(1, llamadas("RECHAZADA", "NONE"));
+    }
+
+    @Test
+    public void proveedor_shouldBeSharedPerApi() {
+        ResilienciaDownstream resiliencia = new ResilienciaDownstream(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+                new SimpleMeterRegistry());
+        PoolConexiones pool = new PoolConexiones();
+        pool.setMaxConexiones(7);
+        try {
+            ConnectionProvider proveedor = resiliencia.proveedor(ResilienciaDownstream.ESTADO, pool);
+
+            assertEquals(7, proveedor.maxConnections());
+            assertSame(proveedor, resiliencia.proveedor(ResilienciaDownstream.ESTADO, new PoolConexiones()));
+            assertNotSame(proveedor, resiliencia.proveedor(ResilienciaDownstream.FOTO, pool));
+        } finally {
+            resiliencia.cerrar();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.SAFE_Rescue.API_Perfiles.config;
+
+import com.SAFE_Rescue.API_Perfiles.service.EstadoCacheService;
+import com.SAFE_Rescue.API_Perfiles.service.NormalizadorImagenes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WebClienteConfigTest {
+
+    @Mock
+    private ResilienciaDownstream resiliencia;
+
+    @Mock
+    private EstadoCacheService estadoCacheService;
+
+    @Mock
+    private NormalizadorImagenes normalizadorImagenes;
+
+    @Mock
+    private MultipartFile archivo;
+
+    // Cuerpo recibido por la API de fotos simulada
+    private final AtomicReference<String> cuerpoRecibido = new AtomicReference<>();
+
+    private WebClienteConfig webClienteConfig;
+
+    @BeforeEach
+    public void setUp() {
+        when(resiliencia.configurar(any(), any(), any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // Por defecto la foto se envía tal como llega
+        lenient().when(normalizadorImagenes.normalizar(any(), any(), any())).thenAnswer(invocation ->
+                new NormalizadorImagenes.Imagen(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        webClienteConfig = new WebClienteConfig("http://fotos", Duration.ofSeconds(2), Duration.ofSeconds(30),
+                builderConCaptura(), WebClient.create(), new PoolConexiones(), resiliencia, estadoCacheService, normalizadorImagenes);
+    }
+
+    // API de fotos simulada: guarda el cuerpo recibido y responde con la URL de la foto
+    private WebClient.Builder builderConCaptura() {
+        return WebClient.builder()
+                .exchangeFunction(peticion -> {
+                    MockClientHttpRequest recibida = new MockClientHttpRequest(HttpMethod.POST, peticion.url());
+                    return peticion.writeTo(recibida, ExchangeStrategies.withDefaults())
+                            .then(Mono.defer(recibida::getBodyAsString))
+                            .doOnNext(cuerpoRecibido::set)
+                            .thenReturn(ClientResponse.create(HttpStatus.OK).body("http://fotos/1.jpg").build());
+                });
+    }
+
+    @Test
+    public void uploadFoto_shouldStreamFileWithoutBufferingIt() throws IOException {
+        String contenido = "x".repeat(100_000);
+        when(archivo.isEmpty()).thenReturn(false);
+        when(archivo.getInputStream()).thenReturn(new ByteArrayInputStream(contenido.getBytes()));
+        when(archivo.getOriginalFilename()).thenReturn("foto.jpg");
+        when(archivo.getContentType()).thenReturn("image/jpeg");
+
+        assertEquals("http://fotos/1.jpg", webClienteConfig.uploadFoto(archivo));
+
+        String cuerpo = cuerpoRecibido.get();
+        assertTrue(cuerpo.contains("name=\"file\"; filename=\"foto.jpg\""));
+        assertTrue(cuerpo.contains("Content-Type: image/jpeg"));
+        assertTrue(cuerpo.contains(contenido));
+        verify(archivo, never()).getBytes();
+    }
+
+    @Test
+    public void uploadFoto_shouldSendNormalizedImage() {
+        when(archivo.isEmpty()).thenReturn(false);
+        when(archivo.getOriginalFilename()).thenReturn("foto.png");
+        when(archivo.getContentType()).thenReturn("image/png");
+        when(normalizadorImagenes.normalizar(archivo, "foto.png", "image/png")).thenReturn(
+                new NormalizadorImagenes.Imagen(new ByteArrayResource("reducida".getBytes()), "foto.jpg", "image/jpeg"));
+
+        assertEquals("http://fotos/1.jpg", webClienteConfig.uploadFoto(archivo));
+
+        String cuerpo = cuerpoRecibido.get();
+        assertTrue(cuerpo.contains("name=\"file\"; filename=\"foto.jpg\""));
+        assertTrue(cuerpo.contains("Content-Type: image/jpeg"));
+        assertTrue(cuerpo.contains("reducida"));
+    }
+
+    @Test
+    public void uploadFoto_shouldNotForwardMetadata_whenImageCannotBeDecoded() {
+        NormalizadorImagenes normalizadorReal = new NormalizadorImagenes(true, 1024, 1024, "jpeg", 0.8f, 0,
+                new SimpleMeterRegistry());
+        webClienteConfig = new WebClienteConfig("http://fotos", Duration.ofSeconds(2), Duration.ofSeconds(30),
+                builderConCaptura(), WebClient.create(), new PoolConexiones(), resiliencia, estadoCacheService, normalizadorReal);
+        // JPEG con su segmento EXIF (con datos GPS), pero sin tablas ni datos de imagen: no se puede decodificar
+        byte[] exif = "Exif\0\0GPSLatitude=-33.4489".getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.write(0xFF);
+        jpeg.write(0xD8);
+        jpeg.write(0xFF);
+        jpeg.write(0xE1);
+        jpeg.write((exif.length + 2) >> 8);
+        jpeg.write((exif.length + 2) & 0xFF);
+        jpeg.writeBytes(exif);
+
+        try {
+            assertThrows(IllegalArgumentException.class, () ->
+                    webClienteConfig.uploadFoto(new ByteArrayResource(jpeg.toByteArray()), "foto.jpg", "image/jpeg"));
+        } finally {
+            normalizadorReal.cerrar();
+        }
+
+        assertNull(cuerpoRecibido.get(), "La foto no debe llegar a la API de fotos");
+    }
+
+    @Test
+    public void uploadFoto_shouldReportReadErrors() throws IOException {
+        when(archivo.isEmpty()).thenReturn(false);
+        when(archivo.getInputStream()).thenReturn(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Disco no disponible");
+            }
+        });
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> webClienteConfig.uploadFoto(archivo));
+        assertEquals("Error al leer el archivo de la foto: Disco no disponible", error.getMessage());
+    }
+
+    @Test
+    public void uploadFoto_shouldRejectEmptyFile() {
+        when(archivo.isEmpty()).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () -> webClienteConfig.uploadFoto(archivo));
+    }
+}
@@ -4,6 +4,9 @@ import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
 import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
 import com.SAFE_Rescue.API_Perfiles.service.BomberoService;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import net.datafaker.Faker;
@@ -11,17 +14,27 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -83,6 +96,7 @@ public class BomberoControllerTest {
 
         mockMvc.perform(get("/api-perfiles/v1/bomberos/{id}", id))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.idUsuario").value(bombero.getIdUsuario()))
                 .andExpect(jsonPath("$.run").value(bombero.getRun()));
     }
@@ -100,7 +114,7 @@ public class BomberoControllerTest {
 
     @Test
     public void actualizarBomberoTest() throws Exception {
-        when(bomberoService.update(any(Bombero.class), eq(id))).thenReturn(bombero);
+        when(bomberoService.update(any(Bombero.class), eq(id), isNull())).thenReturn(bombero);
 
         mockMvc.perform(put("/api-perfiles/v1/bomberos/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -109,6 +123,101 @@ public class BomberoControllerTest {
                 .andExpect(content().string("Actualizado con éxito"));
     }
 
+    @Test
+    public void actualizarBomberoTest_ConIfMatch() throws Exception {
+        Bombero actualizado = new Bombero();
+        actualizado.setVersion(4);
+        when(bomberoService.update(any(Bombero.class), eq(id), eq(3L))).thenReturn(actualizado);
+
+        mockMvc.perform(put("/api-perfiles/v1/bomberos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void actualizarBomberoReactivoTest_ConIfMatch() throws Exception {
+        Bombero actualizado = new Bombero();
+        actualizado.setVersion(4);
+        when(bomberoService.updateReactivo(any(Bombero.class), eq(id), eq(3L))).thenReturn(Mono.just(actualizado));
+
+        MvcResult resultado = mockMvc.perform(put("/api-perfiles/v1/bomberos/reactivo/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void actualizarBomberoParcialTest() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/bomberos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Matías\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string("Actualizado con éxito"));
+
+        // El cuerpo llega al servicio como el objeto JSON enviado, sin completar los demás campos
+        verify(bomberoService).patch(eq(id), eq(objectMapper.readTree("{\"nombre\": \"Matías\"}")), eq(3L));
+        assertEquals("Matías", bombero.getNombre());
+    }
+
+    @Test
+    public void actualizarBomberoParcialTest_CuerpoNoEsObjeto() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/bomberos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"nombre\"]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Los cambios deben enviarse como un objeto JSON."));
+    }
+
+    @Test
+    public void actualizarBomberoParcialTest_BomberoNoExistente() throws Exception {
+        when(bomberoService.patch(eq(id), any(JsonNode.class), isNull()))
+                .thenThrow(new NoSuchElementException("Bombero no encontrado"));
+
+        mockMvc.perform(patch("/api-perfiles/v1/bomberos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Matías\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Bombero no encontrado"));
+    }
+
+    @Test
+    public void actualizarBomberoParcialTest_VersionObsoleta() throws Exception {
+        when(bomberoService.patch(eq(id), any(JsonNode.class), eq(2L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Bombero.class, id));
+
+        mockMvc.perform(patch("/api-perfiles/v1/bomberos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Matías\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(EtiquetaVersion.conflicto("bombero")));
+    }
+
+    // El servicio simulado aplica el parche como el real, sobre el bombero de prueba con versión 3
+    private void aplicarParche() {
+        bombero.setVersion(3);
+        when(bomberoService.patch(eq(id), any(JsonNode.class), any())).thenAnswer(invocation -> {
+            Bombero actualizado = ParcheJson.aplicar(objectMapper, bombero, invocation.getArgument(1));
+            actualizado.setVersion(actualizado.getVersion() + 1);
+            return actualizado;
+        });
+    }
+
     @Test
     public void eliminarBomberoTest() throws Exception {
         doNothing().when(bomberoService).delete(id);
@@ -150,7 +259,7 @@ public class BomberoControllerTest {
 
     @Test
     public void actualizarBomberoTest_BomberoNoExistente() throws Exception {
-        when(bomberoService.update(any(Bombero.class), eq(id))).thenThrow(new NoSuchElementException("Bombero no encontrado"));
+        when(bomberoService.update(any(Bombero.class), eq(id), isNull())).thenThrow(new NoSuchElementException("Bombero no encontrado"));
 
         mockMvc.perform(put("/api-perfiles/v1/bomberos/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -159,6 +268,85 @@ public class BomberoControllerTest {
                 .andExpect(content().string("Bombero no encontrado"));
     }
 
+    @Test
+    public void actualizarBomberoTest_VersionObsoleta() throws Exception {
+        // Conflicto detectado por Hibernate al hacer flush: su mensaje incluye la clase y el ID de la entidad
+        when(bomberoService.update(any(Bombero.class), eq(id), eq(2L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Bombero.class, id));
+
+        mockMvc.perform(put("/api-perfiles/v1/bomberos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(EtiquetaVersion.conflicto("bombero")));
+    }
+
+    @Test
+    public void actualizarBomberoTest_EtagDebil() throws Exception {
+        mockMvc.perform(put("/api-perfiles/v1/bomberos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(status().isBadRequest());
+
+        verify(bomberoService, never()).update(any(Bombero.class), anyInt(), any());
+    }
+
+    @Test
+    public void agregarBomberoReactivoTest_Saturado() throws Exception {
+        when(bomberoService.saveReactivo(any(Bombero.class)))
+                .thenReturn(Mono.error(new RejectedExecutionException("Scheduler JPA saturado")));
+
+        mockMvc.perform(asyncDispatch(agregarReactivo()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    public void agregarBomberoReactivoTest_DatosInvalidos() throws Exception {
+        when(bomberoService.saveReactivo(any(Bombero.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("El nombre es requerido.")));
+
+        mockMvc.perform(asyncDispatch(agregarReactivo()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("El nombre es requerido."));
+    }
+
+    @Test
+    public void agregarBomberoReactivoTest_ErrorDeBaseDeDatos() throws Exception {
+        when(bomberoService.saveReactivo(any(Bombero.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Conexión perdida")));
+
+        mockMvc.perform(asyncDispatch(agregarReactivo()))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string("Error interno del servidor."));
+    }
+
+    private MvcResult agregarReactivo() throws Exception {
+        return mockMvc.perform(post("/api-perfiles/v1/bomberos/reactivo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    @Test
+    public void actualizarBomberoReactivoTest_VersionObsoleta() throws Exception {
+        when(bomberoService.updateReactivo(any(Bombero.class), eq(id), eq(2L)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("El bombero fue modificado por otra solicitud.")));
+
+        MvcResult resultado = mockMvc.perform(put("/api-perfiles/v1/bomberos/reactivo/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bombero)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void eliminarBomberoTest_BomberoNoExistente() throws Exception {
         doThrow(new NoSuchElementException("Bombero no encontrada")).when(bomberoService).delete(id);
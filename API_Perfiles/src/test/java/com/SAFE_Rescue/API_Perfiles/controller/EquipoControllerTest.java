@@ -1,4 +1,117 @@
 package com.SAFE_Rescue.API_Perfiles.controller;
 
+import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.service.EquipoService;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EquipoController.class)
 public class EquipoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private EquipoService equipoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Equipo equipo;
+    private Integer id;
+
+    @BeforeEach
+    public void setUp() {
+        id = 1;
+
+        equipo = new Equipo();
+        equipo.setIdEquipo(id);
+        equipo.setNombre("Equipo Alfa");
+        equipo.setEstado(new Estado(1, "Activo", "Descripción"));
+        equipo.setVersion(3);
+    }
+
+    @Test
+    public void actualizarEquipoParcialTest() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/equipos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Equipo Bravo\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string("Actualizado con éxito"));
+
+        // El cuerpo llega al servicio como el objeto JSON enviado, sin completar los demás campos
+        verify(equipoService).patch(eq(id), eq(objectMapper.readTree("{\"nombre\": \"Equipo Bravo\"}")), eq(3L));
+        assertEquals("Equipo Bravo", equipo.getNombre());
+    }
+
+    @Test
+    public void actualizarEquipoParcialTest_CuerpoNoEsObjeto() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/equipos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"nombre\": \"Equipo Bravo\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Los cambios deben enviarse como un objeto JSON."));
+    }
+
+    @Test
+    public void actualizarEquipoParcialTest_EquipoNoExistente() throws Exception {
+        when(equipoService.patch(eq(id), any(JsonNode.class), isNull()))
+                .thenThrow(new NoSuchElementException("Equipo no encontrado"));
+
+        mockMvc.perform(patch("/api-perfiles/v1/equipos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Equipo Bravo\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Equipo no encontrado"));
+    }
+
+    @Test
+    public void actualizarEquipoParcialTest_VersionObsoleta() throws Exception {
+        when(equipoService.patch(eq(id), any(JsonNode.class), eq(2L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Equipo.class, id));
+
+        mockMvc.perform(patch("/api-perfiles/v1/equipos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Equipo Bravo\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(EtiquetaVersion.conflicto("equipo")));
+    }
+
+    // El servicio simulado aplica el parche como el real, sobre el equipo de prueba
+    private void aplicarParche() {
+        when(equipoService.patch(eq(id), any(JsonNode.class), any())).thenAnswer(invocation -> {
+            Equipo actualizado = ParcheJson.aplicar(objectMapper, equipo, invocation.getArgument(1));
+            actualizado.setVersion(actualizado.getVersion() + 1);
+            return actualizado;
+        });
+    }
 }
@@ -1,4 +1,135 @@
 package com.SAFE_Rescue.API_Perfiles.controller;
 
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.service.TrabajoFotoService;
+import com.SAFE_Rescue.API_Perfiles.service.UsuarioService;
+import com.SAFE_Rescue.API_Perfiles.util.EtiquetaVersion;
+import com.SAFE_Rescue.API_Perfiles.util.ParcheJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.datafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UsuarioController.class)
 public class UsuarioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UsuarioService usuarioService;
+
+    @MockitoBean
+    private TrabajoFotoService trabajoFotoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Usuario usuario;
+    private Integer id;
+
+    @BeforeEach
+    public void setUp() {
+        Faker faker = new Faker();
+        id = 1;
+
+        usuario = new Usuario();
+        usuario.setIdUsuario(id);
+        usuario.setRun(String.valueOf(faker.number().numberBetween(10000000, 99999999)));
+        usuario.setDv("9");
+        usuario.setNombre(faker.name().firstName());
+        usuario.setAPaterno(faker.name().lastName());
+        usuario.setAMaterno(faker.name().lastName());
+        usuario.setFechaRegistro(LocalDate.now());
+        usuario.setTelefono(String.valueOf(faker.number().numberBetween(100000000, 999999999)));
+        usuario.setCorreo(faker.internet().emailAddress());
+        usuario.setContrasenia(faker.internet().password());
+        usuario.setEstado(new Estado(1, "Activo", "Descripción"));
+        usuario.setTipoUsuario(new TipoUsuario(2, "Ciudadano"));
+        usuario.setVersion(3);
+    }
+
+    @Test
+    public void actualizarUsuarioParcialTest() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/usuarios/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"telefono\": \"912345678\", \"razonBaneo\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string("Actualizado con éxito"));
+
+        // El cuerpo llega al servicio como el objeto JSON enviado, incluidas las propiedades nulas
+        verify(usuarioService).patch(eq(id),
+                eq(objectMapper.readTree("{\"telefono\": \"912345678\", \"razonBaneo\": null}")), eq(3L));
+        assertEquals("912345678", usuario.getTelefono());
+    }
+
+    @Test
+    public void actualizarUsuarioParcialTest_CuerpoNoEsObjeto() throws Exception {
+        aplicarParche();
+
+        mockMvc.perform(patch("/api-perfiles/v1/usuarios/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("\"912345678\""))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Los cambios deben enviarse como un objeto JSON."));
+    }
+
+    @Test
+    public void actualizarUsuarioParcialTest_UsuarioNoExistente() throws Exception {
+        when(usuarioService.patch(eq(id), any(JsonNode.class), isNull()))
+                .thenThrow(new NoSuchElementException("Usuario no encontrado"));
+
+        mockMvc.perform(patch("/api-perfiles/v1/usuarios/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"telefono\": \"912345678\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Usuario no encontrado"));
+    }
+
+    @Test
+    public void actualizarUsuarioParcialTest_VersionObsoleta() throws Exception {
+        when(usuarioService.patch(eq(id), any(JsonNode.class), eq(2L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Usuario.class, id));
+
+        mockMvc.perform(patch("/api-perfiles/v1/usuarios/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"telefono\": \"912345678\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(EtiquetaVersion.conflicto("usuario")));
+    }
+
+    // El servicio simulado aplica el parche como el real, sobre el usuario de prueba
+    private void aplicarParche() {
+        when(usuarioService.patch(eq(id), any(JsonNode.class), any())).thenAnswer(invocation -> {
+            Usuario actualizado = ParcheJson.aplicar(objectMapper, usuario, invocation.getArgument(1));
+            actualizado.setVersion(actualizado.getVersion() + 1);
+            return actualizado;
+        });
+    }
 }
@@ -1,10 +1,13 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
 import com.SAFE_Rescue.API_Perfiles.modelo.Bombero;
 import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
 import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
 import com.SAFE_Rescue.API_Perfiles.repositoy.BomberoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +16,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -34,9 +40,17 @@ public class BomberoServiceTest {
     @Mock
     private EquipoService equipoService;
 
+    @Mock
+    private IndiceBusquedaUsuarios indiceBusquedaUsuarios;
+
+    @Mock
+    private FiltroUnicidadUsuarios filtroUnicidadUsuarios;
+
     @InjectMocks
     private BomberoService bomberoService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     private Bombero bombero;
     private Faker faker;
     private Integer id;
@@ -49,7 +63,7 @@ public class BomberoServiceTest {
         // Objetos de dependencia para la prueba
         Estado estado = new Estado(1, "Activo", "Descripción");
         TipoUsuario tipoUsuario = new TipoUsuario(1, "Bombero");
-        Equipo equipo = new Equipo(1, "Equipo 1", null, null, null, null);
+        Equipo equipo = new Equipo(1, "Equipo 1", null, null, null, null, 0);
 
         // Crear el objeto Bombero con datos simulados
         bombero = new Bombero();
@@ -69,6 +83,8 @@ public class BomberoServiceTest {
         bombero.setTipoUsuario(tipoUsuario);
         bombero.setEstado(estado);
         bombero.setEquipo(equipo);
+
+        ReflectionTestUtils.setField(bomberoService, "objectMapper", objectMapper);
     }
 
     // --- Pruebas de operaciones exitosas ---
@@ -84,6 +100,14 @@ public class BomberoServiceTest {
         verify(bomberoRepository, times(1)).findAll();
     }
 
+    @Test
+    public void findPaginaTest() {
+        when(bomberoRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(0, Limit.of(21))).thenReturn(List.of(bombero));
+        PaginaCursor<Bombero> pagina = bomberoService.findPagina(null, 20);
+        assertEquals(1, pagina.contenido().size());
+        assertNull(pagina.siguienteCursor());
+    }
+
     @Test
     public void findByIdTest() {
         when(bomberoRepository.findById(id)).thenReturn(Optional.of(bombero));
@@ -136,6 +160,7 @@ public class BomberoServiceTest {
         when(bomberoRepository.existsById(id)).thenReturn(true);
         assertDoesNotThrow(() -> bomberoService.delete(id));
         verify(bomberoRepository, times(1)).deleteById(id);
+        verify(indiceBusquedaUsuarios).eliminar(id);
     }
 
     // --- Pruebas de escenarios de error ---
@@ -166,6 +191,65 @@ public class BomberoServiceTest {
         assertThrows(IllegalArgumentException.class, () -> bomberoService.save(bombero));
     }
 
+    @Test
+    public void saveLoteTest_ValidaEquipoUnaVezYDelegaInsercion() {
+        Bombero sinEquipo = new Bombero();
+        Bombero otroDelMismoEquipo = new Bombero();
+        otroDelMismoEquipo.setEquipo(bombero.getEquipo());
+        Bombero invalido = new Bombero();
+        invalido.setNombre("");
+        doAnswer(invocation -> {
+            if ("".equals(invocation.<Bombero>getArgument(0).getNombre())) {
+                throw new IllegalArgumentException("El nombre es requerido.");
+            }
+            return null;
+        }).when(usuarioService).validarAtributosUsuario(any());
+        when(equipoService.findById(bombero.getEquipo().getIdEquipo())).thenThrow(new NoSuchElementException());
+        when(usuarioService.completarLote(any(), any())).thenAnswer(invocation ->
+                Arrays.asList(invocation.<ResultadoLote[]>getArgument(1)));
+
+        List<ResultadoLote> resultados = bomberoService.saveLote(
+                Arrays.asList(bombero, sinEquipo, otroDelMismoEquipo, invalido, null));
+
+        assertEquals(ResultadoLote.rechazado(0, "El equipo asociado no existe."), resultados.get(0));
+        assertNull(resultados.get(1));
+        assertEquals(ResultadoLote.rechazado(2, "El equipo asociado no existe."), resultados.get(2));
+        assertEquals(ResultadoLote.rechazado(3, "El nombre es requerido."), resultados.get(3));
+        assertFalse(resultados.get(4).creado());
+        // Una sola consulta por equipo distinto
+        verify(equipoService, times(1)).findById(any());
+    }
+
+    @Test
+    public void saveLoteTest_ListaVacia() {
+        assertThrows(IllegalArgumentException.class, () -> bomberoService.saveLote(List.of()));
+        verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    public void patchTest_SinCambioDeEquipo() throws Exception {
+        when(bomberoRepository.findById(id)).thenReturn(Optional.of(bombero));
+        when(bomberoRepository.save(bombero)).thenReturn(bombero);
+
+        bomberoService.patch(id, objectMapper.readTree("{\"nombre\": \"Nuevo\"}"));
+
+        assertEquals("Nuevo", bombero.getNombre());
+        assertEquals(1, bombero.getEquipo().getIdEquipo());
+        verify(equipoService, never()).findById(any());
+        verify(usuarioService).validarUnicidad(any(Bombero.class), eq(bombero));
+    }
+
+    @Test
+    public void patchTest_EquipoNoExiste() throws Exception {
+        when(bomberoRepository.findById(id)).thenReturn(Optional.of(bombero));
+        when(equipoService.findById(2)).thenThrow(new NoSuchElementException());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bomberoService.patch(id, objectMapper.readTree("{\"equipo\": {\"idEquipo\": 2}}")));
+        assertEquals(1, bombero.getEquipo().getIdEquipo());
+        verify(bomberoRepository, never()).save(any());
+    }
+
     @Test
     public void updateTest_BomberoNoEncontrado() {
         when(bomberoRepository.findById(id)).thenReturn(Optional.empty());
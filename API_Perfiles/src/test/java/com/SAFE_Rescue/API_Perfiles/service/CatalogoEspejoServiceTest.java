@@ -0,0 +1,192 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.repositoy.CompaniaRepository;
+import com.SAFE_Rescue.API_Perfiles.repositoy.EstadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogoEspejoServiceTest {
+
+    @Mock
+    private EstadoRepository estadoRepository;
+    @Mock
+    private CompaniaRepository companiaRepository;
+    @Mock
+    private EstadoCacheService estadoCacheService;
+    @Mock
+    private CompaniaCacheService companiaCacheService;
+
+    // Peticiones recibidas por la API de estados simulada
+    private final List<ClientRequest> peticionesEstados = new ArrayList<>();
+    private final AtomicReference<ClientResponse> respuestaEstados = new AtomicReference<>();
+    private final AtomicReference<Instant> ahora = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private CatalogoEspejoService catalogoEspejoService;
+
+    @BeforeEach
+    public void setUp() {
+        WebClient estadoWebClient = WebClient.builder()
+                .exchangeFunction(peticion -> {
+                    peticionesEstados.add(peticion);
+                    return Mono.just(respuestaEstados.get());
+                })
+                .build();
+        // La API de compañías no responde en estas pruebas
+        WebClient companiaWebClient = WebClient.builder()
+                .exchangeFunction(peticion -> Mono.error(new IllegalStateException("API de compañías no disponible")))
+                .build();
+        Clock reloj = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return ahora.get();
+            }
+        };
+        catalogoEspejoService = new CatalogoEspejoService(estadoWebClient, companiaWebClient, estadoRepository, companiaRepository,
+                estadoCacheService, companiaCacheService, Duration.ofMinutes(15), Duration.ofSeconds(5), true, Schedulers.immediate(), reloj);
+    }
+
+    private static ClientResponse json(String cuerpo, String etag) {
+        return ClientResponse.create(HttpStatus.OK, ExchangeStrategies.withDefaults())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, etag)
+                .body(cuerpo)
+                .build();
+    }
+
+    @Test
+    public void sincronizar_shouldSaveOnlyChangedRows() {
+        respuestaEstados.set(json("[{\"idEstado\":1,\"nombre\":\"Activo\",\"descripcion\":\"a\"},"
+                + "{\"idEstado\":2,\"nombre\":\"Inactivo\",\"descripcion\":\"b\"}]", "\"v1\""));
+        when(estadoRepository.findAll()).thenReturn(List.of(new Estado(1, "Activo", "a"), new Estado(2, "Baneado", "b")));
+
+        catalogoEspejoService.sincronizar();
+
+        verify(estadoRepository).saveAll(List.of(new Estado(2, "Inactivo", "b")));
+    }
+
+    @Test
+    public void sincronizar_shouldSkipWrites_whenNotModified() {
+        respuestaEstados.set(json("[{\"idEstado\":1,\"nombre\":\"Activo\"}]", "\"v1\""));
+        when(estadoRepository.findAll()).thenReturn(List.of());
+        catalogoEspejoService.sincronizar();
+
+        respuestaEstados.set(ClientResponse.create(HttpStatus.NOT_MODIFIED, ExchangeStrategies.withDefaults()).build());
+        catalogoEspejoService.sincronizar();
+
+        assertEquals(List.of("\"v1\""), peticionesEstados.get(1).headers().getIfNoneMatch());
+        verify(estadoRepository, times(1)).findAll();
+        verify(estadoRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void existeEstado_shouldUseMirror_whenFresh() {
+        respuestaEstados.set(json("[]", "\"v1\""));
+        catalogoEspejoService.sincronizar();
+        when(estadoRepository.existsById(1)).thenReturn(true);
+
+        assertTrue(catalogoEspejoService.existeEstado(1));
+
+        verify(estadoCacheService, never()).existeEstado(anyInt());
+    }
+
+    @Test
+    public void existeEstado_shouldFallBackToApi_whenMirrorIsStale() {
+        respuestaEstados.set(json("[]", "\"v1\""));
+        catalogoEspejoService.sincronizar();
+        ahora.set(ahora.get().plus(Duration.ofMinutes(16)));
+        when(estadoCacheService.existeEstado(1)).thenReturn(true);
+
+        assertTrue(catalogoEspejoService.existeEstado(1));
+
+        verify(estadoRepository, never()).existsById(anyInt());
+    }
+
+    @Test
+    public void existeEstadoReactivo_shouldQueryApi_whenNotInMirror() {
+        respuestaEstados.set(json("[]", "\"v1\""));
+        catalogoEspejoService.sincronizar();
+        when(estadoRepository.existsById(7)).thenReturn(false);
+        when(estadoCacheService.existeEstadoReactivo(7)).thenReturn(Mono.just(true));
+
+        assertEquals(Boolean.TRUE, catalogoEspejoService.existeEstadoReactivo(7).block());
+    }
+
+    @Test
+    public void existeCompania_shouldFallBackToApi_whenNeverSynced() {
+        catalogoEspejoService.sincronizar();
+        when(companiaCacheService.existeCompania(3)).thenReturn(false);
+
+        assertFalse(catalogoEspejoService.existeCompania(3));
+
+        verify(companiaRepository, never()).findAll();
+        verify(companiaRepository, never()).existsById(anyInt());
+    }
+
+    @Test
+    public void existeEstado_shouldUseStaleMirror_whenApiFails() {
+        respuestaEstados.set(json("[]", "\"v1\""));
+        catalogoEspejoService.sincronizar();
+        ahora.set(ahora.get().plus(Duration.ofHours(2)));
+        when(estadoCacheService.existeEstado(1)).thenThrow(new IllegalStateException("Circuito abierto"));
+        when(estadoRepository.existsById(1)).thenReturn(true);
+
+        assertTrue(catalogoEspejoService.existeEstado(1));
+    }
+
+    @Test
+    public void existeEstadoReactivo_shouldUseStaleMirror_whenApiFails() {
+        respuestaEstados.set(json("[]", "\"v1\""));
+        catalogoEspejoService.sincronizar();
+        ahora.set(ahora.get().plus(Duration.ofHours(2)));
+        when(estadoCacheService.existeEstadoReactivo(1)).thenReturn(Mono.error(new IllegalStateException("Timeout")));
+        when(estadoRepository.existsById(1)).thenReturn(true);
+
+        assertEquals(Boolean.TRUE, catalogoEspejoService.existeEstadoReactivo(1).block());
+    }
+
+    @Test
+    public void existeCompania_shouldPropagateError_whenApiFailsAndNeverSynced() {
+        catalogoEspejoService.sincronizar();
+        when(companiaCacheService.existeCompania(3)).thenThrow(new IllegalStateException("Circuito abierto"));
+
+        assertThrows(IllegalStateException.class, () -> catalogoEspejoService.existeCompania(3));
+        verify(companiaRepository, never()).existsById(anyInt());
+    }
+}
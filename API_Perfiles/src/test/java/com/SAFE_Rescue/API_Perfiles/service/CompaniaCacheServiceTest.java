@@ -0,0 +1,131 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.RequestHeadersUriSpec;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CompaniaCacheServiceTest {
+
+    @Mock
+    private WebClient companiaWebClient;
+
+    @Mock
+    private RequestHeadersUriSpec requestHeadersUriSpec;
+    @Mock
+    private ResponseSpec responseSpec;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompaniaCacheService companiaCacheService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        companiaCacheService = new CompaniaCacheService(companiaWebClient, Duration.ofMinutes(10), Duration.ofMinutes(1), 100, meterRegistry);
+
+        lenient().when(companiaWebClient.head()).thenReturn(requestHeadersUriSpec);
+        lenient().when(companiaWebClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    public void existeCompania_shouldCallApiOnlyOnce_whenRepeated() {
+        when(responseSpec.toBodilessEntity()).thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        assertTrue(companiaCacheService.existeCompania(1));
+        assertTrue(companiaCacheService.existeCompania(1));
+
+        verify(companiaWebClient, times(1)).head();
+        verify(companiaWebClient, never()).get();
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "companias").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "companias").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void existeCompania_shouldShareInFlightCall_whenConcurrent() throws Exception {
+        CompletableFuture<ResponseEntity<Void>> respuesta = new CompletableFuture<>();
+        when(responseSpec.toBodilessEntity()).thenReturn(Mono.fromFuture(respuesta));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> companiaCacheService.existeCompania(1)));
+            }
+            // La primera consulta inicia la llamada; el resto espera el mismo resultado en curso
+            verify(companiaWebClient, timeout(1000).times(1)).head();
+            respuesta.complete(ResponseEntity.ok().build());
+
+            for (Future<Boolean> resultado : resultados) {
+                assertTrue(resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(companiaWebClient, times(1)).head();
+    }
+
+    @Test
+    public void existeCompania_shouldCacheNotFound() {
+        when(responseSpec.toBodilessEntity())
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)));
+
+        assertFalse(companiaCacheService.existeCompania(99));
+        assertFalse(companiaCacheService.existeCompania(99));
+
+        verify(companiaWebClient, times(1)).head();
+    }
+
+    @Test
+    public void existeCompania_shouldFallBackToGet_whenHeadNotAllowed() {
+        when(responseSpec.toBodilessEntity())
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.METHOD_NOT_ALLOWED.value(), "Method Not Allowed", null, null, null)))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        assertTrue(companiaCacheService.existeCompania(1));
+        companiaCacheService.invalidar(1);
+        assertTrue(companiaCacheService.existeCompania(1));
+
+        // Tras el primer 405 ya no se vuelve a intentar con HEAD
+        verify(companiaWebClient, times(1)).head();
+        verify(companiaWebClient, times(2)).get();
+    }
+
+    @Test
+    public void existeCompania_shouldNotCacheCommunicationErrors() {
+        when(responseSpec.toBodilessEntity())
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null)))
+                .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        assertThrows(WebClientResponseException.class, () -> companiaCacheService.existeCompania(1));
+        assertTrue(companiaCacheService.existeCompania(1));
+
+        verify(companiaWebClient, times(2)).head();
+    }
+}
@@ -1,9 +1,12 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
+import com.SAFE_Rescue.API_Perfiles.dto.EquipoResumen;
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
 import com.SAFE_Rescue.API_Perfiles.modelo.Compania;
 import com.SAFE_Rescue.API_Perfiles.modelo.Equipo;
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoEquipo;
 import com.SAFE_Rescue.API_Perfiles.repositoy.EquipoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,22 +15,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.http.HttpStatus;
-import org.springframework.web.reactive.function.client.ClientResponse;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClient.RequestHeadersUriSpec;
-import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,20 +38,16 @@ public class EquipoServiceTest {
     private EquipoRepository equipoRepository;
 
     @Mock
-    private WebClient companiaWebClient;
+    private CatalogoEspejoService catalogoEspejoService;
 
     @Mock
     private TipoEquipoService tipoEquipoService;
 
-    // Mocks para simular la cadena de llamadas de WebClient
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
-
     @InjectMocks
     private EquipoService equipoService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private Equipo equipo;
     private Faker faker;
     private Integer id;
@@ -71,6 +68,11 @@ public class EquipoServiceTest {
         equipo.setTipoEquipo(tipoEquipo);
         equipo.setCompania(compania);
         equipo.setLider(null); // No es relevante para estas pruebas
+
+        // Las operaciones JPA de los métodos reactivos se ejecutan en el hilo de la prueba
+        ReflectionTestUtils.setField(equipoService, "jpaScheduler", Schedulers.immediate());
+        ReflectionTestUtils.setField(equipoService, "validadorConcurrente", new ValidadorConcurrente(Runnable::run, Duration.ofSeconds(5)));
+        ReflectionTestUtils.setField(equipoService, "objectMapper", objectMapper);
     }
 
     // --- Pruebas de operaciones exitosas ---
@@ -91,6 +93,22 @@ public class EquipoServiceTest {
         verify(equipoRepository, times(1)).findAll();
     }
 
+    @Test
+    public void findResumenes_shouldReturnNextCursor_whenMoreTeamsExist() {
+        // Arrange
+        EquipoResumen primero = EquipoResumen.desde(equipo);
+        EquipoResumen segundo = new EquipoResumen(id + 1, "Equipo Beta", null, null, null, null);
+        when(equipoRepository.findResumenes(0, Limit.of(2))).thenReturn(List.of(primero, segundo));
+
+        // Act
+        PaginaCursor<EquipoResumen> pagina = equipoService.findResumenes(null, 1);
+
+        // Assert
+        assertEquals(List.of(primero), pagina.contenido());
+        assertEquals("Primera Compañía", pagina.contenido().get(0).compania());
+        assertEquals(equipo.getIdEquipo(), pagina.siguienteCursor());
+    }
+
     @Test
     public void findById_shouldReturnTeam_whenTeamExists() {
         // Arrange
@@ -111,11 +129,7 @@ public class EquipoServiceTest {
         when(tipoEquipoService.findById(any())).thenReturn(equipo.getTipoEquipo());
 
         // Simular la llamada exitosa a la API externa
-        when(companiaWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just("OK"));
+        when(catalogoEspejoService.existeCompania(equipo.getCompania().getIdCompania())).thenReturn(true);
 
         when(equipoRepository.save(any(Equipo.class))).thenReturn(equipo);
 
@@ -127,7 +141,7 @@ public class EquipoServiceTest {
         assertEquals(equipo.getNombre(), guardado.getNombre());
         verify(equipoRepository, times(1)).save(equipo);
         verify(tipoEquipoService, times(1)).findById(equipo.getTipoEquipo().getIdTipoEquipo());
-        verify(companiaWebClient, times(1)).get();
+        verify(catalogoEspejoService, times(1)).existeCompania(equipo.getCompania().getIdCompania());
     }
 
     @Test
@@ -141,11 +155,7 @@ public class EquipoServiceTest {
         when(tipoEquipoService.findById(any())).thenReturn(equipo.getTipoEquipo());
 
         // Simular la llamada exitosa a la API externa
-        when(companiaWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just("OK"));
+        when(catalogoEspejoService.existeCompania(equipo.getCompania().getIdCompania())).thenReturn(true);
 
         when(equipoRepository.save(any(Equipo.class))).thenReturn(equipo);
 
@@ -158,7 +168,7 @@ public class EquipoServiceTest {
         verify(equipoRepository, times(1)).findById(id);
         verify(equipoRepository, times(1)).save(equipoExistente);
         verify(tipoEquipoService, times(1)).findById(equipo.getTipoEquipo().getIdTipoEquipo());
-        verify(companiaWebClient, times(1)).get();
+        verify(catalogoEspejoService, times(1)).existeCompania(equipo.getCompania().getIdCompania());
     }
 
     @Test
@@ -222,26 +232,132 @@ public class EquipoServiceTest {
         // Arrange
         when(tipoEquipoService.findById(any())).thenReturn(equipo.getTipoEquipo());
 
-        // Simular la cadena de WebClient
-        when(companiaWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-
-        // Configurar onStatus para que lance la excepción esperada.
-        // Usamos thenAnswer para simular el comportamiento de `onStatus` que lanza una excepción basada en el estado.
-        when(responseSpec.onStatus(any(), any())).thenAnswer(invocation -> {
-            // La excepción se lanza aquí, el código no continuará a bodyToMono
-            throw new IllegalArgumentException("La compañía asociada al equipo no existe en la API externa.");
-        });
+        // Simular que la API externa respondió 404 para la compañía
+        when(catalogoEspejoService.existeCompania(any())).thenReturn(false);
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> equipoService.save(equipo));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> equipoService.save(equipo));
+        assertEquals("La compañía asociada al equipo no existe en la API externa.", ex.getMessage());
 
         // Verify
         verify(equipoRepository, never()).save(any());
     }
 
 
+    @Test
+    public void save_shouldThrowException_whenCompanyApiFails() {
+        // Arrange
+        when(tipoEquipoService.findById(any())).thenReturn(equipo.getTipoEquipo());
+        when(catalogoEspejoService.existeCompania(any())).thenThrow(new IllegalStateException("timeout"));
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> equipoService.save(equipo));
+        assertEquals("Error al comunicarse con la API de compañías.", ex.getMessage());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void saveReactivo_shouldFail_whenExternalCompanyNotFound() {
+        when(tipoEquipoService.findById(any())).thenReturn(equipo.getTipoEquipo());
+        when(catalogoEspejoService.existeCompaniaReactivo(any())).thenReturn(Mono.just(false));
+
+        StepVerifier.create(equipoService.saveReactivo(equipo))
+                .expectErrorMessage("La compañía asociada al equipo no existe en la API externa.")
+                .verify();
+
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldFail_whenTeamNotFound() {
+        when(equipoRepository.findById(id)).thenReturn(Optional.empty());
+
+        StepVerifier.create(equipoService.updateReactivo(equipo, id))
+                .expectError(NoSuchElementException.class)
+                .verify();
+
+        verify(catalogoEspejoService, never()).existeCompaniaReactivo(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldRejectStaleVersion_beforeCallingExternalApi() {
+        equipo.setVersion(5);
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        Equipo cambios = new Equipo(id, "Equipo Beta", null, equipo.getCompania(), equipo.getTipoEquipo(), null, 0);
+
+        StepVerifier.create(equipoService.updateReactivo(cambios, id, 4L))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        verify(catalogoEspejoService, never()).existeCompaniaReactivo(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldSkipWrite_whenDataIsUnchanged() {
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        Equipo mismosDatos = new Equipo(id, equipo.getNombre(), null, new Compania(1, null),
+                new TipoEquipo(1, null), null, 0);
+
+        StepVerifier.create(equipoService.updateReactivo(mismosDatos, id, 0L))
+                .expectNext(equipo)
+                .verifyComplete();
+
+        verify(catalogoEspejoService, never()).existeCompaniaReactivo(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void update_shouldRejectStaleVersion_beforeCallingExternalApi() {
+        equipo.setVersion(5);
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        Equipo cambios = new Equipo(id, "Equipo Beta", null, equipo.getCompania(), equipo.getTipoEquipo(), null, 0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> equipoService.update(cambios, id, 4L));
+        verify(catalogoEspejoService, never()).existeCompania(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void update_shouldSkipWrite_whenDataIsUnchanged() {
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        Equipo mismosDatos = new Equipo(id, equipo.getNombre(), null, new Compania(1, null),
+                new TipoEquipo(1, null), null, 0);
+
+        Equipo resultado = equipoService.update(mismosDatos, id, 0L);
+
+        assertSame(equipo, resultado);
+        verify(catalogoEspejoService, never()).existeCompania(any());
+        verify(tipoEquipoService, never()).findById(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_shouldRenameTeam_withoutCallingExternalApi() throws Exception {
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        when(equipoRepository.save(equipo)).thenReturn(equipo);
+
+        equipoService.patch(id, objectMapper.readTree("{\"nombre\": \"Equipo Beta\"}"));
+
+        assertEquals("Equipo Beta", equipo.getNombre());
+        assertEquals(1, equipo.getCompania().getIdCompania());
+        verify(catalogoEspejoService, never()).existeCompania(any());
+        verify(tipoEquipoService, never()).findById(any());
+    }
+
+    @Test
+    public void patch_shouldValidateCompania_whenItChanges() throws Exception {
+        when(equipoRepository.findById(id)).thenReturn(Optional.of(equipo));
+        when(catalogoEspejoService.existeCompania(2)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> equipoService.patch(id, objectMapper.readTree("{\"compania\": {\"idCompania\": 2}}")));
+        assertEquals(1, equipo.getCompania().getIdCompania());
+        verify(tipoEquipoService, never()).findById(any());
+        verify(equipoRepository, never()).save(any());
+    }
+
     @Test
     public void update_shouldThrowException_whenTeamNotFound() {
         // Arrange
@@ -0,0 +1,86 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.RequestHeadersUriSpec;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EstadoCacheServiceTest {
+
+    @Mock
+    private WebClient estadoWebClient;
+
+    @Mock
+    private RequestHeadersUriSpec requestHeadersUriSpec;
+    @Mock
+    private ResponseSpec responseSpec;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EstadoCacheService estadoCacheService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        estadoCacheService = new EstadoCacheService(estadoWebClient, Duration.ofMinutes(10), Duration.ofMinutes(1), 100, meterRegistry);
+
+        when(estadoWebClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+    }
+
+    @Test
+    public void existeEstado_shouldCallApiOnlyOnce_whenRepeated() {
+        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
+                .thenReturn(Mono.just(Map.of("idEstado", 1, "nombre", "Activo")));
+
+        assertTrue(estadoCacheService.existeEstado(1));
+        assertTrue(estadoCacheService.existeEstado(1));
+
+        verify(estadoWebClient, times(1)).get();
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "estados").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "estados").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void existeEstado_shouldCacheNotFound() {
+        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)));
+
+        assertFalse(estadoCacheService.existeEstado(99));
+        assertEquals(Optional.empty(), estadoCacheService.buscarEstado(99));
+
+        verify(estadoWebClient, times(1)).get();
+    }
+
+    @Test
+    public void existeEstado_shouldNotCacheCommunicationErrors() {
+        when(responseSpec.bodyToMono(any(ParameterizedTypeReference.class)))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null)))
+                .thenReturn(Mono.just(Map.of("idEstado", 1)));
+
+        assertThrows(WebClientResponseException.class, () -> estadoCacheService.existeEstado(1));
+        assertTrue(estadoCacheService.existeEstado(1));
+
+        verify(estadoWebClient, times(2)).get();
+    }
+}
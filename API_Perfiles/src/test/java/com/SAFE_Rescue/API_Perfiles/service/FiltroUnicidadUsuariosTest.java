@@ -0,0 +1,122 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.SAFE_Rescue.API_Perfiles.service.FiltroUnicidadUsuarios.Campo.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FiltroUnicidadUsuariosTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FiltroUnicidadUsuarios filtro;
+
+    @BeforeEach
+    public void setUp() {
+        filtro = new FiltroUnicidadUsuarios(usuarioRepository, new TransactionTemplate(transactionManager),
+                1000, 0.001, meterRegistry);
+    }
+
+    private void cargarRegistrados() {
+        when(usuarioRepository.count()).thenReturn(2L);
+        when(usuarioRepository.streamRuns()).thenReturn(Stream.of("11111111", "22222222"));
+        when(usuarioRepository.streamTelefonos()).thenReturn(Stream.of("911111111", "922222222"));
+        when(usuarioRepository.streamCorreos()).thenReturn(Stream.of("José@Ejemplo.com", "ana@ejemplo.com"));
+        filtro.cargar();
+    }
+
+    private double contador(String campo, String resultado) {
+        return meterRegistry.get("usuarios.unicidad").tag("campo", campo).tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    public void puedeExistir_shouldTreatEveryValueAsPossible_untilLoaded() {
+        assertTrue(filtro.puedeExistir(RUN, "33333333"));
+    }
+
+    @Test
+    public void puedeExistir_shouldRuleOutUnregisteredValues() {
+        cargarRegistrados();
+
+        assertTrue(filtro.puedeExistir(RUN, "11111111"));
+        assertTrue(filtro.puedeExistir(TELEFONO, "922222222"));
+        assertFalse(filtro.puedeExistir(RUN, "33333333"));
+        assertFalse(filtro.puedeExistir(TELEFONO, "933333333"));
+        // Cada columna tiene su propio filtro
+        assertFalse(filtro.puedeExistir(TELEFONO, "11111111"));
+        assertEquals(1, contador("run", "descartada"));
+        assertEquals(1, contador("run", "consultada"));
+        assertEquals(2, contador("telefono", "descartada"));
+    }
+
+    @Test
+    public void puedeExistir_shouldIgnoreCaseAccentsAndSurroundingSpaces() {
+        cargarRegistrados();
+
+        // La restricción única de la base de datos podría considerar iguales estos valores
+        assertTrue(filtro.puedeExistir(CORREO, "jose@ejemplo.com"));
+        assertTrue(filtro.puedeExistir(CORREO, " ANA@ejemplo.com "));
+    }
+
+    @Test
+    public void puedeExistir_shouldMatchCompatibilityFormsAndCaseFolding() {
+        cargarRegistrados();
+        Usuario usuario = new Usuario();
+        usuario.setRun("33333333");
+        usuario.setTelefono("933333333");
+        usuario.setCorreo("\uFB01guera.strasse@ejemplo.com");
+        filtro.registrar(usuario);
+
+        // Ligadura "ﬁ", dígitos de ancho completo y "ß" frente a "ss"
+        assertTrue(filtro.puedeExistir(CORREO, "FIGUERA.STRAßE@ejemplo.com"));
+        assertTrue(filtro.puedeExistir(RUN, "\uFF13\uFF13\uFF13\uFF13\uFF13\uFF13\uFF13\uFF13"));
+    }
+
+    @Test
+    public void registrar_shouldAddSavedValues() {
+        cargarRegistrados();
+        Usuario usuario = new Usuario();
+        usuario.setRun("33333333");
+        usuario.setTelefono("933333333");
+        usuario.setCorreo("nuevo@ejemplo.com");
+
+        filtro.registrar(usuario);
+
+        assertTrue(filtro.puedeExistir(RUN, "33333333"));
+        assertTrue(filtro.puedeExistir(TELEFONO, "933333333"));
+        assertTrue(filtro.puedeExistir(CORREO, "nuevo@ejemplo.com"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void existe_shouldOnlyQueryDatabase_whenValueMayExist() {
+        cargarRegistrados();
+        Predicate<String> consulta = mock(Predicate.class);
+        when(consulta.test("11111111")).thenReturn(true);
+
+        assertFalse(filtro.existe(RUN, "33333333", consulta));
+        assertTrue(filtro.existe(RUN, "11111111", consulta));
+        verify(consulta, never()).test("33333333");
+        verify(consulta).test("11111111");
+    }
+}
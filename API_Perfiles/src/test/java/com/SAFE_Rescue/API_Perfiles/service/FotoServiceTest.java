@@ -0,0 +1,99 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.config.WebClienteConfig;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
+import com.SAFE_Rescue.API_Perfiles.repositoy.FotoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FotoServiceTest {
+
+    @Mock
+    private WebClienteConfig webClienteConfig;
+
+    @Mock
+    private FotoRepository fotoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FotoService fotoService;
+    private MockMultipartFile archivo;
+    private String hash;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fotoService = new FotoService(webClienteConfig, fotoRepository, meterRegistry);
+        archivo = new MockMultipartFile("foto", "foto.jpg", "image/jpeg", "contenido".getBytes());
+        hash = fotoService.calcularHash(archivo);
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("foto.subidas").tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    public void calcularHash_shouldReturnSha256Hex() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                fotoService.calcularHash(new ByteArrayResource(new byte[0])));
+        assertEquals(64, hash.length());
+        assertNotEquals(hash, fotoService.calcularHash(new ByteArrayResource("otro contenido".getBytes())));
+    }
+
+    @Test
+    public void subir_shouldReuseExistingPhoto_whenContentIsKnown() {
+        Foto existente = new Foto(3, "http://fotos/3.jpg", hash);
+        when(fotoRepository.findByHashContenido(hash)).thenReturn(Optional.of(existente));
+
+        assertSame(existente, fotoService.subir(archivo));
+
+        verifyNoInteractions(webClienteConfig);
+        verify(fotoRepository, never()).save(any());
+        assertEquals(1, contador("reutilizada"));
+    }
+
+    @Test
+    public void subir_shouldUploadAndRegister_whenContentIsNew() {
+        when(fotoRepository.findByHashContenido(hash)).thenReturn(Optional.empty());
+        when(webClienteConfig.uploadFoto(archivo, "foto.jpg", "image/jpeg")).thenReturn("http://fotos/4.jpg");
+        when(fotoRepository.save(any(Foto.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Foto foto = fotoService.subir(archivo);
+
+        assertEquals("http://fotos/4.jpg", foto.getUrl());
+        assertEquals(hash, foto.getHashContenido());
+        assertEquals(1, contador("subida"));
+    }
+
+    @Test
+    public void subir_shouldUseConcurrentlyRegisteredPhoto_whenHashIsDuplicated() {
+        Foto registrada = new Foto(5, "http://fotos/5.jpg", hash);
+        when(fotoRepository.findByHashContenido(hash)).thenReturn(Optional.empty(), Optional.of(registrada));
+        when(webClienteConfig.uploadFoto(eq(archivo), any(), any())).thenReturn("http://fotos/6.jpg");
+        when(fotoRepository.save(any(Foto.class))).thenThrow(new DataIntegrityViolationException("hash_contenido duplicado"));
+
+        assertSame(registrada, fotoService.subir(archivo));
+    }
+
+    @Test
+    public void subir_shouldRejectEmptyFile() {
+        MockMultipartFile vacio = new MockMultipartFile("foto", "foto.jpg", "image/jpeg", new byte[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> fotoService.subir(vacio));
+        verifyNoInteractions(webClienteConfig, fotoRepository);
+    }
+}
@@ -0,0 +1,229 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioCoincidencia;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IndiceBusquedaUsuariosTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private TaskScheduler scheduler;
+
+    private final List<UsuarioCoincidencia> registrados = new ArrayList<>(List.of(
+            new UsuarioCoincidencia(1, "José", "Muñoz", "Pérez"),
+            new UsuarioCoincidencia(2, "Josefina", "Araya", "Soto"),
+            new UsuarioCoincidencia(3, "María José", "González", "Muñoz"),
+            new UsuarioCoincidencia(4, "Pedro", "Castro", "Rojas"),
+            new UsuarioCoincidencia(5, "Ana", "Pérez", "Fuentes")));
+
+    private IndiceBusquedaUsuarios indice;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndiceBusquedaUsuarios(usuarioRepository, 2, scheduler, Duration.ofSeconds(5), Duration.ofSeconds(15));
+        // Simula la consulta por tramo de IDs (after, hasta]
+        lenient().when(usuarioRepository.findMaxIdUsuario()).thenAnswer(invocation ->
+                registrados.stream().mapToInt(UsuarioCoincidencia::idUsuario).max().orElse(0));
+        lenient().when(usuarioRepository.findNombres(anyInt(), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            int hasta = invocation.getArgument(1);
+            return registrados.stream().filter(u -> u.idUsuario() > after && u.idUsuario() <= hasta).toList();
+        });
+    }
+
+    private static List<Integer> ids(List<UsuarioCoincidencia> resultados) {
+        return resultados.stream().map(UsuarioCoincidencia::idUsuario).toList();
+    }
+
+    private static Usuario usuario(int id, String nombre, String aPaterno, String aMaterno) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(id);
+        usuario.setNombre(nombre);
+        usuario.setAPaterno(aPaterno);
+        usuario.setAMaterno(aMaterno);
+        return usuario;
+    }
+
+    @Test
+    public void reconstruir_shouldLoadAllSlicesInParallel() {
+        indice.reconstruir();
+
+        assertTrue(indice.isListo());
+        assertEquals(List.of(4), ids(indice.buscar("pedro", 10)));
+        assertEquals(List.of(5), ids(indice.buscar("fuentes", 10)));
+        verify(usuarioRepository).findNombres(eq(0), eq(3), any(Limit.class));
+        verify(usuarioRepository).findNombres(eq(3), eq(5), any(Limit.class));
+    }
+
+    @Test
+    public void reconstruir_shouldRetryWithBackoff_whenLoadFails() {
+        when(usuarioRepository.findMaxIdUsuario())
+                .thenThrow(new IllegalStateException("Base de datos no disponible"))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"))
+                .thenReturn(5);
+        ArgumentCaptor<Runnable> reintento = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> instante = ArgumentCaptor.forClass(Instant.class);
+
+        List<Long> esperas = new ArrayList<>();
+        Instant antes = Instant.now();
+        indice.reconstruir();
+        for (int falla = 1; falla <= 3; falla++) {
+            assertFalse(indice.isListo());
+            verify(scheduler, times(falla)).schedule(reintento.capture(), instante.capture());
+            esperas.add(Duration.between(antes, instante.getValue()).toSeconds());
+            antes = Instant.now();
+            reintento.getValue().run();
+        }
+
+        assertTrue(indice.isListo());
+        assertEquals(List.of(4), ids(indice.buscar("pedro", 10)));
+        // 5 s, luego el doble, con tope en el máximo configurado
+        assertEquals(List.of(5L, 10L, 15L), esperas);
+        verifyNoMoreInteractions(scheduler);
+    }
+
+    @Test
+    public void buscar_shouldIgnoreAccentsAndCase() {
+        indice.reconstruir();
+
+        assertEquals(List.of(1, 3), ids(indice.buscar("MUNOZ", 10)));
+        assertEquals(List.of(1, 3), ids(indice.buscar("muñoz", 10)));
+    }
+
+    @Test
+    public void buscar_shouldRankExactWordsBeforePrefixesAndSubstrings() {
+        indice.reconstruir();
+
+        // "jose" es palabra exacta en 1 y 3 (1 tiene el nombre más corto) y prefijo de "josefina" en 2
+        assertEquals(List.of(1, 3, 2), ids(indice.buscar("jose", 10)));
+        // Con menos de tres letras sólo coinciden los prefijos de palabra
+        assertEquals(List.of(5), ids(indice.buscar("an", 10)));
+        // Con tres o más letras también coincide dentro de la palabra
+        assertEquals(List.of(4), ids(indice.buscar("astr", 10)));
+    }
+
+    @Test
+    public void buscar_shouldRequireAllTermsAndRespectLimit() {
+        indice.reconstruir();
+
+        assertEquals(List.of(3), ids(indice.buscar("jose gonz", 10)));
+        assertEquals(List.of(1), ids(indice.buscar("jose", 1)));
+        assertTrue(indice.buscar("jose castro", 10).isEmpty());
+        assertTrue(indice.buscar("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void indexar_shouldUpdateIncrementally() {
+        indice.reconstruir();
+
+        indice.indexar(usuario(4, "Pedro", "Valdés", "Rojas"));
+        indice.indexar(usuario(6, "Camila", "Castro", "Díaz"));
+        indice.eliminar(5);
+
+        assertTrue(indice.buscar("castro pedro", 10).isEmpty());
+        assertEquals(List.of(4), ids(indice.buscar("valdes", 10)));
+        assertEquals(List.of(6), ids(indice.buscar("castro", 10)));
+        assertTrue(indice.buscar("ana", 10).isEmpty());
+    }
+
+    @Test
+    public void reconstruir_shouldNotOverwriteChangesMadeWhileLoading() {
+        // Mientras se lee la base de datos, el usuario 4 se modifica y el 5 se elimina
+        when(usuarioRepository.findNombres(anyInt(), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            int hasta = invocation.getArgument(1);
+            List<UsuarioCoincidencia> pagina = registrados.stream()
+                    .filter(u -> u.idUsuario() > after && u.idUsuario() <= hasta).toList();
+            if (hasta == 5) {
+                indice.indexar(usuario(4, "Pedro", "Valdés", "Rojas"));
+                indice.eliminar(5);
+            }
+            return pagina;
+        });
+
+        indice.reconstruir();
+
+        assertEquals(List.of(4), ids(indice.buscar("valdes", 10)));
+        assertTrue(indice.buscar("castro", 10).isEmpty());
+        assertTrue(indice.buscar("fuentes", 10).isEmpty());
+    }
+
+    @Test
+    public void indexar_shouldNotLoseEntries_whenTrigramSetIsEmptiedConcurrently() throws Exception {
+        indice.reconstruir();
+        // Varios hilos agregan y quitan usuarios con el mismo nombre: cada baja puede vaciar los conjuntos de
+        // trigramas compartidos justo cuando el otro hilo agrega su ID
+        AtomicInteger perdidos = new AtomicInteger();
+        int cantidadHilos = 4;
+        CyclicBarrier inicio = new CyclicBarrier(cantidadHilos);
+        ExecutorService hilos = Executors.newFixedThreadPool(cantidadHilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int hilo = 0; hilo < cantidadHilos; hilo++) {
+                int primerId = 100 + hilo;
+                tareas.add(hilos.submit(() -> {
+                    inicio.await();
+                    for (int id = primerId; id < primerId + 200_000; id += cantidadHilos) {
+                        indice.indexar(usuario(id, "Zoe", "Ulloa", "Ibáñez"));
+                        if (!ids(indice.buscar("zoe", 10)).contains(id)) {
+                            perdidos.incrementAndGet();
+                        }
+                        indice.eliminar(id);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        assertEquals(0, perdidos.get());
+        assertTrue(indice.buscar("zoe", 10).isEmpty());
+    }
+
+    @Test
+    public void buscar_shouldThrowException_whileBuilding() {
+        assertThrows(IllegalStateException.class, () -> indice.buscar("jose", 10));
+    }
+
+    @Test
+    public void buscar_shouldRejectInvalidArguments() {
+        indice.reconstruir();
+
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar(" ,.- ", 10));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("jose", 0));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("jose", IndiceBusquedaUsuarios.LIMITE_MAXIMO + 1));
+    }
+}
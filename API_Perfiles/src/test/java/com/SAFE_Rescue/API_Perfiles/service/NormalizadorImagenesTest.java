@@ -0,0 +1,156 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NormalizadorImagenesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NormalizadorImagenes normalizador;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        normalizador = crearNormalizador(true);
+    }
+
+    private NormalizadorImagenes crearNormalizador(boolean habilitada) {
+        return new NormalizadorImagenes(habilitada, 1024, 1024, "jpeg", 0.8f, Runnable::run, meterRegistry);
+    }
+
+    private static byte[] codificar(BufferedImage imagen, String formato) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, formato, salida);
+        return salida.toByteArray();
+    }
+
+    private static BufferedImage leer(NormalizadorImagenes.Imagen imagen) throws IOException {
+        return ImageIO.read(imagen.contenido().getInputStream());
+    }
+
+    // Segmento APP1 "Exif" con una sola entrada de orientación en el IFD0
+    private static byte[] segmentoExif(int orientacion, ByteOrder orden) {
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(orden);
+        tiff.put(orden == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.put(orden == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientacion).putShort((short) 0);
+        tiff.putInt(0);
+        byte[] datos = new byte[6 + tiff.capacity()];
+        System.arraycopy("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), 0, datos, 0, 6);
+        System.arraycopy(tiff.array(), 0, datos, 6, tiff.capacity());
+        return datos;
+    }
+
+    // Inserta el segmento APP1 después del segmento JFIF (APP0) del JPEG, como lo hacen las cámaras
+    private static byte[] conExif(byte[] jpeg, byte[] exif) {
+        int finApp0 = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        salida.write(jpeg, 0, finApp0);
+        salida.write(0xFF);
+        salida.write(0xE1);
+        salida.write((exif.length + 2) >> 8);
+        salida.write((exif.length + 2) & 0xFF);
+        salida.write(exif, 0, exif.length);
+        salida.write(jpeg, finApp0, jpeg.length - finApp0);
+        return salida.toByteArray();
+    }
+
+    @Test
+    public void normalizar_shouldDownscaleAndRecompressAsJpeg() throws IOException {
+        BufferedImage original = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_ARGB);
+        byte[] png = codificar(original, "png");
+
+        NormalizadorImagenes.Imagen resultado = normalizador.normalizar(new ByteArrayResource(png), "perfil.png", "image/png");
+
+        assertEquals("perfil.jpg", resultado.nombreArchivo());
+        assertEquals("image/jpeg", resultado.tipoContenido());
+        BufferedImage imagen = leer(resultado);
+        assertEquals(1024, imagen.getWidth());
+        assertEquals(683, imagen.getHeight());
+        assertEquals(1, meterRegistry.get("foto.normalizacion").tag("resultado", "normalizada").timer().count());
+    }
+
+    @Test
+    public void normalizar_shouldApplyExifOrientationAndStripMetadata() throws IOException {
+        BufferedImage original = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        // Esquina superior izquierda roja: con orientación 6 (girar 90° a la derecha) queda arriba a la derecha
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 40; y++) {
+                original.setRGB(x, y, Color.RED.getRGB());
+            }
+        }
+        byte[] jpeg = conExif(codificar(original, "jpeg"), segmentoExif(6, ByteOrder.BIG_ENDIAN));
+
+        NormalizadorImagenes.Imagen resultado = normalizador.normalizar(new ByteArrayResource(jpeg), "foto.jpg", "image/jpeg");
+
+        byte[] contenido = resultado.contenido().getInputStream().readAllBytes();
+        BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(contenido));
+        assertEquals(200, imagen.getWidth());
+        assertEquals(400, imagen.getHeight());
+        assertTrue(new Color(imagen.getRGB(190, 10)).getRed() > 200);
+        assertTrue(new Color(imagen.getRGB(10, 10)).getRed() < 50);
+        assertFalse(new String(contenido, StandardCharsets.ISO_8859_1).contains("Exif"));
+    }
+
+    @Test
+    public void normalizar_shouldReject_whenFormatIsNotReadable() {
+        ByteArrayResource heic = new ByteArrayResource("no es una imagen legible".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> normalizador.normalizar(heic, "foto.heic", "image/heic"));
+        assertEquals(1, meterRegistry.get("foto.normalizacion").tag("resultado", "rechazada").timer().count());
+    }
+
+    @Test
+    public void normalizar_shouldReject_whenImageCannotBeDecoded() throws IOException {
+        byte[] exif = segmentoExif(6, ByteOrder.BIG_ENDIAN);
+        byte[] jpeg = conExif(codificar(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "jpeg"), exif);
+        // Truncada justo después del EXIF: se reconoce como JPEG, pero no tiene tablas ni datos de imagen
+        int finApp0 = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF));
+        byte[] truncada = Arrays.copyOf(jpeg, finApp0 + 4 + exif.length);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> normalizador.normalizar(new ByteArrayResource(truncada), "foto.jpg", "image/jpeg"));
+        assertTrue(ex.getMessage().contains("dañada"));
+        assertEquals(1, meterRegistry.get("foto.normalizacion").tag("resultado", "rechazada").timer().count());
+    }
+
+    @Test
+    public void normalizar_shouldKeepOriginal_whenDisabled() throws IOException {
+        normalizador = crearNormalizador(false);
+        ByteArrayResource png = new ByteArrayResource(codificar(new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB), "png"));
+
+        NormalizadorImagenes.Imagen resultado = normalizador.normalizar(png, "foto.png", "image/png");
+
+        assertSame(png, resultado.contenido());
+        assertEquals("image/png", resultado.tipoContenido());
+    }
+
+    @Test
+    public void orientacionExif_shouldReadLittleEndianSegments() {
+        assertEquals(8, NormalizadorImagenes.orientacionExif(segmentoExif(8, ByteOrder.LITTLE_ENDIAN)));
+        assertEquals(0, NormalizadorImagenes.orientacionExif("Exif".getBytes()));
+    }
+
+    @Test
+    public void constructor_shouldRejectFormatsWithoutEncoder() {
+        assertThrows(IllegalStateException.class,
+                () -> new NormalizadorImagenes(true, 1024, 1024, "webp", 0.8f, Runnable::run, meterRegistry));
+    }
+}
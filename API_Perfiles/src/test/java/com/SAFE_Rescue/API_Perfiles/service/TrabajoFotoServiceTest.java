@@ -0,0 +1,162 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.dto.TrabajoFoto;
+import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrabajoFotoServiceTest {
+
+    @Mock
+    private FotoService fotoService;
+
+    @Mock
+    private UsuarioService usuarioService;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @TempDir
+    private Path directorio;
+
+    private final Foto foto = new Foto(7, "http://fotos/1.jpg", "hash");
+
+    private final MockMultipartFile archivo = new MockMultipartFile("foto", "foto.jpg", "image/jpeg", "contenido".getBytes());
+
+    private TrabajoFotoService trabajoFotoService;
+
+    @BeforeEach
+    public void setUp() {
+        trabajoFotoService = crearServicio(Runnable::run);
+    }
+
+    private TrabajoFotoService crearServicio(Executor trabajadores) {
+        return new TrabajoFotoService(fotoService, usuarioService, usuarioRepository, trabajadores, directorio,
+                3, Duration.ZERO, Duration.ofHours(1), Clock.systemUTC());
+    }
+
+    private TrabajoFoto esperarFin(TrabajoFoto trabajo) {
+        return await().atMost(Duration.ofSeconds(5))
+                .until(() -> trabajoFotoService.buscar(trabajo.idUsuario(), trabajo.id()),
+                        t -> t.estado() == TrabajoFoto.Estado.COMPLETADO || t.estado() == TrabajoFoto.Estado.FALLIDO);
+    }
+
+    private long archivosPendientes() throws IOException {
+        try (var archivos = Files.list(directorio)) {
+            return archivos.count();
+        }
+    }
+
+    @Test
+    public void encolar_shouldUploadSpooledFileAndUpdateUser() throws IOException {
+        AtomicReference<String> contenidoSubido = new AtomicReference<>();
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+        when(fotoService.subir(any(InputStreamSource.class), eq("foto.jpg"), eq("image/jpeg"))).thenAnswer(invocation -> {
+            contenidoSubido.set(new String(invocation.<InputStreamSource>getArgument(0).getInputStream().readAllBytes()));
+            return foto;
+        });
+
+        TrabajoFoto trabajo = trabajoFotoService.encolar(1, archivo);
+        TrabajoFoto terminado = esperarFin(trabajo);
+
+        assertEquals(TrabajoFoto.Estado.COMPLETADO, terminado.estado());
+        assertEquals("http://fotos/1.jpg", terminado.url());
+        assertEquals("contenido", contenidoSubido.get());
+        verify(usuarioService).asignarFoto(1, foto);
+        assertEquals(0, archivosPendientes());
+    }
+
+    @Test
+    public void encolar_shouldRetryTransientErrors() {
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+        when(fotoService.subir(any(InputStreamSource.class), any(), any()))
+                .thenThrow(new RuntimeException("API de fotos no disponible"))
+                .thenReturn(foto);
+
+        TrabajoFoto terminado = esperarFin(trabajoFotoService.encolar(1, archivo));
+
+        assertEquals(TrabajoFoto.Estado.COMPLETADO, terminado.estado());
+        assertEquals(2, terminado.intentos());
+    }
+
+    @Test
+    public void encolar_shouldFail_afterMaxAttempts() throws IOException {
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+        when(fotoService.subir(any(InputStreamSource.class), any(), any()))
+                .thenThrow(new RuntimeException("API de fotos no disponible"));
+
+        TrabajoFoto terminado = esperarFin(trabajoFotoService.encolar(1, archivo));
+
+        assertEquals(TrabajoFoto.Estado.FALLIDO, terminado.estado());
+        assertEquals(3, terminado.intentos());
+        assertEquals("API de fotos no disponible", terminado.error());
+        verify(usuarioService, never()).asignarFoto(any(), any());
+        assertEquals(0, archivosPendientes());
+    }
+
+    @Test
+    public void encolar_shouldNotRetry_whenUserWasDeleted() {
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+        when(fotoService.subir(any(InputStreamSource.class), any(), any())).thenReturn(foto);
+        doThrow(new NoSuchElementException("Usuario no encontrado con ID: 1")).when(usuarioService).asignarFoto(any(), any());
+
+        TrabajoFoto terminado = esperarFin(trabajoFotoService.encolar(1, archivo));
+
+        assertEquals(TrabajoFoto.Estado.FALLIDO, terminado.estado());
+        assertEquals(1, terminado.intentos());
+    }
+
+    @Test
+    public void encolar_shouldThrowException_whenUserNotFound() throws IOException {
+        when(usuarioRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> trabajoFotoService.encolar(1, archivo));
+        assertEquals(0, archivosPendientes());
+    }
+
+    @Test
+    public void encolar_shouldThrowException_whenQueueIsFull() throws IOException {
+        trabajoFotoService = crearServicio(tarea -> {
+            throw new RejectedExecutionException();
+        });
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> trabajoFotoService.encolar(1, archivo));
+        assertEquals(0, archivosPendientes());
+    }
+
+    @Test
+    public void buscar_shouldNotExposeOtherUsersJobs() {
+        trabajoFotoService = crearServicio(tarea -> {
+        });
+        when(usuarioRepository.existsById(1)).thenReturn(true);
+        TrabajoFoto trabajo = trabajoFotoService.encolar(1, archivo);
+
+        assertEquals(TrabajoFoto.Estado.PENDIENTE, trabajoFotoService.buscar(1, trabajo.id()).estado());
+        assertThrows(NoSuchElementException.class, () -> trabajoFotoService.buscar(2, trabajo.id()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import com.SAFE_Rescue.API_Perfiles.ApiPerfilesApplication;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
+import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
+import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
+import com.SAFE_Rescue.API_Perfiles.repositoy.EstadoRepository;
+import com.SAFE_Rescue.API_Perfiles.repositoy.TipoUsuarioRepository;
+import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inserción en lote contra H2 (la misma base en memoria de la prueba de carga): verifica que un conflicto de
+ * unicidad detectado recién al enviar los INSERT se resuelva reintentando uno a uno, como ocurre cuando otra
+ * instancia inserta el mismo RUN después de las verificaciones previas.
+ */
+@SpringBootTest(classes = ApiPerfilesApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:lote;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+public class UsuarioServiceLoteH2Test {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TipoUsuarioRepository tipoUsuarioRepository;
+
+    @Autowired
+    private EstadoRepository estadoRepository;
+
+    // Evita llamar a la API de Configuraciones
+    @MockitoBean
+    private CatalogoEspejoService catalogoEspejoService;
+
+    private TipoUsuario tipoUsuario;
+    private Estado estado;
+
+    @BeforeEach
+    public void setUp() {
+        usuarioRepository.deleteAll();
+        tipoUsuario = tipoUsuarioRepository.save(new TipoUsuario(0, "Ciudadano"));
+        estado = estadoRepository.save(new Estado(1, "Activo", "Usuario activo"));
+        when(catalogoEspejoService.existeEstado(any())).thenReturn(true);
+    }
+
+    private Usuario nuevoUsuario(String run, String telefono, String correo) {
+        Usuario usuario = new Usuario();
+        usuario.setRun(run);
+        usuario.setDv("1");
+        usuario.setNombre("Ana");
+        usuario.setAPaterno("Muñoz");
+        usuario.setAMaterno("Rojas");
+        usuario.setFechaRegistro(LocalDate.now());
+        usuario.setTelefono(telefono);
+        usuario.setCorreo(correo);
+        usuario.setContrasenia("Clave1234!");
+        usuario.setTipoUsuario(tipoUsuario);
+        usuario.setEstado(estado);
+        return usuario;
+    }
+
+    @Test
+    public void saveLote_shouldRetryOneByOne_whenInsertConflictsAtFlush() {
+        // Insertado directamente, sin pasar por el filtro de unicidad: las verificaciones previas no lo ven
+        usuarioRepository.save(nuevoUsuario("11111111", "911111111", "existente@ejemplo.com"));
+        Usuario nuevo = nuevoUsuario("22222222", "922222222", "nuevo@ejemplo.com");
+        Usuario conflicto = nuevoUsuario("11111111", "933333333", "conflicto@ejemplo.com");
+
+        List<ResultadoLote> resultados = usuarioService.saveLote(List.of(nuevo, conflicto));
+
+        assertTrue(resultados.get(0).creado());
+        assertTrue(usuarioRepository.existsById(resultados.get(0).id()));
+        assertFalse(resultados.get(1).creado());
+        assertEquals(2, usuarioRepository.count());
+    }
+}
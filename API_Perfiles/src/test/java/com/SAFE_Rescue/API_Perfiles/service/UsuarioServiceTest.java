@@ -1,11 +1,15 @@
 package com.SAFE_Rescue.API_Perfiles.service;
 
-import com.SAFE_Rescue.API_Perfiles.config.WebClienteConfig;
+import com.SAFE_Rescue.API_Perfiles.dto.PaginaCursor;
+import com.SAFE_Rescue.API_Perfiles.dto.ResultadoLote;
+import com.SAFE_Rescue.API_Perfiles.dto.UsuarioResumen;
 import com.SAFE_Rescue.API_Perfiles.modelo.Estado;
 import com.SAFE_Rescue.API_Perfiles.modelo.Foto;
 import com.SAFE_Rescue.API_Perfiles.modelo.TipoUsuario;
 import com.SAFE_Rescue.API_Perfiles.modelo.Usuario;
 import com.SAFE_Rescue.API_Perfiles.repositoy.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,24 +18,30 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClient.RequestBodySpec;
-import org.springframework.web.reactive.function.client.WebClient.RequestHeadersUriSpec;
-import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,21 +54,28 @@ public class UsuarioServiceTest {
     private TipoUsuarioService tipoUsuarioService;
 
     @Mock
-    private WebClient estadoWebClient;
+    private CatalogoEspejoService catalogoEspejoService;
 
     @Mock
-    private WebClienteConfig webClienteConfig;
+    private FotoService fotoService;
 
     @Mock
-    private RequestHeadersUriSpec requestHeadersUriSpec;
+    private EntityManager entityManager;
+
     @Mock
-    private RequestBodySpec requestBodySpec;
+    private TransactionTemplate transactionTemplate;
+
     @Mock
-    private ResponseSpec responseSpec;
+    private IndiceBusquedaUsuarios indiceBusquedaUsuarios;
+
+    @Mock
+    private FiltroUnicidadUsuarios filtroUnicidadUsuarios;
 
     @InjectMocks
     private UsuarioService usuarioService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     private Usuario usuario;
     private Faker faker;
     private Integer id;
@@ -90,6 +107,16 @@ public class UsuarioServiceTest {
         usuario.setTipoUsuario(tipoUsuario);
         usuario.setEstado(estado);
         usuario.setFoto(new Foto()); // Inicializar el objeto Foto para evitar NullPointerException
+
+        // Las operaciones JPA de los métodos reactivos se ejecutan en el hilo de la prueba
+        ReflectionTestUtils.setField(usuarioService, "jpaScheduler", Schedulers.immediate());
+        ReflectionTestUtils.setField(usuarioService, "validadorConcurrente", new ValidadorConcurrente(Runnable::run, Duration.ofSeconds(5)));
+        ReflectionTestUtils.setField(usuarioService, "objectMapper", objectMapper);
+
+        // Por defecto el filtro de unicidad no descarta ningún valor: siempre se consulta la base de datos
+        lenient().when(filtroUnicidadUsuarios.puedeExistir(any(), any())).thenReturn(true);
+        lenient().when(filtroUnicidadUsuarios.existe(any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Predicate<String>>getArgument(2).test(invocation.getArgument(1)));
     }
 
     // --- Pruebas de operaciones CRUD exitosas ---
@@ -105,6 +132,63 @@ public class UsuarioServiceTest {
         verify(usuarioRepository, times(1)).findAll();
     }
 
+    @Test
+    public void findPagina_shouldReturnNextCursor_whenMoreUsersExist() {
+        Usuario siguiente = new Usuario();
+        siguiente.setIdUsuario(id + 1);
+        when(usuarioRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(0, Limit.of(2)))
+                .thenReturn(List.of(usuario, siguiente));
+
+        PaginaCursor<Usuario> pagina = usuarioService.findPagina(null, 1);
+
+        assertEquals(1, pagina.contenido().size());
+        assertEquals(usuario.getIdUsuario(), pagina.contenido().get(0).getIdUsuario());
+        assertEquals(usuario.getIdUsuario(), pagina.siguienteCursor());
+    }
+
+    @Test
+    public void findPagina_shouldReturnNullCursor_whenLastPage() {
+        when(usuarioRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(id, Limit.of(11)))
+                .thenReturn(List.of(usuario));
+
+        PaginaCursor<Usuario> pagina = usuarioService.findPagina(id, 10);
+
+        assertEquals(1, pagina.contenido().size());
+        assertNull(pagina.siguienteCursor());
+    }
+
+    @Test
+    public void findPagina_shouldThrowException_whenLimitOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.findPagina(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.findPagina(null, PaginaCursor.LIMITE_MAXIMO + 1));
+        verify(usuarioRepository, never()).findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(anyInt(), any());
+    }
+
+    @Test
+    public void findResumenes_shouldReturnSummaryPage() {
+        UsuarioResumen resumen = UsuarioResumen.desde(usuario);
+        when(usuarioRepository.findResumenes(0, Limit.of(101))).thenReturn(List.of(resumen));
+
+        PaginaCursor<UsuarioResumen> pagina = usuarioService.findResumenes(null, 100);
+
+        assertEquals(List.of(resumen), pagina.contenido());
+        assertEquals("Activo", pagina.contenido().get(0).estado());
+        assertNull(pagina.siguienteCursor());
+        verify(usuarioRepository, never()).findAll();
+    }
+
+    @Test
+    public void exportar_shouldVisitAndDetachEveryUser() {
+        when(usuarioRepository.streamAllByOrderByIdUsuarioAsc()).thenReturn(Stream.of(usuario));
+        List<Usuario> exportados = new ArrayList<>();
+
+        usuarioService.exportar(exportados::add);
+
+        assertEquals(List.of(usuario), exportados);
+        verify(entityManager, times(1)).detach(usuario);
+        verify(entityManager, times(1)).detach(usuario.getFoto());
+    }
+
     @Test
     public void findById_shouldReturnUser_whenUserExists() {
         when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
@@ -119,11 +203,8 @@ public class UsuarioServiceTest {
         // Arrange
         when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
 
-        // Simular la llamada a la API externa para el estado
-        when(estadoWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestBodySpec); // <-- Corregido
-        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.toBodilessEntity()).thenReturn(Mono.empty());
+        // Simular la consulta del estado a través de la caché
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
 
         when(usuarioRepository.save(usuario)).thenReturn(usuario);
 
@@ -135,7 +216,8 @@ public class UsuarioServiceTest {
         assertEquals(usuario.getNombre(), guardado.getNombre());
         verify(usuarioRepository, times(1)).save(usuario);
         verify(tipoUsuarioService, times(1)).findById(usuario.getTipoUsuario().getIdTipoUsuario());
-        verify(estadoWebClient, times(1)).get();
+        verify(catalogoEspejoService, times(1)).existeEstado(usuario.getEstado().getIdEstado());
+        verify(indiceBusquedaUsuarios).indexar(usuario);
     }
 
     @Test
@@ -150,11 +232,8 @@ public class UsuarioServiceTest {
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
         when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
 
-        // Simular llamada a WebClient para el estado
-        when(estadoWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestBodySpec); // <-- Corregido
-        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.toBodilessEntity()).thenReturn(Mono.empty());
+        // Simular la consulta del estado a través de la caché
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
 
         // Act
         Usuario actualizado = usuarioService.update(usuario, id);
@@ -165,7 +244,8 @@ public class UsuarioServiceTest {
         verify(usuarioRepository, times(1)).findById(id);
         verify(usuarioRepository, times(1)).save(usuarioExistente);
         verify(tipoUsuarioService, times(1)).findById(usuario.getTipoUsuario().getIdTipoUsuario());
-        verify(estadoWebClient, times(1)).get();
+        verify(catalogoEspejoService, times(1)).existeEstado(usuario.getEstado().getIdEstado());
+        verify(indiceBusquedaUsuarios).indexar(usuario);
     }
 
     @Test
@@ -174,6 +254,7 @@ public class UsuarioServiceTest {
         assertDoesNotThrow(() -> usuarioService.delete(id));
         verify(usuarioRepository, times(1)).existsById(id);
         verify(usuarioRepository, times(1)).deleteById(id);
+        verify(indiceBusquedaUsuarios).eliminar(id);
     }
 
     // --- Pruebas de escenarios de error ---
@@ -196,11 +277,8 @@ public class UsuarioServiceTest {
         // Arrange
         when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
 
-        // Simular llamada a WebClient
-        when(estadoWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestBodySpec); // <-- Corregido
-        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.toBodilessEntity()).thenReturn(Mono.empty());
+        // Simular la consulta del estado a través de la caché
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
 
         when(usuarioRepository.save(any(Usuario.class))).thenThrow(new DataIntegrityViolationException("RUN o correo duplicado"));
 
@@ -221,11 +299,8 @@ public class UsuarioServiceTest {
     public void save_shouldThrowException_whenEstadoNotFound() {
         when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
 
-        // Simular respuesta 404 (NotFound) de la API externa
-        when(estadoWebClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyInt())).thenReturn(requestBodySpec); // <-- Corregido
-        when(requestBodySpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.toBodilessEntity()).thenThrow(new WebClientResponseException(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+        // Simular respuesta 404 (NotFound) de la API externa, resuelta por la caché
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(false);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> usuarioService.save(usuario));
@@ -233,6 +308,298 @@ public class UsuarioServiceTest {
         verify(usuarioRepository, never()).save(any());
     }
 
+    // --- Pruebas de la creación masiva ---
+
+    private Usuario copiaConDatos(String run, String telefono, String correo) {
+        Usuario copia = new Usuario();
+        copia.setRun(run);
+        copia.setDv(usuario.getDv());
+        copia.setNombre(usuario.getNombre());
+        copia.setAPaterno(usuario.getAPaterno());
+        copia.setAMaterno(usuario.getAMaterno());
+        copia.setFechaRegistro(usuario.getFechaRegistro());
+        copia.setTelefono(telefono);
+        copia.setCorreo(correo);
+        copia.setContrasenia(usuario.getContrasenia());
+        copia.setTipoUsuario(usuario.getTipoUsuario());
+        copia.setEstado(usuario.getEstado());
+        return copia;
+    }
+
+    private void simularTransacciones() {
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void saveLote_shouldReturnResultPerItem() {
+        Usuario valido = copiaConDatos("11111111", "911111111", "a@ejemplo.com");
+        Usuario repetido = copiaConDatos("11111111", "922222222", "b@ejemplo.com");
+        Usuario registrado = copiaConDatos("33333333", "933333333", "c@ejemplo.com");
+        Usuario incompleto = copiaConDatos("44444444", "944444444", "d@ejemplo.com");
+        incompleto.setNombre("");
+
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstado(any())).thenReturn(true);
+        when(usuarioRepository.findRunsRegistrados(any())).thenReturn(List.of());
+        when(usuarioRepository.findTelefonosRegistrados(any())).thenReturn(List.of());
+        when(usuarioRepository.findCorreosRegistrados(any())).thenReturn(List.of("c@ejemplo.com"));
+        simularTransacciones();
+        when(usuarioRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            valido.setIdUsuario(51);
+            return invocation.getArgument(0);
+        });
+
+        List<ResultadoLote> resultados = usuarioService.saveLote(List.of(valido, repetido, registrado, incompleto));
+
+        assertEquals(ResultadoLote.creado(0, 51), resultados.get(0));
+        assertFalse(resultados.get(1).creado());
+        assertEquals(ResultadoLote.rechazado(2, "El correo ya está registrado."), resultados.get(2));
+        assertFalse(resultados.get(3).creado());
+        verify(usuarioRepository).saveAllAndFlush(List.of(valido));
+        // Una sola consulta por tipo de usuario y estado distintos
+        verify(tipoUsuarioService, times(1)).findById(any());
+        verify(catalogoEspejoService, times(1)).existeEstado(any());
+    }
+
+    @Test
+    public void saveLote_shouldOnlyQueryValuesNotRuledOutByFilter() {
+        Usuario nuevo = copiaConDatos("11111111", "911111111", "a@ejemplo.com");
+
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstado(any())).thenReturn(true);
+        when(filtroUnicidadUsuarios.puedeExistir(eq(FiltroUnicidadUsuarios.Campo.RUN), any())).thenReturn(false);
+        when(filtroUnicidadUsuarios.puedeExistir(eq(FiltroUnicidadUsuarios.Campo.TELEFONO), any())).thenReturn(false);
+        simularTransacciones();
+        when(usuarioRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ResultadoLote> resultados = usuarioService.saveLote(List.of(nuevo));
+
+        assertTrue(resultados.getFirst().creado());
+        verify(usuarioRepository, never()).findRunsRegistrados(any());
+        verify(usuarioRepository, never()).findTelefonosRegistrados(any());
+        verify(usuarioRepository).findCorreosRegistrados(List.of("a@ejemplo.com"));
+        verify(filtroUnicidadUsuarios).registrar(nuevo);
+    }
+
+    @Test
+    public void save_shouldRejectDuplicateRun_beforeInsert() {
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
+        when(usuarioRepository.existsByRun(usuario.getRun())).thenReturn(true);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> usuarioService.save(usuario));
+
+        assertEquals("El RUN ya está registrado.", error.getMessage());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void save_shouldSkipExistsQueries_whenFilterRulesOutValues() {
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
+        doReturn(false).when(filtroUnicidadUsuarios).existe(any(), any(), any());
+        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+
+        usuarioService.save(usuario);
+
+        verify(usuarioRepository, never()).existsByRun(any());
+        verify(usuarioRepository, never()).existsByTelefono(any());
+        verify(usuarioRepository, never()).existsByCorreo(any());
+        verify(filtroUnicidadUsuarios).registrar(usuario);
+    }
+
+    @Test
+    public void update_shouldRejectStaleVersion_beforeValidating() {
+        usuario.setVersion(3);
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        Usuario cambios = copiaConDatos(usuario.getRun(), usuario.getTelefono(), "nuevo@ejemplo.com");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> usuarioService.update(cambios, id, 2L));
+        verify(tipoUsuarioService, never()).findById(any());
+        verify(catalogoEspejoService, never()).existeEstado(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void update_shouldSkipValidationAndWrite_whenDataIsUnchanged() {
+        usuario.setVersion(3);
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        Usuario mismosDatos = copiaConDatos(usuario.getRun(), usuario.getTelefono(), usuario.getCorreo());
+        mismosDatos.setDiasBaneo(usuario.getDiasBaneo());
+        // Las relaciones se comparan por ID, no por instancia
+        mismosDatos.setEstado(new Estado(usuario.getEstado().getIdEstado(), null, null));
+
+        Usuario resultado = usuarioService.update(mismosDatos, id, 3L);
+
+        assertSame(usuario, resultado);
+        verify(tipoUsuarioService, never()).findById(any());
+        verify(catalogoEspejoService, never()).existeEstado(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_shouldSkipWrite_whenValuesAreUnchanged() throws Exception {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+
+        Usuario resultado = usuarioService.patch(id,
+                objectMapper.readTree("{\"nombre\": \"" + usuario.getNombre() + "\", \"version\": 99}"), 0L);
+
+        assertSame(usuario, resultado);
+        assertEquals(0, usuario.getVersion());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_shouldOnlyChangeSentFields_withoutRevalidatingRelations() throws Exception {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+        String nombre = usuario.getNombre();
+
+        usuarioService.patch(id, objectMapper.readTree("{\"telefono\": \"912345678\"}"));
+
+        assertEquals("912345678", usuario.getTelefono());
+        assertEquals(nombre, usuario.getNombre());
+        verify(tipoUsuarioService, never()).findById(any());
+        verify(catalogoEspejoService, never()).existeEstado(any());
+        // Sólo se verifica el valor único que cambia
+        verify(usuarioRepository).existsByTelefonoAndIdUsuarioNot("912345678", id);
+        verify(usuarioRepository, never()).existsByRunAndIdUsuarioNot(any(), anyInt());
+        verify(usuarioRepository, never()).existsByCorreoAndIdUsuarioNot(any(), anyInt());
+    }
+
+    @Test
+    public void patch_shouldValidateOnlyChangedRelation() throws Exception {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        when(catalogoEspejoService.existeEstado(2)).thenReturn(false);
+        Estado estadoAnterior = usuario.getEstado();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.patch(id, objectMapper.readTree("{\"estado\": {\"idEstado\": 2}}")));
+
+        assertEquals("El estado asociado al usuario no existe en la API externa.", error.getMessage());
+        verify(tipoUsuarioService, never()).findById(any());
+        // La entidad existente no se modifica si la validación falla
+        assertSame(estadoAnterior, usuario.getEstado());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_shouldRejectInvalidChanges() throws Exception {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.patch(id, objectMapper.readTree("{\"idUsuario\": " + (id + 1) + "}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.patch(id, objectMapper.readTree("{\"nombre\": \"\"}")));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.patch(id, objectMapper.readTree("[]")));
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void patch_shouldThrowException_whenUserNotFound() throws Exception {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class,
+                () -> usuarioService.patch(id, objectMapper.readTree("{\"telefono\": \"912345678\"}")));
+    }
+
+    @Test
+    public void update_shouldOnlyCheckChangedValuesAgainstOtherUsers() {
+        Usuario usuarioExistente = copiaConDatos(usuario.getRun(), usuario.getTelefono(), "anterior@ejemplo.com");
+        usuarioExistente.setIdUsuario(id);
+
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuarioExistente));
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstado(usuario.getEstado().getIdEstado())).thenReturn(true);
+        when(usuarioRepository.existsByCorreoAndIdUsuarioNot(usuario.getCorreo(), id)).thenReturn(true);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> usuarioService.update(usuario, id));
+
+        assertEquals("El correo ya está registrado.", error.getMessage());
+        verify(usuarioRepository, never()).existsByRunAndIdUsuarioNot(any(), anyInt());
+        verify(usuarioRepository, never()).existsByTelefonoAndIdUsuarioNot(any(), anyInt());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void saveLote_shouldThrowException_whenEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.saveLote(List.of()));
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    // --- Pruebas de los métodos reactivos ---
+
+    @Test
+    public void saveReactivo_shouldReturnSavedUser_whenValid() {
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstadoReactivo(usuario.getEstado().getIdEstado())).thenReturn(Mono.just(true));
+        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+
+        StepVerifier.create(usuarioService.saveReactivo(usuario))
+                .expectNext(usuario)
+                .verifyComplete();
+
+        verify(catalogoEspejoService, never()).existeEstado(any());
+    }
+
+    @Test
+    public void saveReactivo_shouldFail_whenEstadoApiFails() {
+        when(tipoUsuarioService.findById(any())).thenReturn(usuario.getTipoUsuario());
+        when(catalogoEspejoService.existeEstadoReactivo(usuario.getEstado().getIdEstado()))
+                .thenReturn(Mono.error(new IllegalStateException("timeout")));
+
+        StepVerifier.create(usuarioService.saveReactivo(usuario))
+                .expectErrorMatches(e -> e instanceof IllegalStateException
+                        && e.getMessage().equals("Error al comunicarse con la API de estados."))
+                .verify();
+
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldFail_whenUserNotFound() {
+        when(usuarioRepository.findById(id)).thenReturn(Optional.empty());
+
+        StepVerifier.create(usuarioService.updateReactivo(usuario, id))
+                .expectError(NoSuchElementException.class)
+                .verify();
+
+        verify(catalogoEspejoService, never()).existeEstadoReactivo(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldRejectStaleVersion_beforeValidating() {
+        usuario.setVersion(3);
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        Usuario cambios = copiaConDatos(usuario.getRun(), usuario.getTelefono(), "nuevo@ejemplo.com");
+
+        StepVerifier.create(usuarioService.updateReactivo(cambios, id, 2L))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        verify(tipoUsuarioService, never()).findById(any());
+        verify(catalogoEspejoService, never()).existeEstadoReactivo(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    public void updateReactivo_shouldSkipValidationAndWrite_whenDataIsUnchanged() {
+        usuario.setVersion(3);
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        Usuario mismosDatos = copiaConDatos(usuario.getRun(), usuario.getTelefono(), usuario.getCorreo());
+        mismosDatos.setDiasBaneo(usuario.getDiasBaneo());
+
+        StepVerifier.create(usuarioService.updateReactivo(mismosDatos, id, 3L))
+                .expectNext(usuario)
+                .verifyComplete();
+
+        verify(catalogoEspejoService, never()).existeEstadoReactivo(any());
+        verify(usuarioRepository, never()).save(any());
+    }
+
     // --- Pruebas del método de subir foto ---
 
     @Test
@@ -240,7 +607,8 @@ public class UsuarioServiceTest {
         // Arrange
         String mockPhotoUrl = "http://api.mock.com/photos/123";
         MultipartFile mockFile = mock(MultipartFile.class);
-        when(webClienteConfig.uploadFoto(mockFile)).thenReturn(mockPhotoUrl);
+        Foto foto = new Foto(5, mockPhotoUrl, "hash");
+        when(fotoService.subir(mockFile)).thenReturn(foto);
 
         // El objeto usuario del setUp ya tiene una foto, lo que resuelve el NullPointerException
         when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
@@ -251,7 +619,8 @@ public class UsuarioServiceTest {
 
         // Assert
         assertEquals(mockPhotoUrl, returnedUrl);
-        verify(webClienteConfig, times(1)).uploadFoto(mockFile);
+        assertSame(foto, usuario.getFoto());
+        verify(fotoService, times(1)).subir(mockFile);
         verify(usuarioRepository, times(1)).findById(id);
         verify(usuarioRepository, times(1)).save(usuario);
     }
@@ -266,5 +635,6 @@ public class UsuarioServiceTest {
         assertThrows(RuntimeException.class, () -> usuarioService.subirYActualizarFotoUsuario(id, mockFile));
         verify(usuarioRepository, times(1)).findById(id);
         verify(usuarioRepository, never()).save(any());
+        verify(fotoService, never()).subir(any(MultipartFile.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.SAFE_Rescue.API_Perfiles.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ValidadorConcurrenteTest {
+
+    private ExecutorService executor;
+    private ValidadorConcurrente validadorConcurrente;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        validadorConcurrente = new ValidadorConcurrente(executor, Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void validar_shouldRunValidationsConcurrently() {
+        // Cada validación espera a la otra: sólo terminan si se ejecutan al mismo tiempo
+        CountDownLatch ambas = new CountDownLatch(2);
+        Runnable validacion = () -> {
+            ambas.countDown();
+            try {
+                assertTrue(ambas.await(1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        assertDoesNotThrow(() -> validadorConcurrente.validar(validacion, validacion));
+    }
+
+    @Test
+    public void validar_shouldFailFast_whenAnyValidationFails() {
+        CountDownLatch nuncaTermina = new CountDownLatch(1);
+
+        long inicio = System.nanoTime();
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> validadorConcurrente.validar(
+                () -> {
+                    try {
+                        nuncaTermina.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                },
+                () -> {
+                    throw new IllegalArgumentException("El tipo de usuario asociado no existe.");
+                }));
+
+        assertEquals("El tipo de usuario asociado no existe.", ex.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 500);
+    }
+
+    @Test
+    public void validar_shouldFail_whenDeadlineExceeded() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> validadorConcurrente.validar(
+                () -> {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        assertTrue(ex.getMessage().contains("plazo"));
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+    }
+
+    @Test
+    public void validar_shouldInterruptRemainingValidations_whenAnyValidationFails() throws InterruptedException {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch interrumpida = new CountDownLatch(1);
+
+        assertThrows(IllegalArgumentException.class, () -> validadorConcurrente.validar(
+                () -> esperarInterrupcion(enCurso, interrumpida),
+                () -> {
+                    try {
+                        // La falla ocurre cuando la otra validación ya ocupa su hilo
+                        enCurso.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalArgumentException("El estado asociado no existe.");
+                }));
+
+        assertTrue(interrumpida.await(1, TimeUnit.SECONDS), "La validación en curso no fue interrumpida");
+    }
+
+    @Test
+    public void validar_shouldInterruptRemainingValidations_whenDeadlineExceeded() throws InterruptedException {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch interrumpida = new CountDownLatch(1);
+
+        assertThrows(IllegalStateException.class,
+                () -> validadorConcurrente.validar(() -> esperarInterrupcion(enCurso, interrumpida)));
+
+        assertTrue(interrumpida.await(1, TimeUnit.SECONDS), "La validación en curso no fue interrumpida");
+    }
+
+    @Test
+    public void validar_shouldReleaseThread_whenEstadoLookupExceedsDeadline() throws Exception {
+        WebClient estadoWebClient = mock(WebClient.class, RETURNS_DEEP_STUBS);
+        when(estadoWebClient.get().uri(anyString(), anyInt()).retrieve().bodyToMono(any(ParameterizedTypeReference.class)))
+                .thenReturn(Mono.never());
+        EstadoCacheService estadoCacheService = new EstadoCacheService(estadoWebClient,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+
+        assertHiloLiberado(() -> estadoCacheService.existeEstado(1));
+    }
+
+    @Test
+    public void validar_shouldReleaseThread_whenCompaniaLookupExceedsDeadline() throws Exception {
+        WebClient companiaWebClient = mock(WebClient.class, RETURNS_DEEP_STUBS);
+        when(companiaWebClient.head().uri(anyString(), anyInt()).retrieve().toBodilessEntity()).thenReturn(Mono.never());
+        CompaniaCacheService companiaCacheService = new CompaniaCacheService(companiaWebClient,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+
+        assertHiloLiberado(() -> companiaCacheService.existeCompania(1));
+    }
+
+    // Con un único hilo de validación, la siguiente tarea sólo corre si la consulta bloqueada soltó su hilo
+    private static void assertHiloLiberado(Runnable consultaLenta) throws Exception {
+        ExecutorService unHilo = Executors.newSingleThreadExecutor();
+        try {
+            ValidadorConcurrente validador = new ValidadorConcurrente(unHilo, Duration.ofMillis(200));
+
+            assertThrows(IllegalStateException.class, () -> validador.validar(consultaLenta));
+
+            assertTrue(unHilo.submit(() -> true).get(2, TimeUnit.SECONDS));
+        } finally {
+            unHilo.shutdownNow();
+        }
+    }
+
+    // Simula una consulta lenta: bloquea su hilo hasta ser interrumpida
+    private static void esperarInterrupcion(CountDownLatch enCurso, CountDownLatch interrumpida) {
+        enCurso.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrumpida.countDown();
+        }
+    }
+
+    @Test
+    public void validarReactivo_shouldFail_whenDeadlineExceeded() {
+        StepVerifier.create(validadorConcurrente.validarReactivo(Mono.empty(), Mono.never()))
+                .expectErrorMatches(e -> e instanceof TimeoutException && e.getMessage().contains("plazo"))
+                .verify(Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,23 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigitoVerificadorTest {
+
+    @Test
+    public void calcular_shouldReturnModulo11Digit() {
+        assertEquals("5", DigitoVerificador.calcular("12345678"));
+        assertEquals("K", DigitoVerificador.calcular("10000013"));
+        assertEquals("0", DigitoVerificador.calcular("10000004"));
+        // Los ceros a la izquierda no cambian el resultado
+        assertEquals(DigitoVerificador.calcular("7654321"), DigitoVerificador.calcular("07654321"));
+    }
+
+    @Test
+    public void calcular_shouldRejectInvalidRun() {
+        assertThrows(IllegalArgumentException.class, () -> DigitoVerificador.calcular("1234567K"));
+        assertThrows(IllegalArgumentException.class, () -> DigitoVerificador.calcular(""));
+    }
+}
@@ -0,0 +1,37 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorTransitorioTest {
+
+    @Test
+    public void es_shouldDetectSaturationAndTimeouts() {
+        assertTrue(ErrorTransitorio.es(new RejectedExecutionException("Pool lleno")));
+        assertTrue(ErrorTransitorio.es(new TimeoutException("Plazo vencido")));
+        assertTrue(ErrorTransitorio.es(new QueryTimeoutException("Consulta lenta")));
+        assertTrue(ErrorTransitorio.es(CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("estados"))));
+    }
+
+    @Test
+    public void es_shouldLookThroughCauses() {
+        assertTrue(ErrorTransitorio.es(new IllegalStateException("Error al comunicarse con la API de estados.",
+                new TimeoutException("Sin respuesta"))));
+    }
+
+    @Test
+    public void es_shouldRejectClientAndPermanentErrors() {
+        assertFalse(ErrorTransitorio.es(new IllegalArgumentException("El nombre es requerido.")));
+        assertFalse(ErrorTransitorio.es(new DataAccessResourceFailureException("Base de datos caída")));
+        assertFalse(ErrorTransitorio.es(new IllegalStateException("Error al comunicarse con la API de estados.",
+                new RuntimeException("500 Internal Server Error"))));
+    }
+}
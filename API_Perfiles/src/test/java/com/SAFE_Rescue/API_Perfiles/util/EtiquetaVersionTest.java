@@ -0,0 +1,49 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EtiquetaVersionTest {
+
+    @Test
+    public void etag_shouldQuoteVersion() {
+        assertEquals("\"7\"", EtiquetaVersion.etag(7));
+    }
+
+    @Test
+    public void versionEsperada_shouldParseStrongTags() {
+        assertEquals(7L, EtiquetaVersion.versionEsperada("\"7\""));
+        assertEquals(7L, EtiquetaVersion.versionEsperada(" \"7\" "));
+    }
+
+    @Test
+    public void versionEsperada_shouldRejectWeakTags() {
+        // If-Match usa comparación fuerte (RFC 9110): un ETag débil nunca coincide
+        assertThrows(IllegalArgumentException.class, () -> EtiquetaVersion.versionEsperada("W/\"7\""));
+    }
+
+    @Test
+    public void versionEsperada_shouldReturnNull_whenAnyVersionIsAccepted() {
+        assertNull(EtiquetaVersion.versionEsperada(null));
+        assertNull(EtiquetaVersion.versionEsperada(""));
+        assertNull(EtiquetaVersion.versionEsperada("*"));
+    }
+
+    @Test
+    public void versionEsperada_shouldRejectForeignTags() {
+        assertThrows(IllegalArgumentException.class, () -> EtiquetaVersion.versionEsperada("7"));
+        assertThrows(IllegalArgumentException.class, () -> EtiquetaVersion.versionEsperada("\"abc\""));
+        assertThrows(IllegalArgumentException.class, () -> EtiquetaVersion.versionEsperada("\"\""));
+    }
+
+    @Test
+    public void verificar_shouldRejectOnlyMismatchedVersions() {
+        assertDoesNotThrow(() -> EtiquetaVersion.verificar(3, null, "usuario"));
+        assertDoesNotThrow(() -> EtiquetaVersion.verificar(3, 3L, "usuario"));
+        OptimisticLockingFailureException e = assertThrows(OptimisticLockingFailureException.class,
+                () -> EtiquetaVersion.verificar(3, 2L, "usuario"));
+        assertEquals(EtiquetaVersion.conflicto("usuario"), e.getMessage());
+    }
+}
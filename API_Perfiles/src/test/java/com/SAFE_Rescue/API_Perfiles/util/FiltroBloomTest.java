@@ -0,0 +1,49 @@
+package com.SAFE_Rescue.API_Perfiles.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroBloomTest {
+
+    @Test
+    public void puedeContener_shouldNeverMissAddedValues() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i + "@ejemplo.com");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i + "@ejemplo.com"));
+        }
+    }
+
+    @Test
+    public void puedeContener_shouldKeepFalsePositivesNearConfiguredRate() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar(String.valueOf(10_000_000 + i));
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.puedeContener(String.valueOf(20_000_000 + i))) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "Falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    public void constructor_shouldSizeFilterForExpectedElements() {
+        FiltroBloom filtro = new FiltroBloom(1_000, 0.01);
+        // Óptimo teórico: 9.585 bits y 7 funciones de hash
+        assertTrue(filtro.cantidadBits() >= 9_585 && filtro.cantidadBits() < 9_585 + Long.SIZE);
+        assertEquals(7, filtro.funciones());
+    }
+
+    @Test
+    public void constructor_shouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1));
+    }
+}